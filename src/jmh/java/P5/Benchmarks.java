@@ -0,0 +1,74 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@code Benchmarks} is the entry point of {@code benchmarks.jar}. It accepts
+ * the usual JMH command line, answering {@code -h}, {@code -l},
+ * {@code -lp}, {@code -lprof} and {@code -lrf} as {@code org.openjdk.jmh.Main}
+ * does, and adds the GC profiler to every run, so it reports the allocation
+ * rate next to the ops/s.
+ */
+
+public final class Benchmarks {
+
+	private Benchmarks() {
+	}
+
+	/**
+	 * Runs the benchmarks selected on the command line, or prints the help
+	 * or listing asked for instead.
+	 *
+	 * @param args JMH command line options.
+	 * @throws RunnerException            if a benchmark fails.
+	 * @throws CommandLineOptionException if the options are invalid.
+	 * @throws IOException                if the help cannot be printed.
+	 */
+	public static void main(String[] args) throws RunnerException,
+			CommandLineOptionException, IOException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp()) {
+			commandLine.showHelp();
+			return;
+		}
+		if (commandLine.shouldList()) {
+			new Runner(commandLine).list();
+			return;
+		}
+		if (commandLine.shouldListWithParams()) {
+			new Runner(commandLine).listWithParams(commandLine);
+			return;
+		}
+		if (commandLine.shouldListProfilers()) {
+			commandLine.listProfilers();
+			return;
+		}
+		if (commandLine.shouldListResultFormats()) {
+			commandLine.listResultFormats();
+			return;
+		}
+
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.parent(commandLine);
+		if (commandLine.getProfilers().stream()
+				.map(profiler -> profiler.getKlass())
+				.noneMatch(name -> name.equals("gc")
+						|| name.equals(GCProfiler.class.getName()))) {
+			options.addProfiler(GCProfiler.class);
+		}
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code GameBatchBenchmark} plays {@value #GAMES} games from the start for
+ * {@value #STEPS} turns each, with the same precomputed pits, as one
+ * {@code Mancala} per game, as a {@code GameBatch} stepped one game at a time
+ * and as a {@code GameBatch} stepped with the Vector API. The pits of each
+ * game are the random legal moves of that game, and turns after it ends are
+ * refused; every way of playing sees the same turns. Scores are turns per
+ * microsecond.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules",
+		"jdk.incubator.vector" })
+public class GameBatchBenchmark {
+
+	private static final int STEPS = 64; // turns per game per invocation.
+	private static final int GAMES = 4096; // games played side by side.
+
+	private Mancala[] objects; // one Mancala per game.
+	private GameBatch scalar; // stepped one game at a time.
+	private GameBatch vector; // stepped with the Vector API.
+	private int[][] pits; // pits[k][g] is turn k of game g.
+	private int[] results; // the results of one step.
+
+	@Setup
+	public void setUp() {
+		objects = new Mancala[GAMES];
+		for (int g = 0; g < GAMES; g++) {
+			objects[g] = new Mancala();
+		}
+		scalar = new GameBatch(Variant.KALAH_6_4, GAMES, false);
+		vector = new GameBatch(Variant.KALAH_6_4, GAMES);
+		if (!vector.isVectorized()) {
+			throw new IllegalStateException("Vector API is not available");
+		}
+		Random random = new Random(21);
+		pits = new int[STEPS][GAMES];
+		for (int g = 0; g < GAMES; g++) {
+			Mancala game = objects[g];
+			for (int k = 0; k < STEPS; k++) {
+				int moves = game.getLegalMoves();
+				if (moves == 0) {
+					pits[k][g] = 1 + random.nextInt(Side.STORE_INDEX);
+					continue;
+				}
+				pits[k][g] = MoveSelector.randomPit(moves, random);
+				game.performTurn(pits[k][g]);
+			}
+		}
+		results = new int[GAMES];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STEPS * GAMES)
+	public int mancalaObjects() {
+		int played = 0;
+		for (Mancala game : objects) {
+			game.reset();
+		}
+		for (int[] step : pits) {
+			for (int g = 0; g < GAMES; g++) {
+				played += objects[g].takeTurn(step[g]) & TurnResult.PLAYED;
+			}
+		}
+		return played;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STEPS * GAMES)
+	public int batchScalar() {
+		return play(scalar);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STEPS * GAMES)
+	public int batchVector() {
+		return play(vector);
+	}
+
+	/*
+	 * Helper method: to play every step of pits in batch from the start.
+	 */
+
+	private int play(GameBatch batch) {
+		int played = 0;
+		batch.reset();
+		for (int[] step : pits) {
+			played += batch.step(step, results);
+		}
+		return played;
+	}
+}
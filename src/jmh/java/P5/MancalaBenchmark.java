@@ -0,0 +1,197 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import P5.BoardRenderer.Format;
+import P5.Side.Player;
+
+/**
+ * {@code MancalaBenchmark} measures the turn and rendering paths of
+ * {@code Mancala} on fixed positions with {@link #seedsPerPit} seeds per pit
+ * at the start.
+ * <p>
+ * Each turn benchmark plays one move with {@link Mancala#makeMove(int)},
+ * which runs {@link Mancala#performTurn(int)}, and takes it back with
+ * {@link Mancala#unmakeMove()}, so every invocation starts from the same
+ * position. {@link #unmakeOnly()} is the baseline for the cost of the undo.
+ * The capture and game over positions end their turn in
+ * {@code captureOpponentsSeeds} and in {@code isGameOver} followed by
+ * {@code performGameOver}.
+ * <p>
+ * {@link #replayTurns()} and {@link #replayBatch()} replay a whole random
+ * game from the start, one {@link Mancala#performTurn(int)} at a time and
+ * with one {@link Mancala#performTurns(int[], int[])}.
+ * <p>
+ * {@link #renderIntoBuilder()} and {@link #renderFeedBatch()} measure a
+ * reused {@code BoardRenderer} against {@link #renderToString()}; the batch
+ * renders {@value #FEED_BOARDS} compact boards into one buffer.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MancalaBenchmark {
+
+	private static final int FEED_BOARDS = 64; // boards per batch render.
+
+	@Param({ "4", "8", "12" })
+	public int seedsPerPit; // seeds in every pit at the start.
+
+	private Mancala midGame; // a position a dozen random turns in.
+	private int midGamePit; // a legal pit of midGame.
+	private Mancala capture; // pit 1 captures the opponent's pit 5.
+	private Mancala gameOver; // pit 6 empties the mover's pits.
+	private PrintStream standardOut; // System.out outside of the benchmark.
+	private final BoardRenderer renderer = new BoardRenderer(); // reused.
+	private final StringBuilder text = new StringBuilder(); // reused output.
+	private final long[] feed = new long[FEED_BOARDS * Position.WORDS];
+	private final ByteBuffer feedOut = ByteBuffer.allocateDirect(64 * 1024);
+	private Mancala replay; // a game replayed from the start.
+	private int[] replayPits; // the turns of a whole random game.
+	private int[] replayResults; // the results of replayPits.
+
+	@Setup
+	public void setUp() {
+		long[] state = new long[Position.WORDS];
+		Random random = new Random(seedsPerPit);
+		do {
+			Position.initial(state, 0, seedsPerPit);
+			for (int turn = 0; turn < 12; turn++) { // illegal pits are skipped
+				Position.applyMove(state, 0, state, 0,
+						1 + random.nextInt(Side.STORE_INDEX));
+			}
+		} while (Position.isGameOver(state, 0));
+		midGame = new Mancala(state, 0);
+		midGamePit = Integer.numberOfTrailingZeros(midGame.getLegalMoves())
+				+ 1;
+
+		int[] full = new int[Side.ROW_SIZE];
+		Arrays.fill(full, 0, Side.STORE_INDEX, seedsPerPit);
+		int[] captureRow = full.clone();
+		captureRow[0] = 1;
+		captureRow[1] = 0;
+		Position.pack(state, 0, captureRow, full, Player.One, false);
+		capture = new Mancala(state, 0);
+
+		int[] lastSeed = new int[Side.ROW_SIZE];
+		lastSeed[Side.STORE_INDEX - 1] = 1;
+		Position.pack(state, 0, lastSeed, full, Player.One, false);
+		gameOver = new Mancala(state, 0);
+
+		for (int i = 0; i < FEED_BOARDS; i++) {
+			midGame.toPosition(feed, i * Position.WORDS);
+		}
+
+		replay = new Mancala(Variant.of(Side.STORE_INDEX, seedsPerPit));
+		replayPits = new int[0];
+		while (!replay.isGameOverConditionMet()) {
+			replayPits = Arrays.copyOf(replayPits, replayPits.length + 1);
+			replayPits[replayPits.length - 1] = MoveSelector
+					.randomPit(replay.getLegalMoves(), random);
+			replay.performTurn(replayPits[replayPits.length - 1]);
+		}
+		replayResults = new int[replayPits.length];
+
+		standardOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(standardOut);
+	}
+
+	@Benchmark
+	public long performTurn() {
+		midGame.makeMove(midGamePit);
+		long key = midGame.getZobristKey();
+		midGame.unmakeMove();
+		return key;
+	}
+
+	@Benchmark
+	public long unmakeOnly() {
+		midGame.unmakeMove(); // nothing to unmake, only the check
+		return midGame.getZobristKey();
+	}
+
+	@Benchmark
+	public long captureOpponentsSeeds() {
+		capture.makeMove(1);
+		long key = capture.getZobristKey();
+		capture.unmakeMove();
+		return key;
+	}
+
+	@Benchmark
+	public long isGameOver() {
+		gameOver.makeMove(Side.STORE_INDEX);
+		long key = gameOver.getZobristKey();
+		gameOver.unmakeMove();
+		return key;
+	}
+
+	@Benchmark
+	public long replayTurns() {
+		replay.reset();
+		for (int pitNumber : replayPits) {
+			replay.performTurn(pitNumber);
+		}
+		return replay.getZobristKey();
+	}
+
+	@Benchmark
+	public long replayBatch() {
+		replay.reset();
+		replay.performTurns(replayPits, replayResults);
+		return replay.getZobristKey();
+	}
+
+	@Benchmark
+	public String renderToString() {
+		return midGame.toString();
+	}
+
+	@Benchmark
+	public int renderIntoBuilder() {
+		text.setLength(0);
+		return renderer.render(Format.TEXT, midGame, text).length();
+	}
+
+	@Benchmark
+	public int renderFeedBatch() {
+		feedOut.clear();
+		return renderer.render(Format.COMPACT, feed, 0, FEED_BOARDS, feedOut);
+	}
+
+	@Benchmark
+	public void printCurrentGameStatus() {
+		midGame.printCurrentGameStatus();
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code MoveEngineBenchmark} compares the {@code Mancala.Engine}s on the
+ * same turns: a whole random game replayed from the start, and one move made
+ * and unmade in the middle of a game. Scores are nanoseconds per operation.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveEngineBenchmark {
+
+	@Param({ "ARITHMETIC", "TABLES" })
+	public Mancala.Engine engine;
+
+	@Param({ "4", "6" })
+	public int seedsPerPit;
+
+	private Mancala replay; // replays replayPits from the start.
+	private int[] replayPits; // the pits of one random game.
+	private Mancala midGame; // twelve random turns into a game.
+	private int midGamePit; // a legal pit of midGame.
+
+	@Setup
+	public void setUp() {
+		Variant variant = Variant.of(Side.STORE_INDEX, seedsPerPit);
+		Random random = new Random(seedsPerPit);
+		replay = new Mancala(variant, engine);
+		replayPits = new int[0];
+		while (!replay.isGameOverConditionMet()) {
+			replayPits = Arrays.copyOf(replayPits, replayPits.length + 1);
+			replayPits[replayPits.length - 1] = MoveSelector
+					.randomPit(replay.getLegalMoves(), random);
+			replay.performTurn(replayPits[replayPits.length - 1]);
+		}
+
+		midGame = new Mancala(variant, engine);
+		for (int i = 0; i < 12 && !midGame.isGameOverConditionMet(); i++) {
+			midGame.performTurn(replayPits[i]);
+		}
+		midGamePit = Integer.numberOfTrailingZeros(midGame.getLegalMoves())
+				+ 1;
+	}
+
+	@Benchmark
+	public long replayTurns() {
+		replay.reset();
+		for (int pitNumber : replayPits) {
+			replay.takeTurn(pitNumber);
+		}
+		return replay.getZobristKey();
+	}
+
+	@Benchmark
+	public long makeUnmake() {
+		midGame.makeMove(midGamePit);
+		long key = midGame.getZobristKey();
+		midGame.unmakeMove();
+		return key;
+	}
+}
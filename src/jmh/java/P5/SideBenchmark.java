@@ -0,0 +1,78 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import P5.Side.Player;
+
+/**
+ * {@code SideBenchmark} measures {@link Side#sowSeedsIntoPits(boolean, int)}
+ * sowing {@link #seedsToSow} seeds, a few within the row or many full laps,
+ * into a row with {@link #seedsPerPit} seeds per pit. The row is put back
+ * after every sowing, and {@link #restoreOnly()} is the baseline for that.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SideBenchmark {
+
+	@Param({ "4", "8", "12" })
+	public int seedsPerPit; // seeds in every pit before sowing.
+
+	@Param({ "3", "60" })
+	public int seedsToSow; // seeds sown per invocation.
+
+	private Side side; // the row sown into.
+	private int[] savedRow; // the row before sowing.
+
+	@Setup
+	public void setUp() {
+		savedRow = new int[Side.ROW_SIZE];
+		Arrays.fill(savedRow, 0, Side.STORE_INDEX, seedsPerPit);
+		side = new Side(Player.One, savedRow);
+	}
+
+	@Benchmark
+	public int sowOurMove() {
+		side.collectSeedsFromPit(1);
+		side.sowSeedsIntoPits(true, seedsToSow);
+		int store = side.getStoreCount();
+		side.restoreRow(savedRow, 0);
+		return store;
+	}
+
+	@Benchmark
+	public int sowOpponentMove() {
+		side.sowSeedsIntoPits(false, seedsToSow);
+		int seeds = side.getNumSeedsInPits();
+		side.restoreRow(savedRow, 0);
+		return seeds;
+	}
+
+	@Benchmark
+	public int restoreOnly() {
+		side.restoreRow(savedRow, 0);
+		return side.getNumSeedsInPits();
+	}
+}
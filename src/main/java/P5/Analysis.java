@@ -0,0 +1,194 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * {@code Analysis} is the handle of one position being analysed by an
+ * {@code AnalysisService}. It publishes a {@code SearchResult} every time the
+ * search completes a deeper iteration, with the best pit, its score, the
+ * principal variation, the depth and the speed of the search.
+ * <p>
+ * Subscribers are completed when the analysis reaches its depth or its
+ * deadline, or when the game is over, and completed exceptionally with a
+ * {@code CancellationException} when it is cancelled. A subscriber that
+ * falls behind misses results rather than slowing the search; the latest one
+ * is always available from {@link #getLatest()}.
+ */
+
+public final class Analysis implements Flow.Publisher<SearchResult> {
+
+	private final Mancala game; // a copy of the position analysed.
+	private final int maxDepth; // the deepest iteration to publish.
+	private final ThreadPoolExecutor workers; // runs the iterations.
+	private final SearchEngine engine; // searches this analysis only.
+	private final SubmissionPublisher<SearchResult> publisher; // streams.
+	private final CompletableFuture<SearchResult> result; // the final one.
+	private final Runnable iteration = this::iterate; // queued on workers.
+	private volatile SearchResult latest; // deepest result so far, or null.
+	private volatile boolean expired; // flag set when the deadline passes.
+	private Future<?> deadline; // expires the analysis, or null.
+
+	/*
+	 * Constructs a new instance of Analysis of game, searched to maxDepth
+	 * plies by engine, one iteration at a time on workers.
+	 */
+
+	Analysis(Mancala game, int maxDepth, ThreadPoolExecutor workers,
+			SearchEngine engine) {
+		this.game = game;
+		this.maxDepth = maxDepth;
+		this.workers = workers;
+		this.engine = engine;
+		this.publisher = new SubmissionPublisher<>();
+		this.result = new CompletableFuture<>();
+	}
+
+	/**
+	 * This method subscribes {@code subscriber} to the results found from
+	 * now on; {@link #getLatest()} holds the deepest one found before.
+	 *
+	 * @param subscriber The subscriber receiving the results.
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super SearchResult> subscriber) {
+		publisher.subscribe(subscriber);
+	}
+
+	/**
+	 * Accessor method to get the deepest result published so far.
+	 *
+	 * @return the latest {@code SearchResult}, or null before the first.
+	 */
+	public SearchResult getLatest() {
+		return latest;
+	}
+
+	/**
+	 * Accessor method to get the result the analysis ends with.
+	 *
+	 * @return a future completed with the deepest {@code SearchResult} when
+	 *         the analysis ends, or cancelled when it is cancelled.
+	 */
+	public CompletableFuture<SearchResult> getResult() {
+		return result;
+	}
+
+	/**
+	 * Accessor method to find whether the analysis has ended.
+	 *
+	 * @return True once it is complete or cancelled.
+	 */
+	public boolean isDone() {
+		return result.isDone();
+	}
+
+	/**
+	 * This method cancels the analysis. A running iteration stops at its
+	 * next node, none is started afterwards, and subscribers are completed
+	 * with a {@code CancellationException}. It may be called from any thread
+	 * and does nothing once the analysis has ended.
+	 *
+	 * @return True if this call cancelled the analysis.
+	 */
+	public boolean cancel() {
+		CancellationException cancelled = new CancellationException(
+				"Analysis cancelled");
+		if (!result.completeExceptionally(cancelled)) {
+			return false;
+		}
+		engine.stop();
+		workers.remove(iteration); // if it is waiting for a worker
+		synchronized (publisher) {
+			publisher.closeExceptionally(cancelled);
+		}
+		cancelDeadline();
+		return true;
+	}
+
+	/*
+	 * Helper method: to queue the first iteration, to be expired by deadline
+	 * unless that is null.
+	 */
+
+	synchronized void start(Future<?> deadline) {
+		this.deadline = deadline;
+		workers.execute(iteration);
+	}
+
+	/*
+	 * Helper method: to end the analysis when its deadline passes. The
+	 * running iteration stops at its next node once its first ply is
+	 * searched, and the deepest result so far is the final one.
+	 */
+
+	void expire() {
+		expired = true;
+		engine.stop();
+	}
+
+	/*
+	 * Helper method: to search one ply deeper than the latest result, publish
+	 * the result if it is deeper, and queue the next iteration behind those
+	 * of every other analysis. The table shared by the engine makes the
+	 * shallower plies searched again by each iteration cheap.
+	 */
+
+	private void iterate() {
+		if (result.isDone()) {
+			return;
+		}
+		SearchResult previous = latest;
+		int depth = previous == null ? 1 : previous.getDepth() + 1;
+		SearchResult found = engine.search(game, depth, Long.MAX_VALUE);
+		if (found.getDepth() == 0) { // the game is over
+			finish(found);
+			return;
+		}
+		if (previous == null || found.getDepth() > previous.getDepth()) {
+			latest = found;
+			synchronized (publisher) { // never offered once closed
+				if (!result.isDone()) {
+					publisher.offer(found, null); // dropped when behind
+				}
+			}
+		}
+		if (expired || latest.getDepth() >= maxDepth) {
+			finish(latest);
+		} else if (!result.isDone()) {
+			workers.execute(iteration);
+		}
+	}
+
+	/*
+	 * Helper method: to end the analysis with last, unless it was cancelled.
+	 */
+
+	private void finish(SearchResult last) {
+		if (result.complete(last)) {
+			synchronized (publisher) {
+				publisher.close();
+			}
+			cancelDeadline();
+		}
+	}
+
+	/*
+	 * Helper method: to cancel the deadline once the analysis has ended.
+	 */
+
+	private synchronized void cancelDeadline() {
+		if (deadline != null) {
+			deadline.cancel(false);
+		}
+	}
+}
@@ -0,0 +1,176 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code AnalysisService} analyses many positions at once in the background,
+ * for example to stream move hints to players. Each call to
+ * {@code analyze} returns an {@code Analysis} at once, which publishes a
+ * deeper {@code SearchResult} every time one is found.
+ * <p>
+ * Analyses share a fixed number of worker threads fairly: each runs one
+ * iteration of its search, one ply deeper than the last, and then queues the
+ * next behind the iterations of every other analysis, so a deep analysis
+ * never holds a worker while others wait. Every analysis has its own
+ * {@code SearchEngine} and all of them share one
+ * {@code TranspositionTable}, aged at the start of every analysis so that
+ * deep results of positions long gone do not fill it up.
+ * <p>
+ * An analysis ends at its depth, at its deadline or when it is cancelled. An
+ * analysis started for a session cancels the one that session started
+ * before, so a player who moves on never waits behind, or pays for, the
+ * analysis of a position that is gone.
+ */
+
+public class AnalysisService implements AutoCloseable {
+
+	private final TranspositionTable table; // shared by every analysis.
+	private final ThreadPoolExecutor workers; // run analysis iterations.
+	private final ScheduledThreadPoolExecutor deadlines; // expire analyses.
+	private final ConcurrentHashMap<Long, Analysis> sessions; // by session.
+	private final Set<Analysis> running; // every analysis not yet ended.
+
+	/**
+	 * Constructs a new instance of {@code AnalysisService} analysing on
+	 * {@code threads} threads with a {@code TranspositionTable} sized by the
+	 * {@code mancala.tt.mb} system property.
+	 *
+	 * @param threads The number of worker threads, at least 1.
+	 */
+	public AnalysisService(int threads) {
+		this(threads, new TranspositionTable());
+	}
+
+	/**
+	 * Constructs a new instance of {@code AnalysisService} analysing on
+	 * {@code threads} threads with {@code table}.
+	 *
+	 * @param threads The number of worker threads, at least 1.
+	 * @param table   The {@code TranspositionTable} every analysis shares.
+	 * @throws IllegalArgumentException if {@code threads} is less than 1.
+	 */
+	public AnalysisService(int threads, TranspositionTable table) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"At least one thread is needed: " + threads);
+		}
+		this.table = table;
+		this.workers = new ThreadPoolExecutor(threads, threads, 0,
+				TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "mancala-analysis");
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.deadlines = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "mancala-deadline");
+			thread.setDaemon(true);
+			return thread;
+		});
+		deadlines.setRemoveOnCancelPolicy(true);
+		this.sessions = new ConcurrentHashMap<>();
+		this.running = ConcurrentHashMap.newKeySet();
+	}
+
+	/**
+	 * This method starts analysing {@code game}. The game is copied, so it
+	 * may be played on while the analysis runs.
+	 *
+	 * @param game       The position to analyse, with the {@code Player} to
+	 *                   move.
+	 * @param maxDepth   The deepest iteration to run, between 1 and
+	 *                   {@code SearchEngine.MAX_PLY} inclusive.
+	 * @param timeout    The time after which the analysis ends with its
+	 *                   deepest result, or null to run until
+	 *                   {@code maxDepth}.
+	 * @param subscriber The subscriber receiving every result, subscribed
+	 *                   before the first iteration is queued, or null.
+	 * @return the handle of the analysis.
+	 * @throws IllegalArgumentException if {@code maxDepth} is out of range.
+	 */
+	public Analysis analyze(Mancala game, int maxDepth, Duration timeout,
+			Flow.Subscriber<? super SearchResult> subscriber) {
+		if (maxDepth < 1 || maxDepth > SearchEngine.MAX_PLY) {
+			throw new IllegalArgumentException(
+					"Invalid depth: " + maxDepth);
+		}
+		// ages the entries of earlier analyses so that they give way to new
+		// ones; the workers see the new age, see TranspositionTable
+		table.newSearch();
+		SearchEngine engine = new SearchEngine(table);
+		engine.setStartsNewSearch(false); // the table is shared
+		Analysis analysis = new Analysis(new Mancala(game), maxDepth,
+				workers, engine);
+		if (subscriber != null) {
+			analysis.subscribe(subscriber);
+		}
+		running.add(analysis);
+		analysis.getResult().whenComplete((result, failure) -> running
+				.remove(analysis));
+		analysis.start(timeout == null ? null
+				: deadlines.schedule(analysis::expire, timeout.toNanos(),
+						TimeUnit.NANOSECONDS));
+		return analysis;
+	}
+
+	/**
+	 * This method starts analysing {@code game} for {@code session}, like
+	 * {@link #analyze(Mancala, int, Duration, Flow.Subscriber)}, and cancels
+	 * the analysis started for {@code session} before, if it is still
+	 * running.
+	 *
+	 * @param session    The id of the session, such as a game id of a
+	 *                   {@code SessionManager}.
+	 * @param game       The position to analyse, with the {@code Player} to
+	 *                   move.
+	 * @param maxDepth   The deepest iteration to run.
+	 * @param timeout    The time after which the analysis ends, or null.
+	 * @param subscriber The subscriber receiving every result, or null.
+	 * @return the handle of the analysis.
+	 */
+	public Analysis analyze(long session, Mancala game, int maxDepth,
+			Duration timeout,
+			Flow.Subscriber<? super SearchResult> subscriber) {
+		Analysis analysis = analyze(game, maxDepth, timeout, subscriber);
+		Analysis stale = sessions.put(session, analysis);
+		if (stale != null) {
+			stale.cancel();
+		}
+		analysis.getResult().whenComplete((result, failure) -> sessions
+				.remove(session, analysis));
+		return analysis;
+	}
+
+	/**
+	 * Accessor method to get the number of analyses that have not ended.
+	 *
+	 * @return the number of running analyses.
+	 */
+	public int getRunningCount() {
+		return running.size();
+	}
+
+	/**
+	 * This method cancels every running analysis and stops the threads.
+	 */
+	@Override
+	public void close() {
+		for (Analysis analysis : running) {
+			analysis.cancel();
+		}
+		workers.shutdownNow();
+		deadlines.shutdownNow();
+	}
+}
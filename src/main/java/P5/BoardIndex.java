@@ -0,0 +1,336 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import P5.Side.Player;
+
+/**
+ * {@code BoardIndex} numbers every board of a {@code Variant} holding a
+ * given number of seeds, from 0 to {@link #size()} - 1 with no gaps, so data
+ * about every board can be kept in a flat array or file indexed by
+ * {@link #rank(int[])} instead of a map keyed by the rows.
+ * <p>
+ * A board is its slots in order: the pits and store of {@code Player.One},
+ * then those of {@code Player.Two}, fourteen on the standard board. Seeds
+ * are never created or lost, so every board of a game has the same seed
+ * total. The boards are ranked with the combinatorial number system, which
+ * {@code EndgameDatabase} also uses for its twelve pits: a board of
+ * {@code k} slots is a row of {@code seeds} seeds and {@code k - 1} bars,
+ * and its rank is the sum of {@code C(b, i + 1)} over the position
+ * {@code b} of each bar {@code i}. The board with every seed in the last
+ * slot ranks first, and the one with every seed in the first slot ranks
+ * last.
+ * <p>
+ * The player to move is not part of a board; keep two entries per rank to
+ * tell the players apart. An index is immutable and may be shared between
+ * threads, but each of its iterators belongs to one thread.
+ */
+
+public final class BoardIndex implements Iterable<int[]> {
+
+	private final Variant variant; // the geometry of the boards.
+	private final int slots; // slots of a board, both rows.
+	private final int seeds; // seeds on every board.
+	private final long[][] binomial; // binomial[n][k] is n choose k.
+	private final long size; // the number of boards.
+
+	/**
+	 * Constructs a new instance of {@code BoardIndex} of the boards of
+	 * {@code variant} holding all of its seeds, those of every position of
+	 * its games.
+	 *
+	 * @param variant The geometry and starting seeds of the boards.
+	 * @throws IllegalArgumentException if there are more boards than a
+	 *                                  {@code long} can count.
+	 */
+	public BoardIndex(Variant variant) {
+		this(variant, 2 * variant.getPits() * variant.getSeedsPerPit());
+	}
+
+	/**
+	 * Constructs a new instance of {@code BoardIndex} of the boards of
+	 * {@code variant} holding {@code seeds} seeds.
+	 *
+	 * @param variant The geometry of the boards.
+	 * @param seeds   The number of seeds on every board, at least 0.
+	 * @throws IllegalArgumentException if {@code seeds} is negative or there
+	 *                                  are more boards than a {@code long}
+	 *                                  can count.
+	 */
+	public BoardIndex(Variant variant, int seeds) {
+		if (seeds < 0) {
+			throw new IllegalArgumentException("Invalid seeds: " + seeds);
+		}
+		this.variant = variant;
+		this.slots = 2 * variant.getRowSize();
+		this.seeds = seeds;
+		this.binomial = binomials(seeds + slots - 1, slots - 1);
+		this.size = binomial[seeds + slots - 1][slots - 1];
+	}
+
+	/**
+	 * Accessor method to get the geometry of the boards.
+	 *
+	 * @return the {@code Variant} of the boards.
+	 */
+	public Variant getVariant() {
+		return variant;
+	}
+
+	/**
+	 * Accessor method to get the seeds on every board.
+	 *
+	 * @return the seed total.
+	 */
+	public int getSeeds() {
+		return seeds;
+	}
+
+	/**
+	 * Accessor method to get the number of slots of a board.
+	 *
+	 * @return the pits and stores of both players.
+	 */
+	public int getSlots() {
+		return slots;
+	}
+
+	/**
+	 * Accessor method to get the number of boards.
+	 *
+	 * @return the number of ranks, one more than the largest.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * This method calculates the rank of a board.
+	 *
+	 * @param board The slots of the board, {@code Player.One}'s row first.
+	 * @return the rank, between 0 and {@link #size()} - 1 inclusive.
+	 * @throws IllegalArgumentException if the board does not have
+	 *                                  {@link #getSlots()} slots holding
+	 *                                  {@link #getSeeds()} seeds.
+	 */
+	public long rank(int[] board) {
+		if (board.length != slots) {
+			throw new IllegalArgumentException(
+					"Expected " + slots + " slots: " + board.length);
+		}
+		long total = seedsIn(board);
+		if (total != seeds) {
+			throw invalidBoard(total);
+		}
+		return rank(binomial, board, board, slots / 2, slots / 2);
+	}
+
+	/**
+	 * This method calculates the rank of the board of {@code game}.
+	 *
+	 * @param game A game of the {@code Variant} of this index.
+	 * @return the rank of its rows.
+	 * @throws IllegalArgumentException if the game is of another variant or
+	 *                                  holds another number of seeds.
+	 */
+	public long rank(Mancala game) {
+		if (!game.getVariant().equals(variant)) {
+			throw new IllegalArgumentException(
+					"Expected " + variant + ": " + game.getVariant());
+		}
+		int[] one = game.getSide(Player.One).getRow();
+		int[] two = game.getSide(Player.Two).getRow();
+		long total = seedsIn(one) + seedsIn(two);
+		if (total != seeds) {
+			throw invalidBoard(total);
+		}
+		return rank(binomial, one, two, 0, slots / 2);
+	}
+
+	/**
+	 * This method fills {@code board} with the board of rank {@code rank};
+	 * the reverse of {@link #rank(int[])}.
+	 *
+	 * @param rank  The rank, between 0 and {@link #size()} - 1 inclusive.
+	 * @param board The array receiving the {@link #getSlots()} slots.
+	 * @return {@code board}.
+	 * @throws IndexOutOfBoundsException if {@code rank} is out of range.
+	 * @throws IllegalArgumentException  if {@code board} has the wrong length.
+	 */
+	public int[] unrank(long rank, int[] board) {
+		Objects.checkIndex(rank, size);
+		if (board.length != slots) {
+			throw new IllegalArgumentException(
+					"Expected " + slots + " slots: " + board.length);
+		}
+		unrank(binomial, slots, seeds, rank, board);
+		return board;
+	}
+
+	/**
+	 * This method calculates the rank of the board made of the first
+	 * {@code half} slots of {@code one} and then {@code half} slots of
+	 * {@code two} from {@code twoFrom}, among the boards with the same seed
+	 * total. It does not check the board; {@code EndgameDatabase} calls it
+	 * on the live rows of a game while searching.
+	 *
+	 * @param binomial Pascal's triangle from {@link #binomials(int, int)},
+	 *                 covering the seed total plus {@code 2 * half}.
+	 * @param one      The first half of the board, from index 0.
+	 * @param two      The second half of the board.
+	 * @param twoFrom  The index of the first slot of {@code two}.
+	 * @param half     The number of slots of each half.
+	 * @return the rank, from 0.
+	 */
+	static long rank(long[][] binomial, int[] one, int[] two, int twoFrom,
+			int half) {
+		long rank = 0;
+		int sum = 0;
+		for (int i = 0; i < 2 * half - 1; i++) {
+			sum += i < half ? one[i] : two[twoFrom + i - half];
+			rank += binomial[sum + i][i + 1]; // bar i is at sum + i
+		}
+		return rank;
+	}
+
+	/**
+	 * This method fills the first {@code slots} slots of {@code board} with
+	 * the board of {@code seeds} seeds at {@code rank}; the reverse of
+	 * {@link #rank(long[][], int[], int[], int, int)}. It does not check its
+	 * arguments.
+	 *
+	 * @param binomial Pascal's triangle from {@link #binomials(int, int)}.
+	 * @param slots    The number of slots of the board.
+	 * @param seeds    The seed total of the board.
+	 * @param rank     The rank among the boards of {@code seeds} seeds.
+	 * @param board    The array receiving the slots.
+	 */
+	static void unrank(long[][] binomial, int slots, int seeds, long rank,
+			int[] board) {
+		int next = seeds + slots - 1; // position after the last bar
+		for (int bar = slots - 2; bar >= 0; bar--) {
+			// the last position for the bar whose binomial fits the rank
+			int position = bar;
+			while (position + 1 < next
+					&& binomial[position + 1][bar + 1] <= rank) {
+				position++;
+			}
+			rank -= binomial[position][bar + 1];
+			board[bar + 1] = next - position - 1;
+			next = position;
+		}
+		board[0] = next;
+	}
+
+	/**
+	 * This method returns an iterator over every board in rank order. To
+	 * walk billions of boards without allocating, the iterator returns the
+	 * same array every time, changed in place into the next board; copy it
+	 * to keep a board.
+	 *
+	 * @return the iterator, starting at rank 0.
+	 */
+	@Override
+	public Iterator<int[]> iterator() {
+		return new Iterator<>() {
+			private final int[] board = new int[slots]; // the last returned.
+			private long rank = -1; // the rank of board.
+
+			@Override
+			public boolean hasNext() {
+				return rank + 1 < size;
+			}
+
+			@Override
+			public int[] next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				if (++rank == 0) {
+					board[slots - 1] = seeds;
+				} else {
+					advance(board);
+				}
+				return board;
+			}
+		};
+	}
+
+	/*
+	 * Helper method: to change board into the board of the next rank, which
+	 * moves the lowest bar that can move one place up and every bar below
+	 * it back to the bottom. In seeds, the first slot i whose next slot has
+	 * seeds gets one of them and those of the first slot.
+	 */
+
+	private static void advance(int[] board) {
+		int i = 0;
+		while (board[i + 1] == 0) {
+			i++;
+		}
+		int first = board[0];
+		board[0] = 0;
+		board[i] = first + 1;
+		board[i + 1]--;
+	}
+
+	/*
+	 * Helper method: to add up the seeds of row, failing if any slot is
+	 * negative.
+	 */
+
+	private long seedsIn(int[] row) {
+		long total = 0;
+		for (int count : row) {
+			if (count < 0) {
+				throw invalidBoard(count);
+			}
+			total += count;
+		}
+		return total;
+	}
+
+	/*
+	 * Helper method: to report a board that is not one of this index.
+	 */
+
+	private IllegalArgumentException invalidBoard(long total) {
+		return new IllegalArgumentException("Expected " + seeds
+				+ " seeds in slots of at least 0: " + total);
+	}
+
+	/**
+	 * This method builds Pascal's triangle up to {@code n} choose
+	 * {@code k}.
+	 *
+	 * @param n The largest top number.
+	 * @param k The largest bottom number.
+	 * @return the table whose entry {@code [i][j]} is {@code i} choose
+	 *         {@code j}, for {@code j} up to {@code min(i, k)}.
+	 * @throws IllegalArgumentException if a value does not fit in a
+	 *                                  {@code long}.
+	 */
+	static long[][] binomials(int n, int k) {
+		long[][] table = new long[n + 1][k + 1];
+		try {
+			for (int i = 0; i <= n; i++) {
+				table[i][0] = 1;
+				for (int j = 1; j <= Math.min(i, k); j++) {
+					table[i][j] = Math.addExact(table[i - 1][j - 1],
+							table[i - 1][j]);
+				}
+			}
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException(
+					"Too many boards to rank: " + n + " choose " + k, e);
+		}
+		return table;
+	}
+}
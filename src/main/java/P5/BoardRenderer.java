@@ -0,0 +1,305 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.nio.ByteBuffer;
+
+import P5.Side.Player;
+
+/**
+ * {@code BoardRenderer} writes boards as text without {@code String.format}
+ * or boxing. Each board is laid out in a reusable char array from constant
+ * pieces and a table of two-digit numbers, then copied to the caller's
+ * {@code StringBuilder} or, as ASCII, {@code ByteBuffer}. Apart from growing
+ * the caller's {@code StringBuilder}, rendering allocates nothing.
+ * <p>
+ * {@link Format#TEXT} is the board of {@link Mancala#toString()}, character
+ * for character. {@link Format#COMPACT} is one line for machines: the six
+ * pits and the store of {@code Player.One}, the same for {@code Player.Two},
+ * the number of the {@code Player} to move and 1 if the game is over, else
+ * 0, all separated by commas, such as
+ * {@code 4,4,4,4,4,4,0,4,4,4,4,4,4,0,1,0} and a newline.
+ * <p>
+ * Boards of any {@code Variant} are rendered, the text widening with the
+ * number of pits. A renderer is not thread safe; give each thread its own.
+ */
+
+public class BoardRenderer {
+
+	/**
+	 * The layouts a board can be rendered in.
+	 */
+	public enum Format {
+		TEXT, COMPACT
+	}
+
+	private static final char[] NEWLINE = System.lineSeparator()
+			.toCharArray(); // ends each line of text.
+	private static final char[] EDGE = "|   |".toCharArray(); // line starts.
+	private static final char[] CORNER = "   |".toCharArray(); // line ends.
+	private static final char[] TENS = new char[100]; // tens digit of 0-99.
+	private static final char[] ONES = new char[100]; // ones digit of 0-99.
+	private static final int NUMBER_CHARS = 11; // widest count and a bar.
+
+	static {
+		for (int i = 0; i < 100; i++) {
+			TENS[i] = (char) ('0' + i / 10);
+			ONES[i] = (char) ('0' + i % 10);
+		}
+	}
+
+	private char[] chars = new char[capacity(Side.ROW_SIZE)]; // laid out.
+	private int[] one = new int[Side.ROW_SIZE]; // row of Player.One.
+	private int[] two = new int[Side.ROW_SIZE]; // row of Player.Two.
+	private int length; // number of chars laid out.
+
+	/**
+	 * This method appends a game to {@code out}.
+	 *
+	 * @param format The layout of the board.
+	 * @param game   The game to render.
+	 * @param out    The builder receiving the board.
+	 * @return {@code out}.
+	 */
+	public StringBuilder render(Format format, Mancala game,
+			StringBuilder out) {
+		readGame(game);
+		layOut(format, game.getCurrentPlayer(),
+				game.isGameOverConditionMet());
+		return out.append(chars, 0, length);
+	}
+
+	/**
+	 * This method appends a packed {@code Position} to {@code out}.
+	 *
+	 * @param format The layout of the board.
+	 * @param state  The array holding the position.
+	 * @param offset The index of the first word of the position.
+	 * @param out    The builder receiving the board.
+	 * @return {@code out}.
+	 */
+	public StringBuilder render(Format format, long[] state, int offset,
+			StringBuilder out) {
+		readPosition(state, offset);
+		layOut(format, Position.sideToMove(state, offset),
+				Position.isGameOver(state, offset));
+		return out.append(chars, 0, length);
+	}
+
+	/**
+	 * This method writes the packed {@code Position}s in {@code states} one
+	 * after the other to {@code out} as ASCII, stopping before the first
+	 * board that does not fit.
+	 *
+	 * @param format The layout of the boards.
+	 * @param states The array holding the positions.
+	 * @param offset The index of the first word of the first position.
+	 * @param count  The number of positions to render.
+	 * @param out    The buffer receiving the boards.
+	 * @return the number of boards written.
+	 */
+	public int render(Format format, long[] states, int offset, int count,
+			ByteBuffer out) {
+		for (int i = 0; i < count; i++) {
+			int position = offset + i * Position.WORDS;
+			readPosition(states, position);
+			layOut(format, Position.sideToMove(states, position),
+					Position.isGameOver(states, position));
+			if (out.remaining() < length) {
+				return i;
+			}
+			for (int c = 0; c < length; c++) {
+				out.put((byte) chars[c]);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * This method appends the status printed by
+	 * {@link Mancala#printCurrentGameStatus()}, without its final line
+	 * separator: whose turn it is or who has won, then the board.
+	 *
+	 * @param game The game to render.
+	 * @param out  The builder receiving the status.
+	 * @return {@code out}.
+	 */
+	public StringBuilder renderStatus(Mancala game, StringBuilder out) {
+		readGame(game);
+		Player toMove = game.getCurrentPlayer();
+		int[] inPlay = toMove == Player.One ? one : two;
+		int[] waiting = toMove == Player.One ? two : one;
+		if (seedsInPits(inPlay) == 0 || seedsInPits(waiting) == 0) {
+			int store = inPlay.length - 1;
+			Player winner = inPlay[store] > waiting[store] ? toMove
+					: toMove == Player.One ? Player.Two : Player.One;
+			out.append("Player ").append(winner.name()).append(" has won!!")
+					.append(NEWLINE).append(" Final board: ");
+		} else {
+			out.append("Player ").append(toMove.name()).append("'s turn.")
+					.append(NEWLINE).append(" Current board:").append(NEWLINE);
+		}
+		out.append(NEWLINE);
+		layOut(Format.TEXT, toMove, game.isGameOverConditionMet());
+		return out.append(chars, 0, length);
+	}
+
+	/*
+	 * Helper method: to copy both rows of game.
+	 */
+
+	private void readGame(Mancala game) {
+		resize(game.getVariant().getRowSize());
+		game.getSide(Player.One).saveRow(one, 0);
+		game.getSide(Player.Two).saveRow(two, 0);
+	}
+
+	/*
+	 * Helper method: to copy both rows of a packed Position.
+	 */
+
+	private void readPosition(long[] state, int offset) {
+		resize(Side.ROW_SIZE);
+		Position.unpackRow(state, offset, Player.One, one);
+		Position.unpackRow(state, offset, Player.Two, two);
+	}
+
+	/*
+	 * Helper method: to lay out the rows in chars in format.
+	 */
+
+	private void layOut(Format format, Player toMove, boolean gameOver) {
+		int pits = one.length - 1;
+		length = 0;
+		if (format == Format.COMPACT) {
+			for (int i = 0; i <= pits; i++) {
+				putNumber(one[i], 1);
+				chars[length++] = ',';
+			}
+			for (int i = 0; i <= pits; i++) {
+				putNumber(two[i], 1);
+				chars[length++] = ',';
+			}
+			chars[length++] = toMove == Player.One ? '1' : '2';
+			chars[length++] = ',';
+			chars[length++] = gameOver ? '1' : '0';
+			chars[length++] = '\n';
+			return;
+		}
+
+		putFiller(pits);
+		put(EDGE);
+		for (int i = pits - 1; i >= 0; i--) {
+			putNumber(two[i], 2);
+			chars[length++] = '|';
+		}
+		put(CORNER);
+		put(NEWLINE);
+		chars[length++] = '|';
+		putNumber(two[pits], 3);
+		chars[length++] = '|';
+		for (int i = 3 * pits - 1; i > 0; i--) {
+			chars[length++] = '=';
+		}
+		chars[length++] = '|';
+		putNumber(one[pits], 3);
+		chars[length++] = '|';
+		put(NEWLINE);
+		put(EDGE);
+		for (int i = 0; i < pits; i++) {
+			putNumber(one[i], 2);
+			chars[length++] = '|';
+		}
+		put(CORNER);
+		put(NEWLINE);
+		putFiller(pits);
+	}
+
+	/*
+	 * Helper method: to append the top or bottom line of a board of pits
+	 * pits.
+	 */
+
+	private void putFiller(int pits) {
+		for (int i = 3 * pits + EDGE.length + CORNER.length; i > 0; i--) {
+			chars[length++] = '-';
+		}
+		put(NEWLINE);
+	}
+
+	/*
+	 * Helper method: to make the rows hold rowSize slots and chars hold any
+	 * board of them, allocating only when the size changes.
+	 */
+
+	private void resize(int rowSize) {
+		if (one.length != rowSize) {
+			one = new int[rowSize];
+			two = new int[rowSize];
+			if (chars.length < capacity(rowSize)) {
+				chars = new char[capacity(rowSize)];
+			}
+		}
+	}
+
+	/*
+	 * Helper method: to bound the chars of a board with rows of rowSize
+	 * slots in either format: five lines of at most rowSize + 2 numbers.
+	 */
+
+	private static int capacity(int rowSize) {
+		return 5 * ((rowSize + 2) * NUMBER_CHARS + NEWLINE.length);
+	}
+
+	/*
+	 * Helper method: to append constant chars.
+	 */
+
+	private void put(char[] piece) {
+		System.arraycopy(piece, 0, chars, length, piece.length);
+		length += piece.length;
+	}
+
+	/*
+	 * Helper method: to append a seed count right aligned in width chars,
+	 * or wider if it has more digits, like %2d. Two digits are written at a
+	 * time from the digit tables.
+	 */
+
+	private void putNumber(int value, int width) {
+		int digits = 1;
+		for (int rest = value; rest >= 10; rest /= 10) {
+			digits++;
+		}
+		for (int i = digits; i < width; i++) {
+			chars[length++] = ' ';
+		}
+		length += digits;
+		int end = length;
+		while (value >= 100) {
+			int pair = value % 100;
+			value /= 100;
+			chars[--end] = ONES[pair];
+			chars[--end] = TENS[pair];
+		}
+		chars[--end] = ONES[value];
+		if (value >= 10) {
+			chars[--end] = TENS[value];
+		}
+	}
+
+	/*
+	 * Helper method: to count the seeds in the pits of a row.
+	 */
+
+	private static int seedsInPits(int[] row) {
+		int seeds = 0;
+		for (int i = 0; i < row.length - 1; i++) {
+			seeds += row[i];
+		}
+		return seeds;
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import P5.Side.Player;
+
+/**
+ * {@code BoardSnapshot} is an immutable copy of a {@code Mancala} board,
+ * published by the game after every change once
+ * {@link Mancala#publishSnapshots()} has been called. Any number of threads
+ * may read the latest one with {@link Mancala#getSnapshot()} while the game
+ * is played, without locking and without copying the board again.
+ * <p>
+ * Boards that fit a {@code Position} are held as its two words; other
+ * variants keep a private copy of both rows.
+ */
+
+public final class BoardSnapshot {
+
+	private final Variant variant; // the geometry of the board.
+	private final Player toMove; // the Player whose turn it is.
+	private final boolean gameOver; // True once the game is over.
+	private final long zobristKey; // the hash of the position.
+	private final long one; // Position word of Player.One, flags included.
+	private final long two; // Position word of Player.Two.
+	private final int[] slots; // both rows, One first; null when packed.
+
+	/*
+	 * Constructs a new instance of BoardSnapshot of the current board of
+	 * game; called by the thread playing it.
+	 */
+
+	BoardSnapshot(Mancala game) {
+		this.variant = game.getVariant();
+		this.toMove = game.getCurrentPlayer();
+		this.gameOver = game.isGameOverConditionMet();
+		this.zobristKey = game.getZobristKey();
+		int[] rowOne = game.getSide(Player.One).getRow();
+		int[] rowTwo = game.getSide(Player.Two).getRow();
+		if (variant.fitsPosition()) {
+			this.one = Position.packRow(rowOne)
+					| Position.flags(toMove, gameOver);
+			this.two = Position.packRow(rowTwo);
+			this.slots = null;
+		} else {
+			int rowSize = variant.getRowSize();
+			this.one = 0;
+			this.two = 0;
+			this.slots = new int[2 * rowSize];
+			System.arraycopy(rowOne, 0, slots, 0, rowSize);
+			System.arraycopy(rowTwo, 0, slots, rowSize, rowSize);
+		}
+	}
+
+	/**
+	 * Accessor method to get the geometry of the board.
+	 *
+	 * @return the {@code Variant} of the game.
+	 */
+	public Variant getVariant() {
+		return variant;
+	}
+
+	/**
+	 * Accessor method to get the {@code Player} whose turn it is.
+	 *
+	 * @return the {@code Player} to move.
+	 */
+	public Player getSideToMove() {
+		return toMove;
+	}
+
+	/**
+	 * Accessor method to get whether the game is over.
+	 *
+	 * @return True once the game over condition has been met.
+	 */
+	public boolean isGameOver() {
+		return gameOver;
+	}
+
+	/**
+	 * Accessor method to get the {@code Zobrist} hash of the board.
+	 *
+	 * @return the hash of the position.
+	 */
+	public long getZobristKey() {
+		return zobristKey;
+	}
+
+	/**
+	 * Accessor method to get the number of seeds in a pit or store.
+	 *
+	 * @param player The {@code Player} who owns the row.
+	 * @param index  The index of the row, the pits of the {@code Variant}
+	 *               for the store.
+	 * @return the number of seeds in the slot.
+	 * @throws IndexOutOfBoundsException if {@code index} is not in the row.
+	 */
+	public int getSeedCount(Player player, int index) {
+		int rowSize = variant.getRowSize();
+		if (index < 0 || index >= rowSize) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		if (slots == null) {
+			return Position.slot(player == Player.One ? one : two, index);
+		}
+		return slots[player.ordinal() * rowSize + index];
+	}
+
+	/**
+	 * Accessor method to get the store seed count of {@code player}.
+	 *
+	 * @param player The {@code Player} whose store is counted.
+	 * @return the number of seeds in the store of {@code player}.
+	 */
+	public int getStoreCount(Player player) {
+		return getSeedCount(player, variant.getPits());
+	}
+
+	/**
+	 * This method calculates the pits the {@code Player} to move may choose.
+	 *
+	 * @return a bit mask where bit {@code pitNumber - 1} is set when
+	 *         {@code pitNumber} is a valid choice; 0 once the game is over.
+	 */
+	public int getLegalMoves() {
+		if (gameOver) {
+			return 0;
+		}
+		int moves = 0;
+		for (int i = 0; i < variant.getPits(); i++) {
+			if (getSeedCount(toMove, i) != 0) {
+				moves |= 1 << i;
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * This method copies the board into a packed {@code Position}.
+	 *
+	 * @param state  The array receiving the position.
+	 * @param offset The index of the first word of the position.
+	 * @throws IllegalStateException if the board does not fit a
+	 *                               {@code Position}.
+	 */
+	public void toPosition(long[] state, int offset) {
+		if (slots != null) {
+			throw new IllegalStateException(
+					variant + " does not fit in a Position");
+		}
+		state[offset] = one;
+		state[offset + 1] = two;
+	}
+}
@@ -0,0 +1,168 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import P5.Side.Player;
+
+/**
+ * {@code EndgameDatabase} looks up the exact outcome of every position with
+ * at most {@link #getMaxSeeds()} seeds left in the pits. The database is a
+ * file written by {@code EndgameGenerator} and is read through a
+ * {@code MappedByteBuffer}, so processes probing the same file share its
+ * pages.
+ * <p>
+ * A position is indexed by its twelve pits only, the six of the
+ * {@code Player} to move first. The stores do not change the best line of
+ * play, so every position shares one entry with all positions that differ
+ * only in their stores. Positions are ordered by their number of seeds, and
+ * positions with the same number of seeds by the combinatorial number system
+ * of {@code BoardIndex}, which makes the index a perfect hash: one byte per
+ * position and no keys. The byte is the number of seeds the {@code Player}
+ * to move will gain over the opponent from now on.
+ */
+
+public class EndgameDatabase {
+
+	public static final int MAGIC = 0x4D4B_4442; // "MKDB".
+	public static final int VERSION = 1; // version of the file layout.
+	public static final int HEADER_BYTES = 4 * Integer.BYTES; // file header.
+	static final int PITS = 2 * Side.STORE_INDEX; // pits in an index.
+	static final int MAX_SUPPORTED_SEEDS = 120; // keeps values in a byte.
+	private static final long[][] BINOMIAL = BoardIndex
+			.binomials(MAX_SUPPORTED_SEEDS + PITS, PITS);
+	private final ByteBuffer values; // one byte per position.
+	private final int maxSeeds; // most seeds in pits the file covers.
+
+	/*
+	 * Constructs a new instance of EndgameDatabase over values read with the
+	 * header already skipped.
+	 */
+
+	private EndgameDatabase(ByteBuffer values, int maxSeeds) {
+		this.values = values;
+		this.maxSeeds = maxSeeds;
+	}
+
+	/**
+	 * This method opens a database file written by {@code EndgameGenerator}.
+	 *
+	 * @param file The database file.
+	 * @return the database, mapped read-only into memory.
+	 * @throws IOException if the file cannot be read or is not a database.
+	 */
+	public static EndgameDatabase open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel
+					.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < HEADER_BYTES
+					|| buffer.getInt() != MAGIC
+					|| buffer.getInt() != VERSION) {
+				throw new IOException("Not an endgame database: " + file);
+			}
+			int maxSeeds = buffer.getInt();
+			int pits = buffer.getInt();
+			if (pits != Side.STORE_INDEX || maxSeeds < 0
+					|| maxSeeds > MAX_SUPPORTED_SEEDS
+					|| buffer.remaining() != size(maxSeeds)) {
+				throw new IOException("Corrupt endgame database: " + file);
+			}
+			return new EndgameDatabase(buffer.slice(), maxSeeds);
+		}
+	}
+
+	/**
+	 * Accessor for the most seeds left in pits the database covers.
+	 *
+	 * @return the largest number of seeds in pits of a covered position.
+	 */
+	public int getMaxSeeds() {
+		return maxSeeds;
+	}
+
+	/**
+	 * This method checks whether the database holds the outcome of
+	 * {@code game}.
+	 *
+	 * @param game The game to look up.
+	 * @return True if the game is on a board of six pits, is not over and has
+	 *         few enough seeds in pits.
+	 */
+	public boolean covers(Mancala game) {
+		return !game.isGameOverConditionMet()
+				&& game.getVariant().getPits() == Side.STORE_INDEX
+				&& game.getNumSeedsInPits(Player.One)
+						+ game.getNumSeedsInPits(Player.Two) <= maxSeeds;
+	}
+
+	/**
+	 * This method looks up the outcome of {@code game} with perfect play by
+	 * both players.
+	 *
+	 * @param game A game the database {@link #covers(Mancala)}.
+	 * @return the final store difference in seeds from the point of view of
+	 *         the {@code Player} to move.
+	 */
+	public int probe(Mancala game) {
+		int[] mine = game.getSide(game.getCurrentPlayer()).getRow();
+		int[] theirs = game.getSide(game.getWaitingPlayer()).getRow();
+		int seeds = game.getNumSeedsInPits(Player.One)
+				+ game.getNumSeedsInPits(Player.Two);
+		long rank = BoardIndex.rank(BINOMIAL, mine, theirs, 0,
+				Side.STORE_INDEX);
+		int value = values.get((int) (size(seeds - 1) + rank));
+		return mine[Side.STORE_INDEX] - theirs[Side.STORE_INDEX] + value;
+	}
+
+	/**
+	 * This method calculates the index of a pit configuration. The index of
+	 * every configuration with fewer seeds is smaller.
+	 *
+	 * @param pits The twelve pits, the six of the {@code Player} to move
+	 *             first.
+	 * @return the index of the configuration.
+	 */
+	static long index(int[] pits) {
+		int seeds = 0;
+		for (int pit : pits) {
+			seeds += pit;
+		}
+		return size(seeds - 1) + BoardIndex.rank(BINOMIAL, pits, pits,
+				Side.STORE_INDEX, Side.STORE_INDEX);
+	}
+
+	/**
+	 * This method fills {@code pits} with the configuration of
+	 * {@code seeds} seeds at {@code rank} among those with {@code seeds}
+	 * seeds; the reverse of {@link #index(int[])} less
+	 * {@code size(seeds - 1)}.
+	 *
+	 * @param seeds The number of seeds in the pits.
+	 * @param rank  The rank among configurations with {@code seeds} seeds.
+	 * @param pits  The array receiving the twelve pits.
+	 */
+	static void unrank(int seeds, long rank, int[] pits) {
+		BoardIndex.unrank(BINOMIAL, PITS, seeds, rank, pits);
+	}
+
+	/**
+	 * This method calculates the number of configurations with at most
+	 * {@code seeds} seeds in the twelve pits.
+	 *
+	 * @param seeds The most seeds in the pits, -1 for none.
+	 * @return the number of configurations.
+	 */
+	static long size(int seeds) {
+		return seeds < 0 ? 0 : BINOMIAL[seeds + PITS][PITS];
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import P5.Side.Player;
+
+/**
+ * {@code EndgameGenerator} writes the file read by {@code EndgameDatabase}.
+ * It solves every position with up to a given number of seeds in the pits,
+ * under the same sowing, capture and game over rules as
+ * {@link Mancala#performTurn(int)}.
+ * <p>
+ * Sowing never adds seeds to the pits, so positions are solved backwards from
+ * the empty board one seed count at a time, each one using the solved
+ * positions with fewer seeds. Moves that keep every seed in the pits lead to
+ * positions with the same seed count; these always move seeds toward the
+ * mover's store, so they cannot repeat and are solved on demand first.
+ * <p>
+ * Usage: {@code java P5.EndgameGenerator <maxSeeds> <file>}
+ */
+
+public class EndgameGenerator {
+
+	private static final byte UNSOLVED = Byte.MIN_VALUE; // marks open entries.
+	private final byte[] values; // outcome of every position, by index.
+	private final long[] state = new long[Position.WORDS]; // scratch board.
+
+	/*
+	 * Constructs a new instance of EndgameGenerator for positions with up to
+	 * maxSeeds seeds in the pits.
+	 */
+
+	private EndgameGenerator(int maxSeeds) {
+		long size = EndgameDatabase.size(maxSeeds);
+		if (size > Integer.MAX_VALUE - EndgameDatabase.HEADER_BYTES) {
+			throw new IllegalArgumentException(
+					"Too many positions for one file: " + size);
+		}
+		this.values = new byte[(int) size];
+		Arrays.fill(values, UNSOLVED);
+	}
+
+	/**
+	 * Runs the generator from the command line.
+	 *
+	 * @param args The most seeds in pits and the file to write.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: EndgameGenerator <maxSeeds> <file>");
+			return;
+		}
+		long start = System.nanoTime();
+		int maxSeeds = Integer.parseInt(args[0]);
+		generate(maxSeeds, Paths.get(args[1]));
+		System.out.printf("Solved %d positions in %d ms%n",
+				EndgameDatabase.size(maxSeeds),
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * This method solves every position with up to {@code maxSeeds} seeds in
+	 * the pits and writes the database to {@code file}.
+	 *
+	 * @param maxSeeds The most seeds in pits, at most 120.
+	 * @param file     The file to write, replaced if it exists.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void generate(int maxSeeds, Path file) throws IOException {
+		if (maxSeeds < 0 || maxSeeds > EndgameDatabase.MAX_SUPPORTED_SEEDS) {
+			throw new IllegalArgumentException(
+					"Unsupported seed count: " + maxSeeds);
+		}
+		EndgameGenerator generator = new EndgameGenerator(maxSeeds);
+		int[] pits = new int[EndgameDatabase.PITS];
+		for (int seeds = 0; seeds <= maxSeeds; seeds++) {
+			long first = EndgameDatabase.size(seeds - 1);
+			long count = EndgameDatabase.size(seeds) - first;
+			for (long rank = 0; rank < count; rank++) {
+				if (generator.values[(int) (first + rank)] == UNSOLVED) {
+					EndgameDatabase.unrank(seeds, rank, pits);
+					generator.solve(pits);
+				}
+			}
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(EndgameDatabase.HEADER_BYTES);
+		header.putInt(EndgameDatabase.MAGIC).putInt(EndgameDatabase.VERSION)
+				.putInt(maxSeeds).putInt(Side.STORE_INDEX).flip();
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer body = ByteBuffer.wrap(generator.values);
+			while (header.hasRemaining() || body.hasRemaining()) {
+				channel.write(new ByteBuffer[] { header, body });
+			}
+		}
+	}
+
+	/*
+	 * Helper method: to solve the position with pits, the mover's six pits
+	 * first, solving the positions with the same seed count it leads to
+	 * first. It returns the number of seeds the mover gains over the
+	 * opponent from now on.
+	 */
+
+	private int solve(int[] pits) {
+		int index = (int) EndgameDatabase.index(pits);
+		if (values[index] != UNSOLVED) {
+			return values[index];
+		}
+
+		int[] mine = new int[Side.ROW_SIZE];
+		int[] theirs = new int[Side.ROW_SIZE];
+		System.arraycopy(pits, 0, mine, 0, Side.STORE_INDEX);
+		System.arraycopy(pits, Side.STORE_INDEX, theirs, 0, Side.STORE_INDEX);
+		int best = Integer.MIN_VALUE;
+		for (int pitNumber = 1; pitNumber <= Side.STORE_INDEX; pitNumber++) {
+			Position.pack(state, 0, mine, theirs, Player.One, false);
+			if (!Position.applyMove(state, 0, state, 0, pitNumber)) {
+				continue;
+			}
+			int gain = Position.seedCount(state, 0, Player.One,
+					Side.STORE_INDEX)
+					- Position.seedCount(state, 0, Player.Two,
+							Side.STORE_INDEX);
+			if (!Position.isGameOver(state, 0)) {
+				boolean extraTurn = Position.sideToMove(state, 0) == Player.One;
+				int[] child = new int[EndgameDatabase.PITS];
+				Player first = extraTurn ? Player.One : Player.Two;
+				Player second = extraTurn ? Player.Two : Player.One;
+				for (int i = 0; i < Side.STORE_INDEX; i++) {
+					child[i] = Position.seedCount(state, 0, first, i);
+					child[i + Side.STORE_INDEX] = Position.seedCount(state, 0,
+							second, i);
+				}
+				int value = solve(child);
+				gain += extraTurn ? value : -value;
+			}
+			best = Math.max(best, gain);
+		}
+
+		if (best == Integer.MIN_VALUE) { // game already over, sweep the pits
+			best = 0;
+			for (int i = 0; i < Side.STORE_INDEX; i++) {
+				best += mine[i] - theirs[i];
+			}
+		}
+		values[index] = (byte) best;
+		return best;
+	}
+}
@@ -0,0 +1,284 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.Arrays;
+
+import P5.Side.Player;
+
+/**
+ * {@code GameBatch} plays many games of one {@code Variant} in lockstep. The
+ * games are stored column-wise, one {@code int[]} per slot of the board
+ * holding that slot of every game, instead of one {@code Side} per player per
+ * game, and {@link #step(int[], int[])} plays one turn in every game at once.
+ * <p>
+ * Slots are numbered {@code Player.One}'s pits, its store, then
+ * {@code Player.Two}'s pits and its store. When the
+ * {@code jdk.incubator.vector} module is present, for example with
+ * {@code --add-modules jdk.incubator.vector}, whole vectors of games are
+ * stepped with the Vector API, with the sowing, capture and game over of
+ * every lane computed by masks instead of branches; the games left over, and
+ * every game without the module, are stepped one at a time.
+ * <p>
+ * Every turn does exactly what {@link Mancala#takeTurn(int)} does on the
+ * same game and returns the same {@code TurnResult}.
+ */
+
+public final class GameBatch {
+
+	private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot()
+			.findModule("jdk.incubator.vector").isPresent();
+	private final Variant variant; // the geometry of every board.
+	private final int games; // the number of games.
+	private final int pits; // pits per Side.
+	private final int rowSize; // pits and store of a Side.
+	private final int lapSize; // slots sown in a lap.
+	private final VectorStep vectorStep; // steps whole vectors, or null.
+	private final int[][] slots; // slots[s][g] is slot s of game g.
+	private final int[] twoToMove; // 1 where Player.Two is to move, or 0.
+	private final int[] gameOver; // 1 where the game is over, or 0.
+
+	/**
+	 * Constructs a new instance of {@code GameBatch} of {@code games} games
+	 * of {@code variant}, all at the start, stepped with the Vector API if it
+	 * is available.
+	 *
+	 * @param variant The geometry and starting seeds of every board.
+	 * @param games   The number of games, at least 1.
+	 */
+	public GameBatch(Variant variant, int games) {
+		this(variant, games, VECTOR_AVAILABLE);
+	}
+
+	/*
+	 * Constructs a new instance of GameBatch, stepped with the Vector API
+	 * only if vectorized is True and the API is available.
+	 */
+
+	GameBatch(Variant variant, int games, boolean vectorized) {
+		if (games < 1) {
+			throw new IllegalArgumentException("Unsupported games: " + games);
+		}
+		this.variant = variant;
+		this.games = games;
+		this.pits = variant.getPits();
+		this.rowSize = variant.getRowSize();
+		this.lapSize = 2 * pits + 1;
+		this.slots = new int[2 * rowSize][games];
+		this.twoToMove = new int[games];
+		this.gameOver = new int[games];
+		this.vectorStep = vectorized && VECTOR_AVAILABLE
+				? new VectorStep(slots, twoToMove, gameOver, pits)
+				: null;
+		reset();
+	}
+
+	/**
+	 * Accessor method to find whether the Vector API can be used.
+	 *
+	 * @return True if the {@code jdk.incubator.vector} module is present.
+	 */
+	public static boolean isVectorAvailable() {
+		return VECTOR_AVAILABLE;
+	}
+
+	/**
+	 * Accessor method to find whether this batch is stepped with the Vector
+	 * API.
+	 *
+	 * @return True if whole vectors of games are stepped at once.
+	 */
+	public boolean isVectorized() {
+		return vectorStep != null;
+	}
+
+	/**
+	 * Accessor method to get the geometry of the boards.
+	 *
+	 * @return the {@code Variant} of every game.
+	 */
+	public Variant getVariant() {
+		return variant;
+	}
+
+	/**
+	 * Accessor method to get the number of games.
+	 *
+	 * @return the number of games in the batch.
+	 */
+	public int size() {
+		return games;
+	}
+
+	/**
+	 * This method sets every game back to its starting position.
+	 */
+	public void reset() {
+		int[] start = variant.startRow();
+		for (int s = 0; s < slots.length; s++) {
+			Arrays.fill(slots[s], start[s % rowSize]);
+		}
+		Arrays.fill(twoToMove, 0);
+		Arrays.fill(gameOver, 0);
+	}
+
+	/**
+	 * This method plays one turn in every game, pit {@code pitNumbers[g]} in
+	 * game {@code g}, like {@link Mancala#takeTurn(int)}. Games whose pit
+	 * cannot be played are left as they are.
+	 *
+	 * @param pitNumbers The pit to play in each game.
+	 * @param results    The array receiving the {@code TurnResult} of each
+	 *                   game.
+	 * @return the number of games in which a turn was played.
+	 * @throws IllegalArgumentException if either array does not have one
+	 *                                  element per game.
+	 */
+	public int step(int[] pitNumbers, int[] results) {
+		if (pitNumbers.length != games || results.length != games) {
+			throw new IllegalArgumentException(
+					"Expected one pit and one result per game: " + games);
+		}
+		int from = 0;
+		int played = 0;
+		if (vectorStep != null) {
+			from = vectorStep.getBound();
+			played = vectorStep.step(pitNumbers, results);
+		}
+		for (int g = from; g < games; g++) {
+			results[g] = stepGame(g, pitNumbers[g]);
+			played += results[g] & TurnResult.PLAYED;
+		}
+		return played;
+	}
+
+	/*
+	 * Helper method: to play pitNumber in game g one seed at a time, as
+	 * Mancala does, and return the TurnResult.
+	 */
+
+	private int stepGame(int g, int pitNumber) {
+		if (gameOver[g] != 0) {
+			return TurnResult.GAME_OVER;
+		}
+		int pitIndex = pitNumber - 1;
+		int mine = twoToMove[g] * rowSize; // first slot of the mover
+		int theirs = rowSize - mine; // first slot of the waiting player
+		if (pitIndex < 0 || pitIndex >= pits
+				|| slots[mine + pitIndex][g] == 0) {
+			return TurnResult.REJECTED;
+		}
+
+		int seeds = slots[mine + pitIndex][g];
+		slots[mine + pitIndex][g] = 0;
+		int laps = seeds / lapSize;
+		int remainder = seeds - laps * lapSize;
+		if (laps != 0) {
+			for (int i = 0; i < pits; i++) {
+				slots[mine + i][g] += laps;
+				slots[theirs + i][g] += laps;
+			}
+			slots[mine + pits][g] += laps;
+		}
+		for (int k = 1; k <= remainder; k++) {
+			int slot = pitIndex + k;
+			slot = slot >= lapSize ? slot - lapSize : slot;
+			slots[slot < rowSize ? mine + slot : theirs + slot - rowSize][g]++;
+		}
+		int landing = pitIndex + remainder;
+		landing = landing >= lapSize ? landing - lapSize : landing;
+
+		int captured = -1;
+		if (landing < pits && slots[mine + landing][g] == 1) {
+			int opposite = theirs + pits - 1 - landing;
+			captured = slots[opposite][g];
+			slots[opposite][g] = 0;
+			slots[mine + landing][g] = 0;
+			slots[mine + pits][g] += captured + 1;
+		}
+
+		int seedsMine = 0;
+		int seedsTheirs = 0;
+		for (int i = 0; i < pits; i++) {
+			seedsMine += slots[mine + i][g];
+			seedsTheirs += slots[theirs + i][g];
+		}
+		boolean over = seedsMine == 0 || seedsTheirs == 0;
+		if (over) {
+			for (int i = 0; i < pits; i++) {
+				slots[mine + i][g] = 0;
+				slots[theirs + i][g] = 0;
+			}
+			slots[mine + pits][g] += seedsMine;
+			slots[theirs + pits][g] += seedsTheirs;
+			gameOver[g] = 1;
+		}
+		boolean extraTurn = landing == pits && !over;
+		if (!extraTurn && !over) {
+			twoToMove[g] ^= 1;
+		}
+		return TurnResult.played(landing, captured, extraTurn, over);
+	}
+
+	/**
+	 * Accessor method to get the {@code Player} to move in a game.
+	 *
+	 * @param game The index of the game.
+	 * @return the {@code Player} whose turn it is.
+	 */
+	public Player getCurrentPlayer(int game) {
+		return twoToMove[game] != 0 ? Player.Two : Player.One;
+	}
+
+	/**
+	 * Accessor method to get whether a game is over.
+	 *
+	 * @param game The index of the game.
+	 * @return True once the game over condition has been met.
+	 */
+	public boolean isGameOver(int game) {
+		return gameOver[game] != 0;
+	}
+
+	/**
+	 * Accessor method to get the number of seeds in a pit or store of a
+	 * game.
+	 *
+	 * @param game   The index of the game.
+	 * @param player The {@code Player} who owns the row.
+	 * @param index  The index of the row, the pits of the {@code Variant}
+	 *               for the store.
+	 * @return the number of seeds in the slot.
+	 */
+	public int getSeedCount(int game, Player player, int index) {
+		if (index < 0 || index >= rowSize) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		return slots[player.ordinal() * rowSize + index][game];
+	}
+
+	/**
+	 * This method calculates the pits the current {@code Player} of a game
+	 * may choose.
+	 *
+	 * @param game The index of the game.
+	 * @return a bit mask where bit {@code pitNumber - 1} is set when
+	 *         {@code pitNumber} is a valid choice; 0 once the game is over.
+	 */
+	public int getLegalMoves(int game) {
+		if (gameOver[game] != 0) {
+			return 0;
+		}
+		int mine = twoToMove[game] * rowSize;
+		int moves = 0;
+		for (int i = 0; i < pits; i++) {
+			if (slots[mine + i][game] != 0) {
+				moves |= 1 << i;
+			}
+		}
+		return moves;
+	}
+}
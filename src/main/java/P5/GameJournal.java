@@ -0,0 +1,494 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32C;
+
+/**
+ * {@code GameJournal} makes the games of a {@code SessionManager} survive a
+ * restart. Every new game, accepted turn and removal is appended to a log,
+ * and every so often all games are written to a snapshot, so recovery loads
+ * the latest snapshot and replays only the log written after it.
+ * <p>
+ * Records are gathered in memory and written by one thread, which calls
+ * {@code fsync} once for everything gathered while the previous write was
+ * on its way to the disk. A caller waits for the write holding its record,
+ * so however many turns arrive, the disk sees one {@code fsync} per batch
+ * instead of one per turn.
+ * <p>
+ * The log is split in segments. After {@code snapshotInterval} records the
+ * writer starts a new segment, writes a snapshot of every game as of the
+ * start of that segment and deletes the older segments and snapshots, so
+ * recovery never replays more than about {@code snapshotInterval} records.
+ * Turns are numbered per game, which lets recovery skip turns a snapshot
+ * already holds.
+ * <p>
+ * A log record is {@link #RECORD_BYTES} bytes: the game id as a long, the
+ * turn number as an int, the type and pit as bytes, two bytes of padding and
+ * a CRC-32C of the rest. Replay of a segment stops at the first damaged
+ * record, which can only be a write cut short by a crash. A snapshot is the
+ * int {@link #SNAPSHOT_MAGIC}, an int version, the next game id as a long,
+ * the number of games as an int, then per game its id as a long, its turn
+ * number as an int and its packed {@code Position}, and finally a CRC-32C.
+ */
+
+public class GameJournal implements AutoCloseable {
+
+	public static final int RECORD_BYTES = 20; // bytes per log record.
+	public static final int SNAPSHOT_MAGIC = 0x4D4B_534E; // "MKSN".
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 100_000; // records.
+	static final int CREATE = 0; // record of a new game.
+	static final int TURN = 1; // record of an accepted turn.
+	static final int REMOVE = 2; // record of a removed game.
+	private static final int SNAPSHOT_VERSION = 1; // version of snapshots.
+	private static final int SNAPSHOT_HEADER_BYTES = 20; // before the games.
+	private static final int SNAPSHOT_GAME_BYTES = 12 + Position.WORDS
+			* Long.BYTES; // id, turns and position.
+	private static final int CHECKED_BYTES = 16; // record bytes under CRC.
+	private static final int BUFFER_BYTES = 64 * 1024 / RECORD_BYTES
+			* RECORD_BYTES; // whole records per read or initial batch.
+
+	private final Path directory; // holds the segments and snapshots.
+	private final SessionManager sessions; // the games logged.
+	private final int snapshotInterval; // records between snapshots.
+	private final Object lock = new Object(); // guards the gathered records.
+	private final CRC32C crc = new CRC32C(); // checks records, under lock.
+	private final Thread writer; // writes and syncs the gathered records.
+	private ByteBuffer gathered = ByteBuffer.allocate(BUFFER_BYTES);
+	private ByteBuffer spare = ByteBuffer.allocate(BUFFER_BYTES);
+	private List<CompletableFuture<Void>> waiting = new ArrayList<>();
+	private boolean closed; // no records accepted, under lock.
+	private IOException failure; // the failed write, under lock.
+	private FileChannel log; // the current segment, used by the writer.
+	private long segment; // number of the current segment.
+	private long sinceSnapshot; // records written since the last snapshot.
+
+	/*
+	 * Constructs a new instance of GameJournal appending to a new segment
+	 * numbered segment.
+	 */
+
+	private GameJournal(Path directory, SessionManager sessions,
+			int snapshotInterval, long segment) throws IOException {
+		this.directory = directory;
+		this.sessions = sessions;
+		this.snapshotInterval = snapshotInterval;
+		this.segment = segment;
+		this.log = FileChannel.open(segmentPath(segment),
+				StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		this.writer = new Thread(this::writeLoop, "mancala-journal");
+		writer.setDaemon(true);
+	}
+
+	/**
+	 * This method recovers the games logged in {@code directory} into
+	 * {@code sessions} and then logs every change to them from now on. The
+	 * recovered games are written to a fresh snapshot first.
+	 *
+	 * @param directory        The directory of the journal, created if
+	 *                         missing.
+	 * @param sessions         The games to recover into and log; should be
+	 *                         empty.
+	 * @param snapshotInterval The number of records between snapshots, at
+	 *                         least 1.
+	 * @return the journal, attached to {@code sessions}.
+	 * @throws IOException if the journal cannot be read or written.
+	 */
+	public static GameJournal open(Path directory, SessionManager sessions,
+			int snapshotInterval) throws IOException {
+		if (snapshotInterval < 1) {
+			throw new IllegalArgumentException(
+					"Invalid snapshot interval: " + snapshotInterval);
+		}
+		Files.createDirectories(directory);
+		TreeSet<Long> snapshots = new TreeSet<>();
+		TreeSet<Long> segments = new TreeSet<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				if (name.matches("snapshot-\\p{XDigit}{16}\\.bin")) {
+					snapshots.add(Long.parseUnsignedLong(name.substring(9, 25),
+							16));
+				} else if (name.matches("segment-\\p{XDigit}{16}\\.log")) {
+					segments.add(Long.parseUnsignedLong(name.substring(8, 24),
+							16));
+				}
+			}
+		}
+
+		long first = 0; // the segment the loaded snapshot starts
+		for (long number : snapshots.descendingSet()) {
+			if (loadSnapshot(directory.resolve(snapshotName(number)),
+					sessions)) {
+				first = number;
+				break;
+			}
+		}
+		for (long number : segments.tailSet(first)) {
+			replaySegment(directory.resolve(segmentName(number)), sessions);
+		}
+
+		long next = Math.max(snapshots.isEmpty() ? 0 : snapshots.last(),
+				segments.isEmpty() ? 0 : segments.last()) + 1;
+		GameJournal journal = new GameJournal(directory, sessions,
+				snapshotInterval, next);
+		try {
+			journal.writeSnapshot(next);
+		} catch (IOException | RuntimeException e) {
+			try {
+				journal.log.close(); // the writer has not started
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+		sessions.attachJournal(journal);
+		journal.writer.start();
+		return journal;
+	}
+
+	/**
+	 * This method stops accepting records, waits for the gathered ones to be
+	 * written and closes the log. The games are no longer logged.
+	 *
+	 * @throws IOException if the last records could not be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		sessions.attachJournal(null);
+		synchronized (lock) {
+			closed = true;
+			lock.notifyAll();
+		}
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		log.close();
+		synchronized (lock) {
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	/*
+	 * Helper method: to log a new game.
+	 */
+
+	CompletableFuture<Void> logCreate(long id) {
+		return append(CREATE, id, 0, 0);
+	}
+
+	/*
+	 * Helper method: to log turn number ply, pitNumber, of a game.
+	 */
+
+	CompletableFuture<Void> logTurn(long id, int ply, int pitNumber) {
+		return append(TURN, id, ply, pitNumber);
+	}
+
+	/*
+	 * Helper method: to log a removed game.
+	 */
+
+	CompletableFuture<Void> logRemove(long id) {
+		return append(REMOVE, id, 0, 0);
+	}
+
+	/*
+	 * Helper method: to gather a record for the writer and return the future
+	 * completed once it is on disk.
+	 */
+
+	private CompletableFuture<Void> append(int type, long id, int ply,
+			int pitNumber) {
+		CompletableFuture<Void> durable = new CompletableFuture<>();
+		synchronized (lock) {
+			if (failure != null) {
+				return CompletableFuture
+						.failedFuture(new UncheckedIOException(failure));
+			}
+			if (closed) {
+				return CompletableFuture.failedFuture(
+						new IllegalStateException("Journal is closed"));
+			}
+			if (gathered.remaining() < RECORD_BYTES) {
+				ByteBuffer larger = ByteBuffer
+						.allocate(gathered.capacity() * 2);
+				gathered = larger.put(gathered.flip());
+			}
+			int start = gathered.position();
+			gathered.putLong(id).putInt(ply).put((byte) type)
+					.put((byte) pitNumber).putShort((short) 0);
+			crc.reset();
+			crc.update(gathered.array(), start, CHECKED_BYTES);
+			gathered.putInt((int) crc.getValue());
+			waiting.add(durable);
+			if (waiting.size() == 1) {
+				lock.notifyAll();
+			}
+		}
+		return durable;
+	}
+
+	/*
+	 * Helper method: to write and sync the gathered records batch by batch
+	 * until the journal is closed, snapshotting every snapshotInterval
+	 * records.
+	 */
+
+	private void writeLoop() {
+		while (true) {
+			ByteBuffer batch;
+			List<CompletableFuture<Void>> waiters;
+			synchronized (lock) {
+				while (waiting.isEmpty() && !closed) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						closed = true; // stop after the last batch
+					}
+				}
+				if (waiting.isEmpty()) {
+					return;
+				}
+				batch = gathered;
+				gathered = spare;
+				spare = batch;
+				waiters = waiting;
+				waiting = new ArrayList<>();
+			}
+
+			try {
+				batch.flip();
+				while (batch.hasRemaining()) {
+					log.write(batch);
+				}
+				log.force(false);
+				batch.clear();
+				for (CompletableFuture<Void> durable : waiters) {
+					durable.complete(null);
+				}
+				sinceSnapshot += waiters.size();
+				if (sinceSnapshot >= snapshotInterval) {
+					startSegment();
+				}
+			} catch (IOException e) {
+				fail(e, waiters);
+				return;
+			}
+		}
+	}
+
+	/*
+	 * Helper method: to continue the log in a new segment and write the
+	 * snapshot it starts from.
+	 */
+
+	private void startSegment() throws IOException {
+		log.close();
+		log = FileChannel.open(segmentPath(segment + 1),
+				StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		segment++;
+		writeSnapshot(segment);
+	}
+
+	/*
+	 * Helper method: to write every game as the snapshot numbered number,
+	 * atomically, and delete the segments and snapshots before it. Records
+	 * of segment number may already be in the snapshot; replay skips them.
+	 */
+
+	private void writeSnapshot(long number) throws IOException {
+		long nextId = sessions.getNextId(); // before reading any game
+		long[] games = sessions.snapshotGames();
+		int count = games.length / 4;
+		ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES
+				+ count * SNAPSHOT_GAME_BYTES + Integer.BYTES);
+		buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION)
+				.putLong(nextId).putInt(count);
+		for (int i = 0; i < games.length; i += 4) {
+			buffer.putLong(games[i]).putInt((int) games[i + 1])
+					.putLong(games[i + 2]).putLong(games[i + 3]);
+		}
+		CRC32C checksum = new CRC32C();
+		checksum.update(buffer.array(), 0, buffer.position());
+		buffer.putInt((int) checksum.getValue()).flip();
+
+		Path temporary = directory.resolve(snapshotName(number) + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary,
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(true);
+		}
+		Files.move(temporary, directory.resolve(snapshotName(number)),
+				StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+		syncDirectory();
+		sinceSnapshot = 0;
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+				"{segment,snapshot}-*")) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				String digits = name.substring(name.indexOf('-') + 1,
+						name.indexOf('.'));
+				if (digits.length() == 16 && Long.compareUnsigned(
+						Long.parseUnsignedLong(digits, 16), number) < 0) {
+					Files.delete(file);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Helper method: to sync the directory so renames survive a crash; not
+	 * every platform can open a directory, so this is best effort.
+	 */
+
+	private void syncDirectory() {
+		try (FileChannel channel = FileChannel.open(directory,
+				StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// the rename is still atomic, only maybe not yet durable
+		}
+	}
+
+	/*
+	 * Helper method: to fail the waiters of a batch and every later record
+	 * after a write error.
+	 */
+
+	private void fail(IOException e, List<CompletableFuture<Void>> waiters) {
+		List<CompletableFuture<Void>> failed = new ArrayList<>(waiters);
+		synchronized (lock) {
+			failure = e;
+			failed.addAll(waiting);
+			waiting.clear();
+		}
+		for (CompletableFuture<Void> durable : failed) {
+			durable.completeExceptionally(new UncheckedIOException(e));
+		}
+	}
+
+	/*
+	 * Helper method: to load a snapshot into sessions, returning false
+	 * without loading anything if it is damaged.
+	 */
+
+	private static boolean loadSnapshot(Path file, SessionManager sessions)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+		int length = buffer.limit() - Integer.BYTES;
+		if (length < SNAPSHOT_HEADER_BYTES) {
+			return false;
+		}
+		CRC32C checksum = new CRC32C();
+		checksum.update(buffer.array(), 0, length);
+		if (buffer.getInt(length) != (int) checksum.getValue()
+				|| buffer.getInt() != SNAPSHOT_MAGIC
+				|| buffer.getInt() != SNAPSHOT_VERSION) {
+			return false;
+		}
+		long nextId = buffer.getLong();
+		int count = buffer.getInt();
+		if (length != SNAPSHOT_HEADER_BYTES + count * SNAPSHOT_GAME_BYTES) {
+			return false;
+		}
+		long[] state = new long[Position.WORDS];
+		for (int i = 0; i < count; i++) {
+			long id = buffer.getLong();
+			int plies = buffer.getInt();
+			state[0] = buffer.getLong();
+			state[1] = buffer.getLong();
+			sessions.restoreGame(id, state, 0, plies);
+		}
+		sessions.restoreNextId(nextId);
+		return true;
+	}
+
+	/*
+	 * Helper method: to replay the records of a segment into sessions up to
+	 * its end or its first damaged record.
+	 */
+
+	private static void replaySegment(Path file, SessionManager sessions)
+			throws IOException {
+		CRC32C checksum = new CRC32C();
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			while (true) {
+				buffer.clear();
+				while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+					// fill the buffer unless the segment ends
+				}
+				buffer.flip();
+				while (buffer.remaining() >= RECORD_BYTES) {
+					checksum.reset();
+					checksum.update(buffer.array(), buffer.position(),
+							CHECKED_BYTES);
+					long id = buffer.getLong();
+					int ply = buffer.getInt();
+					int type = buffer.get();
+					int pitNumber = buffer.get();
+					buffer.getShort();
+					if (buffer.getInt() != (int) checksum.getValue()
+							|| type < CREATE || type > REMOVE) {
+						return; // cut short by a crash
+					}
+					sessions.replay(type, id, ply, pitNumber);
+				}
+				if (buffer.limit() < buffer.capacity()) {
+					return; // the end of the segment
+				}
+			}
+		}
+	}
+
+	/*
+	 * Helper method: to get the file of segment number.
+	 */
+
+	private Path segmentPath(long number) {
+		return directory.resolve(segmentName(number));
+	}
+
+	/*
+	 * Helper method: to get the file name of segment number.
+	 */
+
+	private static String segmentName(long number) {
+		return String.format("segment-%016x.log", number);
+	}
+
+	/*
+	 * Helper method: to get the file name of snapshot number.
+	 */
+
+	private static String snapshotName(long number) {
+		return String.format("snapshot-%016x.bin", number);
+	}
+}
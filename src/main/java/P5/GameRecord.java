@@ -0,0 +1,57 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+/**
+ * {@code GameRecord} describes the binary format of an archive of games,
+ * written by {@code GameRecordWriter} and read by {@code GameRecordReader}.
+ * <p>
+ * An archive starts with a header of {@link #HEADER_BYTES} bytes: the int
+ * {@link #MAGIC}, the byte {@link #VERSION}, the seeds per pit of the
+ * variant as a byte and the checkpoint interval as a short, 0 for none.
+ * Numbers are big-endian.
+ * <p>
+ * Games follow one after the other. A game is its number of plies as an
+ * unsigned LEB128 varint, then its moves, {@link #BITS_PER_MOVE} bits each
+ * holding the pit number less one, packed from the high bit of each byte,
+ * then one checkpoint after every {@code interval} plies. A checkpoint is
+ * the packed {@code Position} after its ply, {@link #CHECKPOINT_BYTES}
+ * bytes. A 40 ply game without checkpoints takes 16 bytes.
+ */
+
+public final class GameRecord {
+
+	public static final int MAGIC = 0x4D4B_4752; // "MKGR".
+	public static final int VERSION = 1; // version of the format.
+	public static final int HEADER_BYTES = 8; // magic, version, variant.
+	public static final int BITS_PER_MOVE = 3; // pit numbers 1 to 6.
+	public static final int CHECKPOINT_BYTES = Position.WORDS * Long.BYTES;
+
+	private GameRecord() {
+	}
+
+	/**
+	 * This method calculates the number of bytes holding the moves of a
+	 * game.
+	 *
+	 * @param plies The number of plies of the game.
+	 * @return the bytes of its packed moves.
+	 */
+	public static int moveBytes(int plies) {
+		return (plies * BITS_PER_MOVE + Byte.SIZE - 1) / Byte.SIZE;
+	}
+
+	/**
+	 * This method calculates the number of checkpoints of a game.
+	 *
+	 * @param plies    The number of plies of the game.
+	 * @param interval The checkpoint interval of the archive, 0 for none.
+	 * @return the number of checkpoints.
+	 */
+	public static int checkpoints(int plies, int interval) {
+		return interval == 0 ? 0 : plies / interval;
+	}
+}
@@ -0,0 +1,229 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * {@code GameRecordReader} reads an archive in the {@code GameRecord} format
+ * through a {@code ReadableByteChannel}, one game at a time, so an archive of
+ * any size is read through one fixed buffer. After {@link #nextGame()} the
+ * moves of the current game are available, and the game can be rebuilt at
+ * any ply from its nearest checkpoint.
+ */
+
+public class GameRecordReader implements Closeable {
+
+	private static final int BUFFER_BYTES = 64 * 1024; // bytes per read.
+	private final ReadableByteChannel channel; // the archive.
+	private final int seedsPerPit; // the variant of every game.
+	private final int interval; // plies between checkpoints, 0 for none.
+	private final long[] start = new long[Position.WORDS]; // start position.
+	private final long[] scratch = new long[Position.WORDS]; // for replay.
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+	private int[] moves = new int[256]; // moves of the current game.
+	private long[] checkpoints = new long[0]; // positions of current game.
+	private int plies; // number of moves of the current game.
+
+	/**
+	 * Constructs a new instance of {@code GameRecordReader} and reads the
+	 * header of the archive.
+	 *
+	 * @param channel The channel holding the archive.
+	 * @throws IOException if the header cannot be read or is not valid.
+	 */
+	public GameRecordReader(ReadableByteChannel channel) throws IOException {
+		this.channel = channel;
+		buffer.flip(); // empty, ready for reading
+		if (!fill(GameRecord.HEADER_BYTES)
+				|| buffer.getInt() != GameRecord.MAGIC
+				|| buffer.get() != GameRecord.VERSION) {
+			throw new IOException("Not a game record");
+		}
+		this.seedsPerPit = buffer.get() & 0xFF;
+		this.interval = buffer.getShort();
+		Position.initial(start, 0, seedsPerPit);
+	}
+
+	/**
+	 * Accessor method to get the seeds per pit of the variant.
+	 *
+	 * @return the seeds in every pit at the start of each game.
+	 */
+	public int getSeedsPerPit() {
+		return seedsPerPit;
+	}
+
+	/**
+	 * Accessor method to get the plies between checkpoints.
+	 *
+	 * @return the checkpoint interval, 0 for none.
+	 */
+	public int getCheckpointInterval() {
+		return interval;
+	}
+
+	/**
+	 * This method reads the next game of the archive.
+	 *
+	 * @return the number of plies of the game, or -1 after the last game.
+	 * @throws IOException if the archive cannot be read or is truncated.
+	 */
+	public int nextGame() throws IOException {
+		int value = 0;
+		for (int shift = 0; ; shift += 7) { // unsigned LEB128
+			if (!fill(1)) {
+				if (shift == 0) {
+					plies = 0;
+					return -1;
+				}
+				throw new EOFException("Truncated game record");
+			}
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				break;
+			}
+		}
+		plies = value;
+
+		int count = GameRecord.checkpoints(plies, interval);
+		if (!fill(GameRecord.moveBytes(plies)
+				+ count * GameRecord.CHECKPOINT_BYTES)) {
+			throw new EOFException("Truncated game record");
+		}
+		if (moves.length < plies) {
+			moves = new int[Math.max(plies, 2 * moves.length)];
+		}
+		int bits = 0; // unread bits, aligned to the low end
+		int available = 0; // number of unread bits
+		for (int ply = 0; ply < plies; ply++) {
+			if (available < GameRecord.BITS_PER_MOVE) {
+				bits = bits << Byte.SIZE | buffer.get() & 0xFF;
+				available += Byte.SIZE;
+			}
+			available -= GameRecord.BITS_PER_MOVE;
+			moves[ply] = (bits >>> available & 7) + 1;
+		}
+		if (checkpoints.length < count * Position.WORDS) {
+			checkpoints = new long[count * Position.WORDS];
+		}
+		for (int i = 0; i < count * Position.WORDS; i++) {
+			checkpoints[i] = buffer.getLong();
+		}
+		return plies;
+	}
+
+	/**
+	 * Accessor method to get the number of plies of the current game.
+	 *
+	 * @return the plies of the game read by {@link #nextGame()}.
+	 */
+	public int getPlies() {
+		return plies;
+	}
+
+	/**
+	 * Accessor method to get a move of the current game.
+	 *
+	 * @param ply The ply of the move, from 0.
+	 * @return the pit number played at {@code ply}.
+	 */
+	public int getMove(int ply) {
+		if (ply < 0 || ply >= plies) {
+			throw new IndexOutOfBoundsException("No ply " + ply);
+		}
+		return moves[ply];
+	}
+
+	/**
+	 * This method rebuilds the current game after {@code ply} moves from its
+	 * nearest checkpoint.
+	 *
+	 * @param ply    The number of moves played, from 0 to the plies of the
+	 *               game.
+	 * @param state  The array receiving the packed {@code Position}.
+	 * @param offset The index of the first word of the position.
+	 */
+	public void positionAt(int ply, long[] state, int offset) {
+		for (int i = checkpointBefore(ply, state, offset); i < ply; i++) {
+			Position.applyMove(state, offset, state, offset, moves[i]);
+		}
+	}
+
+	/**
+	 * This method rebuilds the current game after {@code ply} moves in
+	 * {@code game}, loading its nearest checkpoint and playing the moves
+	 * after it with {@link Mancala#performTurns(int[], int, int, int[])}.
+	 *
+	 * @param game The game to rebuild into; its state is replaced.
+	 * @param ply  The number of moves played, from 0 to the plies of the
+	 *             game.
+	 */
+	public void replay(Mancala game, int ply) {
+		int first = checkpointBefore(ply, scratch, 0);
+		game.load(scratch, 0);
+		game.performTurns(moves, first, ply, null);
+	}
+
+	/**
+	 * This method closes the channel.
+	 *
+	 * @throws IOException if the channel cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/*
+	 * Helper method: to copy the last position at or before ply that is
+	 * stored, a checkpoint or the start, into state and return its ply.
+	 */
+
+	private int checkpointBefore(int ply, long[] state, int offset) {
+		if (ply < 0 || ply > plies) {
+			throw new IndexOutOfBoundsException("No ply " + ply);
+		}
+		int checkpoint = interval == 0 ? 0 : ply / interval;
+		if (checkpoint == 0) {
+			System.arraycopy(start, 0, state, offset, Position.WORDS);
+		} else {
+			System.arraycopy(checkpoints, (checkpoint - 1) * Position.WORDS,
+					state, offset, Position.WORDS);
+		}
+		return checkpoint * interval;
+	}
+
+	/*
+	 * Helper method: to make at least bytes bytes available in the buffer,
+	 * reading from the channel as needed. It returns false if the archive
+	 * ends first.
+	 */
+
+	private boolean fill(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return true;
+		}
+		if (buffer.capacity() < bytes) {
+			ByteBuffer larger = ByteBuffer.allocateDirect(bytes);
+			larger.put(buffer).flip();
+			buffer = larger;
+		}
+		buffer.compact();
+		while (buffer.position() < bytes) {
+			if (channel.read(buffer) < 0) {
+				break;
+			}
+		}
+		buffer.flip();
+		return buffer.remaining() >= bytes;
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * {@code GameRecordWriter} appends games to an archive in the
+ * {@code GameRecord} format through a {@code WritableByteChannel}. Games are
+ * gathered in a buffer and written when it fills up or on {@link #flush()}.
+ * Every move is replayed on a {@code Position} as it is written, which
+ * checks that it is legal and gives the checkpoints.
+ */
+
+public class GameRecordWriter implements Closeable {
+
+	private static final int BUFFER_BYTES = 64 * 1024; // bytes per write.
+	private final WritableByteChannel channel; // the archive.
+	private final int seedsPerPit; // the variant of every game.
+	private final int interval; // plies between checkpoints, 0 for none.
+	private final long[] state = new long[Position.WORDS]; // replayed game.
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+	/**
+	 * Constructs a new instance of {@code GameRecordWriter} and writes the
+	 * header of the archive.
+	 *
+	 * @param channel     The channel receiving the archive.
+	 * @param seedsPerPit The seeds in every pit at the start of each game.
+	 * @param interval    The plies between checkpoints, 0 for none.
+	 * @throws IOException if the header cannot be written.
+	 */
+	public GameRecordWriter(WritableByteChannel channel, int seedsPerPit,
+			int interval) throws IOException {
+		if (interval < 0 || interval > Short.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"Invalid checkpoint interval: " + interval);
+		}
+		Position.initial(state, 0, seedsPerPit); // checks the variant
+		this.channel = channel;
+		this.seedsPerPit = seedsPerPit;
+		this.interval = interval;
+		buffer.putInt(GameRecord.MAGIC).put((byte) GameRecord.VERSION)
+				.put((byte) seedsPerPit).putShort((short) interval);
+	}
+
+	/**
+	 * This method appends a game played from the start of the variant.
+	 *
+	 * @param moves The pit numbers played, in order.
+	 * @param plies The number of moves to take from {@code moves}.
+	 * @throws IOException              if the archive cannot be written.
+	 * @throws IllegalArgumentException if a move is not legal.
+	 */
+	public void writeGame(int[] moves, int plies) throws IOException {
+		int size = 5 + GameRecord.moveBytes(plies)
+				+ GameRecord.checkpoints(plies, interval)
+						* GameRecord.CHECKPOINT_BYTES;
+		if (buffer.remaining() < size) {
+			flush();
+			if (buffer.capacity() < size) {
+				buffer = ByteBuffer.allocateDirect(size);
+			}
+		}
+
+		int start = buffer.position();
+		for (int value = plies; ; value >>>= 7) { // unsigned LEB128
+			if ((value & ~0x7F) == 0) {
+				buffer.put((byte) value);
+				break;
+			}
+			buffer.put((byte) (value & 0x7F | 0x80));
+		}
+
+		int checkpointStart = buffer.position() + GameRecord.moveBytes(plies);
+		int checkpoint = checkpointStart;
+		Position.initial(state, 0, seedsPerPit);
+		int bits = 0; // pending bits, aligned to the high end
+		int pending = 0; // number of pending bits
+		for (int ply = 0; ply < plies; ply++) {
+			if (!Position.applyMove(state, 0, state, 0, moves[ply])) {
+				buffer.position(start); // drop the game
+				throw new IllegalArgumentException(
+						"Illegal move " + moves[ply] + " at ply " + ply);
+			}
+			bits = bits << GameRecord.BITS_PER_MOVE | moves[ply] - 1;
+			pending += GameRecord.BITS_PER_MOVE;
+			if (pending >= Byte.SIZE) {
+				pending -= Byte.SIZE;
+				buffer.put((byte) (bits >>> pending));
+			}
+			if (interval != 0 && (ply + 1) % interval == 0) {
+				buffer.putLong(checkpoint, state[0]).putLong(
+						checkpoint + Long.BYTES, state[1]);
+				checkpoint += GameRecord.CHECKPOINT_BYTES;
+			}
+		}
+		if (pending > 0) {
+			buffer.put((byte) (bits << Byte.SIZE - pending));
+		}
+		buffer.position(checkpoint);
+	}
+
+	/**
+	 * This method writes the buffered games to the channel.
+	 *
+	 * @throws IOException if the archive cannot be written.
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * This method writes the buffered games and closes the channel.
+	 *
+	 * @throws IOException if the archive cannot be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
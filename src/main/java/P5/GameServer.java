@@ -0,0 +1,270 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import P5.Side.Player;
+
+/**
+ * {@code GameServer} serves the games of a {@code SessionManager} over HTTP
+ * on the loopback address, with JSON responses:
+ * <ul>
+ * <li>{@code POST /games} starts a game and returns it.</li>
+ * <li>{@code GET /games/{id}} returns a game.</li>
+ * <li>{@code POST /games/{id}/turn?pit=N} plays pit {@code N} for the
+ * {@code Player} to move and returns the game; 409 if the pit may not be
+ * played.</li>
+ * <li>{@code DELETE /games/{id}} ends a game.</li>
+ * <li>{@code GET /metrics} returns the {@code TurnMetrics} of the games in
+ * the Prometheus text format.</li>
+ * </ul>
+ * A game is returned as
+ * {@code {"id":1,"toMove":"One","gameOver":false,"one":[...],"two":[...]}},
+ * where the rows are those of {@code Player.One} and {@code Player.Two},
+ * stores last. Unknown games, and paths that merely start with
+ * {@code /games} such as {@code /gamesfoo}, are 404.
+ * <p>
+ * Small responses wait on the client's delayed acknowledgements unless the
+ * JDK server disables Nagle's algorithm, which it only does when the JVM is
+ * started with {@code -Dsun.net.httpserver.nodelay=true}. The command line
+ * below sets that property itself; a program embedding a
+ * {@code GameServer} should pass the flag.
+ * <p>
+ * Usage: {@code java P5.GameServer <port> [threads] [journal]}, where
+ * {@code journal} is a directory for a {@code GameJournal} keeping the games
+ * across restarts.
+ */
+
+public class GameServer implements AutoCloseable {
+
+	private static final String PREFIX = "/games"; // path of game requests.
+	private static final String METRICS = "/metrics"; // path of metrics.
+	private static final int METRICS_CHARS = 8192; // usual length of metrics.
+	private static final String NODELAY = "sun.net.httpserver.nodelay";
+
+	private final SessionManager sessions; // the games served.
+	private final HttpServer server; // the HTTP listener.
+	private final ExecutorService executor; // handles requests.
+
+	/**
+	 * Constructs a new instance of {@code GameServer} and starts serving.
+	 *
+	 * @param sessions The games to serve.
+	 * @param port     The port to listen on, 0 for any free port.
+	 * @param threads  The number of threads handling requests.
+	 * @throws IOException if the port cannot be bound.
+	 */
+	public GameServer(SessionManager sessions, int port, int threads)
+			throws IOException {
+		this.sessions = sessions;
+		this.server = HttpServer.create(
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+				0);
+		this.executor = Executors.newFixedThreadPool(threads);
+		server.createContext(PREFIX, this::handle);
+		server.createContext(METRICS, this::handleMetrics);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	/**
+	 * Runs a server from the command line until the process is stopped.
+	 *
+	 * @param args The port and optionally the number of threads and the
+	 *             journal directory.
+	 * @throws IOException if the port cannot be bound or the journal
+	 *                     cannot be recovered.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 3) {
+			System.err.println("Usage: GameServer <port> [threads] [journal]");
+			return;
+		}
+		// send small responses at once instead of waiting on delayed acks;
+		// read when the first HttpServer of the process is created
+		if (System.getProperty(NODELAY) == null) {
+			System.setProperty(NODELAY, "true");
+		}
+		int threads = args.length >= 2 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+		SessionManager sessions = new SessionManager(threads);
+		if (args.length == 3) {
+			GameJournal.open(Paths.get(args[2]), sessions,
+					GameJournal.DEFAULT_SNAPSHOT_INTERVAL);
+			System.out.println("Recovered " + sessions.getGameCount()
+					+ " games");
+		}
+		GameServer server = new GameServer(sessions,
+				Integer.parseInt(args[0]), threads);
+		System.out.println("Serving games on port " + server.getPort());
+	}
+
+	/**
+	 * Accessor method to get the port the server listens on.
+	 *
+	 * @return the bound port.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * This method stops serving and stops the request threads.
+	 */
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * This method formats a game as the JSON returned by the server.
+	 *
+	 * @param id    The id of the game.
+	 * @param state The game as a packed {@code Position}.
+	 * @return the JSON object.
+	 */
+	public static String toJson(long id, long[] state) {
+		StringBuilder json = new StringBuilder(128);
+		json.append("{\"id\":").append(id).append(",\"toMove\":\"")
+				.append(Position.sideToMove(state, 0))
+				.append("\",\"gameOver\":")
+				.append(Position.isGameOver(state, 0));
+		for (Player player : Player.values()) {
+			json.append(",\"").append(player == Player.One ? "one" : "two")
+					.append("\":[");
+			for (int i = 0; i < Side.ROW_SIZE; i++) {
+				json.append(i == 0 ? "" : ",")
+						.append(Position.seedCount(state, 0, player, i));
+			}
+			json.append(']');
+		}
+		return json.append('}').toString();
+	}
+
+	/*
+	 * Helper method: to route a request under /games.
+	 */
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			exchange.getRequestBody().readAllBytes(); // keeps the connection
+			String method = exchange.getRequestMethod();
+			String uriPath = exchange.getRequestURI().getPath();
+			// the context also matches /gamesfoo, which is not a game path
+			if (uriPath.length() > PREFIX.length()
+					&& uriPath.charAt(PREFIX.length()) != '/') {
+				respond(exchange, 404, "");
+				return;
+			}
+			String[] path = uriPath.substring(PREFIX.length()).split("/");
+			// path is {""} for /games, {"", id} or {"", id, "turn"}
+			if (path.length <= 1) {
+				if (!method.equals("POST")) {
+					respond(exchange, 405, "");
+					return;
+				}
+				long id = sessions.createGame();
+				respond(exchange, 201, toJson(id, sessions.getState(id)));
+				return;
+			}
+
+			long id = Long.parseLong(path[1]);
+			if (path.length == 2 && method.equals("GET")) {
+				respond(exchange, 200, toJson(id, sessions.getState(id)));
+			} else if (path.length == 2 && method.equals("DELETE")) {
+				respond(exchange, sessions.removeGame(id) ? 204 : 404, "");
+			} else if (path.length == 3 && path[2].equals("turn")
+					&& method.equals("POST")) {
+				int pitNumber = pitParameter(exchange.getRequestURI()
+						.getRawQuery());
+				respond(exchange, 200,
+						toJson(id, sessions.takeTurn(id, pitNumber)));
+			} else {
+				respond(exchange, 404, "");
+			}
+		} catch (NoSuchElementException e) {
+			respond(exchange, 404, "");
+		} catch (NumberFormatException e) {
+			respond(exchange, 400, "");
+		} catch (IllegalArgumentException e) {
+			respond(exchange, 409, "");
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/*
+	 * Helper method: to answer a scrape of /metrics.
+	 */
+
+	private void handleMetrics(HttpExchange exchange) throws IOException {
+		try {
+			exchange.getRequestBody().readAllBytes();
+			if (!exchange.getRequestMethod().equals("GET")
+					|| !exchange.getRequestURI().getPath().equals(METRICS)) {
+				respond(exchange, 404, "");
+				return;
+			}
+			byte[] bytes = sessions.getMetrics()
+					.writeTo(new StringBuilder(METRICS_CHARS)).toString()
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type",
+					"text/plain; version=0.0.4");
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/*
+	 * Helper method: to read the pit parameter of a query, 0 if missing.
+	 */
+
+	private static int pitParameter(String query) {
+		if (query != null) {
+			for (String parameter : query.split("&")) {
+				if (parameter.startsWith("pit=")) {
+					return Integer.parseInt(parameter.substring(4));
+				}
+			}
+		}
+		return 0;
+	}
+
+	/*
+	 * Helper method: to send a response with a JSON body, or none if body
+	 * is empty.
+	 */
+
+	private static void respond(HttpExchange exchange, int status,
+			String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length == 0 ? -1
+				: bytes.length);
+		if (bytes.length > 0) {
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		}
+	}
+}
@@ -0,0 +1,340 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import P5.Side.Player;
+
+/**
+ * {@code LoadGenerator} plays random turns in many concurrent games and
+ * reports the latency of every turn: the 50th, 99th and 99.9th percentiles
+ * and the maximum. Games that end are replaced, so the number of games in
+ * play stays the same.
+ * <p>
+ * Each client thread owns an equal share of the games and plays them in
+ * turn, picking legal pits from the state returned by its last turn. Turns
+ * go either to an in-process {@code SessionManager} with
+ * {@link SessionManager#submitTurn(long, int)} or, given a port, to a
+ * {@code GameServer} over HTTP.
+ * <p>
+ * Usage: {@code java P5.LoadGenerator <games> <clients> <turns> [port]},
+ * where {@code turns} is the number of turns per client.
+ */
+
+public class LoadGenerator {
+
+	private final SessionManager sessions; // in-process games, or null.
+	private final HttpClient client; // client of a server, or null.
+	private final URI server; // the games URI of a server, or null.
+
+	/*
+	 * Constructs a new instance of LoadGenerator for sessions, or for the
+	 * server at root when sessions is null.
+	 */
+
+	private LoadGenerator(SessionManager sessions, URI root) {
+		this.sessions = sessions;
+		this.client = sessions == null ? HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1).build() : null;
+		this.server = sessions == null ? root.resolve("/games/") : null;
+	}
+
+	/**
+	 * Runs the load generator from the command line and prints the
+	 * latencies.
+	 *
+	 * @param args The games, clients and turns per client, then optionally
+	 *             the port of a {@code GameServer}.
+	 * @throws IOException              if the server cannot be reached.
+	 * @throws IllegalArgumentException if the games, clients or turns are
+	 *                                  invalid.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3 || args.length > 4) {
+			System.err.println(
+					"Usage: LoadGenerator <games> <clients> <turns> [port]");
+			return;
+		}
+		int games = Integer.parseInt(args[0]);
+		int clients = Integer.parseInt(args[1]);
+		int turns = Integer.parseInt(args[2]);
+		checkLoad(games, clients, turns);
+		long[] latencies;
+		if (args.length == 4) {
+			latencies = run(URI.create("http://127.0.0.1:" + args[3]), games,
+					clients, turns);
+		} else {
+			try (SessionManager sessions = new SessionManager(
+					Runtime.getRuntime().availableProcessors())) {
+				latencies = run(sessions, games, clients, turns);
+			}
+		}
+		System.out.println(summarize(latencies));
+	}
+
+	/**
+	 * This method plays {@code turns} turns on each of {@code clients}
+	 * threads over {@code games} games against an in-process
+	 * {@code SessionManager}.
+	 *
+	 * @param sessions The games to play.
+	 * @param games    The number of games in play, at least 1.
+	 * @param clients  The number of client threads, between 1 and
+	 *                 {@code games} inclusive.
+	 * @param turns    The number of turns per client, at least 0.
+	 * @return the sorted latency of every turn in nanoseconds.
+	 * @throws IllegalArgumentException if the games, clients or turns are
+	 *                                  invalid.
+	 */
+	public static long[] run(SessionManager sessions, int games, int clients,
+			int turns) {
+		checkLoad(games, clients, turns);
+		try {
+			return new LoadGenerator(sessions, null).run(games, clients,
+					turns);
+		} catch (IOException e) {
+			throw new IllegalStateException(e); // only thrown over HTTP
+		}
+	}
+
+	/*
+	 * Helper method: to play the same load as run(SessionManager, ...)
+	 * against the GameServer at root, such as http://127.0.0.1:8080.
+	 */
+
+	static long[] run(URI root, int games, int clients, int turns)
+			throws IOException {
+		checkLoad(games, clients, turns);
+		return new LoadGenerator(null, root).run(games, clients, turns);
+	}
+
+	/**
+	 * This method formats the percentiles of sorted latencies.
+	 *
+	 * @param latencies The sorted latencies in nanoseconds.
+	 * @return a line with the count and percentiles in microseconds.
+	 */
+	public static String summarize(long[] latencies) {
+		return String.format(
+				"turns %d, p50 %.1f us, p99 %.1f us, p99.9 %.1f us, "
+						+ "max %.1f us",
+				latencies.length, percentile(latencies, 0.50) / 1e3,
+				percentile(latencies, 0.99) / 1e3,
+				percentile(latencies, 0.999) / 1e3,
+				latencies.length == 0 ? 0
+						: latencies[latencies.length - 1] / 1e3);
+	}
+
+	/**
+	 * This method finds a percentile of sorted latencies.
+	 *
+	 * @param latencies The sorted latencies.
+	 * @param fraction  The percentile as a fraction, such as 0.99.
+	 * @return the latency at the percentile, 0 if there are none.
+	 */
+	public static long percentile(long[] latencies, double fraction) {
+		if (latencies.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(fraction * latencies.length) - 1;
+		return latencies[Math.max(0, Math.min(index, latencies.length - 1))];
+	}
+
+	/*
+	 * Helper method: to fail unless every client gets at least one game.
+	 */
+
+	private static void checkLoad(int games, int clients, int turns) {
+		if (games < 1 || clients < 1 || clients > games || turns < 0) {
+			throw new IllegalArgumentException("Invalid load: " + games
+					+ " games, " + clients + " clients, " + turns + " turns");
+		}
+	}
+
+	/*
+	 * Helper method: to run the clients and collect their sorted latencies.
+	 */
+
+	private long[] run(int games, int clients, int turns) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+		try {
+			SplittableRandom random = new SplittableRandom();
+			List<Future<long[]>> futures = new ArrayList<>();
+			for (int c = 0; c < clients; c++) {
+				int share = games / clients + (c < games % clients ? 1 : 0);
+				SplittableRandom clientRandom = random.split();
+				futures.add(pool.submit(
+						() -> playClient(share, turns, clientRandom)));
+			}
+			long[] latencies = new long[clients * turns];
+			int filled = 0;
+			for (Future<long[]> future : futures) {
+				long[] clientLatencies = future.get();
+				System.arraycopy(clientLatencies, 0, latencies, filled,
+						clientLatencies.length);
+				filled += clientLatencies.length;
+			}
+			Arrays.sort(latencies);
+			return latencies;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted during load", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IllegalStateException("Client failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/*
+	 * Helper method: to play turns turns over games games of one client,
+	 * returning the latency of each turn.
+	 */
+
+	private long[] playClient(int games, int turns, SplittableRandom random)
+			throws IOException, InterruptedException {
+		long[] ids = new long[games];
+		long[] states = new long[games * Position.WORDS];
+		for (int g = 0; g < games; g++) {
+			ids[g] = createGame(states, g * Position.WORDS);
+		}
+
+		long[] latencies = new long[turns];
+		for (int t = 0; t < turns; t++) {
+			int g = t % games;
+			int offset = g * Position.WORDS;
+			int pitNumber = MoveSelector.randomPit(
+					Position.legalMoves(states, offset), random);
+
+			long start = System.nanoTime();
+			long[] state = takeTurn(ids[g], pitNumber);
+			latencies[t] = System.nanoTime() - start;
+
+			System.arraycopy(state, 0, states, offset, Position.WORDS);
+			if (Position.isGameOver(states, offset)) {
+				removeGame(ids[g]);
+				ids[g] = createGame(states, offset);
+			}
+		}
+		for (long id : ids) {
+			removeGame(id);
+		}
+		return latencies;
+	}
+
+	/*
+	 * Helper method: to start a game and store its state at offset.
+	 */
+
+	private long createGame(long[] states, int offset)
+			throws IOException, InterruptedException {
+		if (sessions != null) {
+			long id = sessions.createGame();
+			System.arraycopy(sessions.getState(id), 0, states, offset,
+					Position.WORDS);
+			return id;
+		}
+		String json = send(HttpRequest.newBuilder(server)
+				.POST(HttpRequest.BodyPublishers.noBody()), 201);
+		System.arraycopy(parseState(json), 0, states, offset, Position.WORDS);
+		return Long.parseLong(field(json, "id"));
+	}
+
+	/*
+	 * Helper method: to play one turn and return the state after it.
+	 */
+
+	private long[] takeTurn(long id, int pitNumber)
+			throws IOException, InterruptedException {
+		if (sessions != null) {
+			return sessions.submitTurn(id, pitNumber).join();
+		}
+		return parseState(send(HttpRequest
+				.newBuilder(server.resolve(id + "/turn?pit=" + pitNumber))
+				.POST(HttpRequest.BodyPublishers.noBody()), 200));
+	}
+
+	/*
+	 * Helper method: to end a game.
+	 */
+
+	private void removeGame(long id) throws IOException, InterruptedException {
+		if (sessions != null) {
+			sessions.removeGame(id);
+		} else {
+			send(HttpRequest.newBuilder(server.resolve(String.valueOf(id)))
+					.DELETE(), 204);
+		}
+	}
+
+	/*
+	 * Helper method: to send a request to the server and return its body,
+	 * failing unless the status is expected.
+	 */
+
+	private String send(HttpRequest.Builder request, int expected)
+			throws IOException, InterruptedException {
+		HttpResponse<String> response = client.send(request.build(),
+				HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != expected) {
+			throw new IOException("Unexpected status " + response.statusCode()
+					+ " for " + response.request().uri());
+		}
+		return response.body();
+	}
+
+	/*
+	 * Helper method: to read a game written by GameServer.toJson back into
+	 * a packed Position.
+	 */
+
+	private static long[] parseState(String json) {
+		int[][] rows = new int[2][Side.ROW_SIZE];
+		for (Player player : Player.values()) {
+			String[] counts = field(json, player == Player.One ? "one" : "two")
+					.replace("[", "").replace("]", "").split(",");
+			for (int i = 0; i < Side.ROW_SIZE; i++) {
+				rows[player.ordinal()][i] = Integer.parseInt(counts[i]);
+			}
+		}
+		long[] state = new long[Position.WORDS];
+		Position.pack(state, 0, rows[0], rows[1],
+				Player.valueOf(field(json, "toMove").replace("\"", "")),
+				Boolean.parseBoolean(field(json, "gameOver")));
+		return state;
+	}
+
+	/*
+	 * Helper method: to find the raw value of a field of the flat JSON
+	 * object written by GameServer.toJson.
+	 */
+
+	private static String field(String json, String name) {
+		int start = json.indexOf("\"" + name + "\":") + name.length() + 3;
+		int end = json.charAt(start) == '[' ? json.indexOf(']', start) + 1
+				: start;
+		while (json.charAt(end) != ',' && json.charAt(end) != '}') {
+			end++;
+		}
+		return json.substring(start, end);
+	}
+}
@@ -4,30 +4,169 @@
  */
 package P5;
 
+import java.util.Arrays;
+import java.util.Objects;
+
+import P5.BoardRenderer.Format;
 import P5.Side.Player;
 
 /**
- * The {@code Mancala} class represents the game Mancala.
+ * The {@code Mancala} class represents the game Mancala. A game is played on
+ * the board of a {@code Variant}, by default the standard one of six pits
+ * with four seeds each.
  * 
  */
 public class Mancala {
+
+	/**
+	 * The ways a turn can be sown. {@code ARITHMETIC} works out the laps,
+	 * the sown ranges and the landing slot of every turn with division and
+	 * comparisons; {@code TABLES} looks them up in tables precomputed once
+	 * per {@code Variant}. Both play exactly the same game.
+	 */
+	public enum Engine {
+		ARITHMETIC, TABLES
+	}
+
 	private static final int NUM_PLAYERS = 2; // number of Players.
+	private static final int LAP_SIZE = Side.ROW_SIZE + Side.STORE_INDEX; // 13
+	private static final int UNDO_START_DEPTH = 256; // moves before growing.
+	private static final int UNDO_TWO_IN_PLAY = 1; // undo flag bit.
+	private static final int UNDO_GAME_OVER = 2; // undo flag bit.
+	private static final int BOARD_CHARS = 160; // usual length of the board.
+	private static final int STATUS_CHARS = 200; // usual length of status.
+	private final Variant variant; // the geometry of the board.
+	private final int lapSize; // slots sown in a lap, 13 on six pits.
+	private final SowingTable sowingTable; // for Engine.TABLES, or null.
 	private final Side[] board; // consists of two Sides.
 	private Side sideInPlay; // the Side whose turn is now.
 	private Side sideWaiting; // the Side whose turn is next.
 	private int seedsToSow; // the number of seeds to sow.
 	private int pitIndex; // the pit number converted to index number.
 	private boolean gameOverConditionMet = false; // flag to indicate game over.
+	// undo records pushed by makeMove.
+	private int[] undoStack;
+	private int undoTop; // index of the next free slot of undoStack.
+	private boolean publishing; // True once publishSnapshots is called.
+	private volatile BoardSnapshot snapshot; // the board as last published.
 
 	/**
 	 * Constructs a new instance of {@code Mancala}.
 	 */
 	public Mancala() {
+		this(Variant.KALAH_6_4);
+	}
+
+	/**
+	 * Constructs a new instance of {@code Mancala} at the start of a game of
+	 * {@code variant}.
+	 * 
+	 * @param variant The geometry and starting seeds of the board.
+	 */
+	public Mancala(Variant variant) {
+		this(variant, Engine.ARITHMETIC);
+	}
+
+	/**
+	 * Constructs a new instance of {@code Mancala} at the start of a game of
+	 * {@code variant}, sowing its turns with {@code engine}.
+	 * 
+	 * @param variant The geometry and starting seeds of the board.
+	 * @param engine  The way turns are sown.
+	 */
+	public Mancala(Variant variant, Engine engine) {
+		this(variant, engine, variant.startRow(), variant.startRow());
+	}
+
+	/**
+	 * Constructs a new instance of {@code Mancala} that is a deep copy of
+	 * {@code other}, with the same {@code Engine}. Moves made on the copy do
+	 * not affect {@code other}, and the copy starts with no moves to unmake.
+	 * 
+	 * @param other The game to copy.
+	 */
+	public Mancala(Mancala other) {
+		this(other.variant, other.getEngine(), other.board[0].getRow(),
+				other.board[1].getRow());
+		boolean twoInPlay = other.sideInPlay == other.board[1];
+		sideInPlay = twoInPlay ? board[1] : board[0];
+		sideWaiting = twoInPlay ? board[0] : board[1];
+		gameOverConditionMet = other.gameOverConditionMet;
+	}
+
+	/**
+	 * Constructs a new instance of {@code Mancala} from a packed
+	 * {@code Position}, on the standard board.
+	 * 
+	 * @param state  The array holding the position.
+	 * @param offset The index of the first word of the position.
+	 */
+	public Mancala(long[] state, int offset) {
+		this(Variant.KALAH_6_4, Engine.ARITHMETIC,
+				unpackRow(state, offset, Player.One),
+				unpackRow(state, offset, Player.Two));
+		boolean twoToMove = Position.sideToMove(state, offset) == Player.Two;
+		sideInPlay = twoToMove ? board[1] : board[0];
+		sideWaiting = twoToMove ? board[0] : board[1];
+		gameOverConditionMet = Position.isGameOver(state, offset);
+	}
+
+	/*
+	 * Constructs a new instance of Mancala of variant sown with engine, with
+	 * the rows one and two, Player.One to move.
+	 */
+
+	private Mancala(Variant variant, Engine engine, int[] one, int[] two) {
+		this.variant = variant;
+		this.lapSize = 2 * variant.getPits() + 1;
+		this.sowingTable = engine == Engine.TABLES ? variant.sowingTable()
+				: null;
+		// an undo record holds both rows followed by the turn flags.
+		this.undoStack = new int[(2 * variant.getRowSize() + 1)
+				* UNDO_START_DEPTH];
 		this.board = new Side[NUM_PLAYERS];
-		board[0] = new Side(Player.One);
-		board[1] = new Side(Player.Two);
+		board[0] = new Side(Player.One, one);
+		board[1] = new Side(Player.Two, two);
+		sideInPlay = board[0];
+		sideWaiting = board[1];
+	}
+
+	/**
+	 * This method sets the game back to its starting position, so one
+	 * instance can be reused for many games. Moves made before the reset can
+	 * no longer be unmade.
+	 */
+
+	public void reset() {
+		board[0].restoreRow(variant.startRow(), 0);
+		board[1].restoreRow(variant.startRow(), 0);
 		sideInPlay = board[0];
 		sideWaiting = board[1];
+		gameOverConditionMet = false;
+		undoTop = 0;
+		publish();
+	}
+
+	/**
+	 * This method replaces the state of the game with a packed
+	 * {@code Position}, so one instance can be reused for many positions.
+	 * Moves made before the load can no longer be unmade.
+	 * 
+	 * @param state  The array holding the position.
+	 * @param offset The index of the first word of the position.
+	 * @throws IllegalStateException if the board does not have six pits.
+	 */
+
+	public void load(long[] state, int offset) {
+		checkPositionGeometry();
+		board[0].restoreRow(unpackRow(state, offset, Player.One), 0);
+		board[1].restoreRow(unpackRow(state, offset, Player.Two), 0);
+		boolean twoToMove = Position.sideToMove(state, offset) == Player.Two;
+		sideInPlay = twoToMove ? board[1] : board[0];
+		sideWaiting = twoToMove ? board[0] : board[1];
+		gameOverConditionMet = Position.isGameOver(state, offset);
+		undoTop = 0;
+		publish();
 	}
 
 	/**
@@ -36,7 +175,8 @@ public class Mancala {
 	 * not. If not, it determines if the current player gets another turn or if
 	 * the game should switch turns to the waiting player. 
 	 * 
-	 * @param pitNumber Must be between 1 and 6 inclusive. The pitNumber that
+	 * @param pitNumber Must be between 1 and the pits of the {@code Variant}
+	 *                  inclusive. The pitNumber that
 	 *                  represents the pit the current player wants to select to
 	 *                  distribute seeds on the board. This number is converted
 	 *                  to it's index value for accessing data in
@@ -45,27 +185,247 @@ public class Mancala {
 	 */
 
 	public void performTurn(int pitNumber) {
+		takeTurn(pitNumber);
+	}
+
+	/**
+	 * This method performs a turn like {@link #performTurn(int)} and tells
+	 * what it did.
+	 * 
+	 * @param pitNumber Must be between 1 and the pits of the {@code Variant}
+	 *                  inclusive. The pitNumber that represents the pit the
+	 *                  current player wants to select.
+	 * @return the {@code TurnResult}: whether the turn was played, where the
+	 *         last seed landed, what it captured, and whether the mover
+	 *         plays again or the game is over.
+	 */
+
+	public int takeTurn(int pitNumber) {
+		int result = lapSize == LAP_SIZE
+				? recordTurn(pitNumber, Side.STORE_INDEX)
+				: recordTurn(pitNumber, variant.getPits());
+		publish();
+		return result;
+	}
+
+	/**
+	 * This method performs the turns of {@code pitNumbers} one after the
+	 * other, stopping at the first one that cannot be played.
+	 * 
+	 * @param pitNumbers The pits to play, in order.
+	 * @param results    The array receiving the {@code TurnResult} of each
+	 *                   turn at the index of its pit, including the turn
+	 *                   that stopped the sequence, or null.
+	 * @return the number of turns played.
+	 */
+
+	public int performTurns(int[] pitNumbers, int[] results) {
+		return performTurns(pitNumbers, 0, pitNumbers.length, results);
+	}
+
+	/**
+	 * This method performs the turns of {@code pitNumbers} from index
+	 * {@code from} inclusive to {@code to} exclusive, like
+	 * {@link #performTurns(int[], int[])}. The board is looked at once for
+	 * the whole sequence rather than once per turn, and a
+	 * {@code BoardSnapshot} is published once, after the last turn.
+	 * 
+	 * @param pitNumbers The pits to play, in order.
+	 * @param from       The index of the first pit to play.
+	 * @param to         The index after the last pit to play.
+	 * @param results    The array receiving the {@code TurnResult} of each
+	 *                   turn at the index of its pit, or null.
+	 * @return the number of turns played.
+	 * @throws IndexOutOfBoundsException if the range does not fit in
+	 *                                   {@code pitNumbers} or
+	 *                                   {@code results}.
+	 */
+
+	public int performTurns(int[] pitNumbers, int from, int to,
+			int[] results) {
+		Objects.checkFromToIndex(from, to, pitNumbers.length);
+		if (results != null) {
+			Objects.checkFromToIndex(from, to, results.length);
+		}
+		int played = lapSize == LAP_SIZE
+				? performTurns(pitNumbers, from, to, results, Side.STORE_INDEX)
+				: performTurns(pitNumbers, from, to, results,
+						variant.getPits());
+		publish();
+		return played;
+	}
+
+	/*
+	 * Helper method: performTurns on a board of pits pits.
+	 */
+
+	private int performTurns(int[] pitNumbers, int from, int to,
+			int[] results, int pits) {
+		for (int i = from; i < to; i++) {
+			int result = recordTurn(pitNumbers[i], pits);
+			if (results != null) {
+				results[i] = result;
+			}
+			if ((result & TurnResult.PLAYED) == 0) {
+				return i - from;
+			}
+		}
+		return to - from;
+	}
+
+	/*
+	 * Helper method: takeTurn on a board of pits pits, timed by a TurnEvent
+	 * and followed by the TurnEvents it calls for while a flight recording
+	 * is running.
+	 */
+
+	private int recordTurn(int pitNumber, int pits) {
+		TurnEvents.TurnEvent event = new TurnEvents.TurnEvent();
+		event.begin();
+		Player mover = sideInPlay.getPlayer();
+		int result = takeTurn(pitNumber, pits);
+		event.end();
+		TurnEvents.commit(event, this, mover, pitNumber, result);
+		return result;
+	}
+
+	/*
+	 * Helper method: takeTurn on a board of pits pits.
+	 */
+
+	private int takeTurn(int pitNumber, int pits) {
 
 		pitIndex = pitNumber - 1;
 
 		if (gameOverConditionMet) {
 			// prompt for new game goes here
-			return;
+			return TurnResult.GAME_OVER;
 		}
 
 		if (!sideInPlay.isValidPit(pitIndex)) {
-			return;
+			return TurnResult.REJECTED;
 		}
 
 		removeSeedsFromPit();
 
-		Player playerWhoRcvdLastSeed = sowSeeds();
+		return finishTurn(pits);
+	}
+
+	/*
+	 * Helper method: to sow the collected seeds, settle the turn on a board
+	 * of pits pits and return its TurnResult. The standard board passes the
+	 * constant STORE_INDEX, so once this is inlined the JIT divides by
+	 * constants and compares against constants as it did before boards had
+	 * a variant.
+	 */
+
+	private int finishTurn(int pits) {
+		int lastSlot = sowingTable != null ? sowSeeds(sowingTable)
+				: sowSeeds(2 * pits + 1);
+		int captured = -1;
 
-		if (playerWhoRcvdLastSeed == getCurrentPlayer()) {
-			performLastSeedCurrentPlayerSide();
+		if (lastSlot <= pits) {
+			captured = performLastSeedCurrentPlayerSide(lastSlot, pits);
 		} else {
 			performLastSeedWaitingPlayerSide();
 		}
+		return TurnResult.played(lastSlot, captured,
+				lastSlot == pits && !gameOverConditionMet,
+				gameOverConditionMet);
+	}
+
+	/**
+	 * This method performs a turn like {@link #performTurn(int)} and records
+	 * everything needed to take it back with {@link #unmakeMove()}. The
+	 * record is pushed onto a preallocated primitive stack, so making and
+	 * unmaking moves does not allocate.
+	 * 
+	 * @param pitNumber Must be between 1 and the pits of the {@code Variant}
+	 *                  inclusive. The pitNumber that represents the pit the
+	 *                  current player wants to select.
+	 * @return True if the move was legal and made, False if the game is over
+	 *         or the pit is not a valid choice.
+	 */
+
+	public boolean makeMove(int pitNumber) {
+		if (gameOverConditionMet || !sideInPlay.isValidPit(pitNumber - 1)) {
+			return false;
+		}
+
+		if (lapSize == LAP_SIZE) {
+			makeMove(pitNumber, Side.STORE_INDEX);
+		} else {
+			makeMove(pitNumber, variant.getPits());
+		}
+		publish();
+		return true;
+	}
+
+	/*
+	 * Helper method: to push the undo record and perform the already
+	 * validated turn of pitNumber on a board of pits pits, dispatching on
+	 * the board once for both.
+	 */
+
+	private void makeMove(int pitNumber, int pits) {
+		pushUndoRecord(pits + 1);
+		pitIndex = pitNumber - 1;
+		removeSeedsFromPit();
+		finishTurn(pits);
+	}
+
+	/**
+	 * This method takes back the last move made with {@link #makeMove(int)},
+	 * restoring the exact previous state of the game.
+	 * 
+	 * @return True if a move was taken back, False if there was none.
+	 */
+
+	public boolean unmakeMove() {
+		if (undoTop == 0) {
+			return false;
+		}
+
+		popUndoRecord(lapSize / 2 + 1);
+		publish();
+		return true;
+	}
+
+	/*
+	 * Helper method: to push an undo record of the current state for rows of
+	 * rowSize slots. The standard board passes the constant ROW_SIZE, which
+	 * lets the JIT fold the offsets and the bounds checks of the record.
+	 */
+
+	private void pushUndoRecord(int rowSize) {
+		int recordSize = 2 * rowSize + 1;
+		if (undoTop + recordSize > undoStack.length) {
+			undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+		}
+		board[0].saveRow(undoStack, undoTop);
+		board[1].saveRow(undoStack, undoTop + rowSize);
+		undoStack[undoTop + 2 * rowSize] = (sideInPlay == board[1]
+				? UNDO_TWO_IN_PLAY
+				: 0) | (gameOverConditionMet ? UNDO_GAME_OVER : 0);
+		undoTop += recordSize;
+	}
+
+	/*
+	 * Helper method: to pop the last undo record, for rows of rowSize slots,
+	 * and restore the state it holds. The rows restore themselves with a
+	 * constant size on the standard board; dispatching here as well would
+	 * grow unmakeMove past what the JIT inlines into its callers.
+	 */
+
+	private void popUndoRecord(int rowSize) {
+		undoTop -= 2 * rowSize + 1;
+		board[0].restoreRow(undoStack, undoTop);
+		board[1].restoreRow(undoStack, undoTop + rowSize);
+		int flags = undoStack[undoTop + 2 * rowSize];
+		boolean twoInPlay = (flags & UNDO_TWO_IN_PLAY) != 0;
+		sideInPlay = twoInPlay ? board[1] : board[0];
+		sideWaiting = twoInPlay ? board[0] : board[1];
+		gameOverConditionMet = (flags & UNDO_GAME_OVER) != 0;
 	}
 
 	/*
@@ -80,88 +440,77 @@ public class Mancala {
 
 	/*
 	 * Helper method: to sow seeds onto the current player's board and then onto
-	 * the waiting player's side of the board, it returns the Player enumeration
-	 * value where the last seed landed.
+	 * the waiting player's side of the board. Full laps around the board are
+	 * added to every pit at once, skipping the waiting player's store, and
+	 * only the remainder is sown slot by slot. It returns the slot of the lap
+	 * where the last seed landed: 0 to 6 are the current player's row, 7 to 12
+	 * are the waiting player's pits, on the standard board where a lap is
+	 * lapSize = 13 slots.
 	 */
 
-	private Player sowSeeds() {
-		int indexOffset = Side.STORE_INDEX - pitIndex;
-		Player playerWhoRcvdLastSeed = getCurrentPlayer();
-		boolean ourMove = true;
-
-		if (indexOffset >= seedsToSow) {
-			sideInPlay.sowSeedsIntoPits(ourMove, seedsToSow);
-			seedsToSow = 0;
-			return playerWhoRcvdLastSeed;
+	private int sowSeeds(int lapSize) {
+		int pits = lapSize / 2;
+		int rowSize = pits + 1;
+		int remainder = seedsToSow % lapSize;
+		int laps = seedsToSow / lapSize;
+		sideInPlay.addSeedsToPits(laps, true, pits);
+		sideWaiting.addSeedsToPits(laps, false, pits);
+		seedsToSow = 0;
+
+		int start = pitIndex + 1; // first slot of the lap to get a seed
+		int end = start + remainder; // slot after the last one to get a seed
+		sideInPlay.sowSeedsIntoRange(start, Math.min(end, rowSize), pits);
+		if (end > rowSize) {
+			sideWaiting.sowSeedsIntoRange(0, Math.min(end, lapSize) - rowSize,
+					pits);
+		}
+		if (end > lapSize) {
+			sideInPlay.sowSeedsIntoRange(0, end - lapSize, pits);
 		}
 
-		sideInPlay.sowSeedsIntoPits(ourMove, indexOffset);
-		seedsToSow -= indexOffset;
-
-		playerWhoRcvdLastSeed = sowSeedsAroundTheBoardStartingWithOpponentSide();
-		return playerWhoRcvdLastSeed;
+		int landing = end - 1;
+		return landing >= lapSize ? landing - lapSize : landing;
 	}
 
 	/*
-	 * Helper method: to alternate the sowing of the seeds onto the waiting
-	 * players side and then onto current player's side. It tracks which player
-	 * received the last seed and returns the Player enumeration value where the
-	 * last seed landed.
-	 */
-
-	private Player sowSeedsAroundTheBoardStartingWithOpponentSide() {
-
-		Player playerWhoRcvdLastSeed = getCurrentPlayer();
-		boolean isOurTurn = true;
-
-		for (int i = 0; seedsToSow > 0; i++) {
-			if (i % NUM_PLAYERS == 0) { // waiting player side
-				int batchOfSeeds = Math.min(seedsToSow, Side.STORE_INDEX);
-				sideWaiting.sowSeedsIntoPits(!isOurTurn, batchOfSeeds);
-				playerWhoRcvdLastSeed = getWaitingPlayer();
-				seedsToSow -= batchOfSeeds;
-			} else { // current player side
-				int batchOfSeeds = Math.min(seedsToSow, Side.ROW_SIZE);
-				sideInPlay.sowSeedsIntoPits(isOurTurn, batchOfSeeds);
-				playerWhoRcvdLastSeed = getCurrentPlayer();
-				seedsToSow -= batchOfSeeds;
-			}
-		}
+	 * Helper method: sowSeeds with the precomputed laps, ranges and landing
+	 * slot of table. The three ranges are sown whether or not they are
+	 * empty, an empty one leaving its Side as it is.
+	 */
 
-		return playerWhoRcvdLastSeed;
+	private int sowSeeds(SowingTable table) {
+		int pits = lapSize / 2;
+		int laps = table.laps(seedsToSow);
+		int transition = table.transition(pitIndex,
+				table.remainder(seedsToSow));
+		sideInPlay.addSeedsToPits(laps, true, pits);
+		sideWaiting.addSeedsToPits(laps, false, pits);
+		seedsToSow = 0;
+
+		sideInPlay.sowSeedsIntoRange(pitIndex + 1,
+				SowingTable.mineEnd(transition), pits);
+		sideWaiting.sowSeedsIntoRange(0, SowingTable.theirsEnd(transition),
+				pits);
+		sideInPlay.sowSeedsIntoRange(0, SowingTable.wrapEnd(transition),
+				pits);
+		return SowingTable.landing(transition);
 	}
 
 	/*
 	 * Helper method: to capture seeds in that are in waiting player's pit when
 	 * the current player's last seed placed during a turn of game play lands on
-	 * current player's side in an empty pit.
-	 */
-
-	private void captureOpponentsSeeds(int lastPitIndex) {
-		int capturedSeeds = sideInPlay.collectSeedsFromPit(lastPitIndex);
-
-		switch (lastPitIndex) {
-		case 0:
-			capturedSeeds += sideWaiting.collectSeedsFromPit(5);
-			break;
-		case 1:
-			capturedSeeds += sideWaiting.collectSeedsFromPit(4);
-			break;
-		case 2:
-			capturedSeeds += sideWaiting.collectSeedsFromPit(3);
-			break;
-		case 3:
-			capturedSeeds += sideWaiting.collectSeedsFromPit(2);
-			break;
-		case 4:
-			capturedSeeds += sideWaiting.collectSeedsFromPit(1);
-			break;
-		case 5:
-			capturedSeeds += sideWaiting.collectSeedsFromPit(0);
-			break;
-		}
+	 * current player's side in an empty pit. The pit opposite pit i is the
+	 * waiting player's pit pits - 1 - i, looked up in the SowingTable when
+	 * there is one. It returns the waiting player's seeds captured.
+	 */
 
-		sideInPlay.addSeedsToStore(capturedSeeds);
+	private int captureOpponentsSeeds(int lastPitIndex, int pits) {
+		int capturedSeeds = sideWaiting.collectSeedsFromPit(
+				sowingTable != null ? sowingTable.opposite(lastPitIndex)
+						: pits - 1 - lastPitIndex);
+		sideInPlay.addSeedsToStore(
+				capturedSeeds + sideInPlay.collectSeedsFromPit(lastPitIndex));
+		return capturedSeeds;
 	}
 
 	/*
@@ -181,34 +530,36 @@ public class Mancala {
 
 	/*
 	 * Helper method: to handle the condition where the last seed placed during
-	 * a turn of game play lands on the current player's side.
+	 * a turn of game play lands on the current player's side. It returns the
+	 * waiting player's seeds captured, or -1 if there was no capture.
 	 */
 
-	private void performLastSeedCurrentPlayerSide() {
-
-		int lastPitIndex = sideInPlay.getActionIndex();
+	private int performLastSeedCurrentPlayerSide(int lastPitIndex,
+			int pits) {
 
 		// lands in store
-		if (lastPitIndex == Side.STORE_INDEX) {
+		if (lastPitIndex == pits) {
 			if (isGameOver()) {
 				performGameOver();
 			}
-			return; // current player gets another turn
+			return -1; // current player gets another turn
 		}
 
 		// lands in empty pit
 		else if (sideInPlay.getPitCount(lastPitIndex) == 1) {
-			captureOpponentsSeeds(lastPitIndex);
+			int captured = captureOpponentsSeeds(lastPitIndex, pits);
 			if (isGameOver()) {
 				performGameOver();
 			} else {
 				switchTurns();
 			}
+			return captured;
 		}
 
 		// lands in non-empty pit
 		else {
 			switchTurns();
+			return -1;
 		}
 
 	}
@@ -247,6 +598,26 @@ public class Mancala {
 				|| sideWaiting.getNumSeedsInPits() == 0;
 	}
 
+	/**
+	 * Accessor method to get the geometry of the board.
+	 * 
+	 * @return the {@code Variant} of this game.
+	 */
+
+	public Variant getVariant() {
+		return variant;
+	}
+
+	/**
+	 * Accessor method to get the way turns are sown.
+	 *
+	 * @return the {@code Engine} of this game.
+	 */
+
+	public Engine getEngine() {
+		return sowingTable != null ? Engine.TABLES : Engine.ARITHMETIC;
+	}
+
 	/**
 	 * Accessor method to get the current {@code Player} whose turn it is.
 	 * 
@@ -267,8 +638,97 @@ public class Mancala {
 		return sideWaiting.getPlayer();
 	}
 
+	/**
+	 * This method calculates the pits the current {@code Player} may choose.
+	 * 
+	 * @return a bit mask where bit {@code pitNumber - 1} is set when
+	 *         {@code pitNumber} is a valid choice; 0 once the game is over.
+	 */
+
+	public int getLegalMoves() {
+		if (gameOverConditionMet) {
+			return 0;
+		}
+		return lapSize == LAP_SIZE ? legalMoves(Side.STORE_INDEX)
+				: legalMoves(variant.getPits());
+	}
+
+	/*
+	 * Helper method: to collect the legal moves of pits pits, a constant on
+	 * the standard board.
+	 */
+
+	private int legalMoves(int pits) {
+		int moves = 0;
+		for (int i = 0; i < pits; i++) {
+			if (sideInPlay.isValidPit(i)) {
+				moves |= 1 << i;
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Accessor method to get whether the game is over.
+	 * 
+	 * @return True once the game over condition has been met.
+	 */
+
+	public boolean isGameOverConditionMet() {
+		return gameOverConditionMet;
+	}
+
+	/**
+	 * Accessor method to get the {@code Zobrist} hash of the position, which
+	 * covers every pit and store and the {@code Player} to move.
+	 * 
+	 * @return the hash of the position.
+	 */
+
+	public long getZobristKey() {
+		long key = board[0].getZobristKey() ^ board[1].getZobristKey();
+		return sideInPlay == board[1] ? key ^ Zobrist.SIDE_TO_MOVE : key;
+	}
+
+	/**
+	 * Accessor method to get the store seed count of {@code player}.
+	 * 
+	 * @param player The {@code Player} whose store is counted.
+	 * @return the number of seeds in the store of {@code player}.
+	 */
+
+	public int getStoreCount(Player player) {
+		return board[player.ordinal()].getStoreCount();
+	}
+
+	/**
+	 * Accessor method to get the number of seeds in the pits of
+	 * {@code player}.
+	 * 
+	 * @param player The {@code Player} whose pits are counted.
+	 * @return the number of seeds in the pits of {@code player}.
+	 */
+
+	public int getNumSeedsInPits(Player player) {
+		return board[player.ordinal()].getNumSeedsInPits();
+	}
+
+	/**
+	 * Accessor method to get the live {@code Side} of {@code player}, for
+	 * the search code of this package that must not allocate.
+	 * 
+	 * @param player The {@code Player} whose {@code Side} is wanted.
+	 * @return the {@code Side} of {@code player}.
+	 */
+
+	Side getSide(Player player) {
+		return board[player.ordinal()];
+	}
+
 	/**
 	 * This method returns a copy of the current {@code Side} whose turn it is.
+	 * The copy is shallow: its {@code Side}s are the live ones, so other
+	 * threads should read {@link #getSnapshot()} instead.
 	 * 
 	 * @return {@code Side}, the current {@code Side} of the {@code board}.
 	 */
@@ -277,6 +737,81 @@ public class Mancala {
 		return board.clone();
 	}
 
+	/**
+	 * This method makes the game publish a {@code BoardSnapshot} after every
+	 * change from now on: every turn, batch of turns, move made or unmade,
+	 * reset and load. Games that are only read by the thread playing them
+	 * need not call it and pay nothing for snapshots.
+	 * 
+	 * @return the snapshot of the current board.
+	 */
+
+	public BoardSnapshot publishSnapshots() {
+		publishing = true;
+		publish();
+		return snapshot;
+	}
+
+	/**
+	 * Accessor method to get the board as last published, from any thread
+	 * and without locking.
+	 * 
+	 * @return the latest {@code BoardSnapshot}, or null if
+	 *         {@link #publishSnapshots()} has not been called.
+	 */
+
+	public BoardSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/*
+	 * Helper method: to publish a snapshot of the board if snapshots were
+	 * asked for. The volatile write orders the snapshot's final fields
+	 * before any reader can see it.
+	 */
+
+	private void publish() {
+		if (publishing) {
+			snapshot = new BoardSnapshot(this);
+		}
+	}
+
+	/**
+	 * This method packs the current game into a {@code Position}.
+	 * 
+	 * @param state  The array receiving the position.
+	 * @param offset The index of the first word of the position.
+	 * @throws IllegalStateException if the board does not have six pits.
+	 */
+
+	public void toPosition(long[] state, int offset) {
+		checkPositionGeometry();
+		Position.pack(state, offset, board[0].getRow(), board[1].getRow(),
+				getCurrentPlayer(), gameOverConditionMet);
+	}
+
+	/*
+	 * Helper method: to fail unless the board has the six pits a Position
+	 * holds.
+	 */
+
+	private void checkPositionGeometry() {
+		if (variant.getPits() != Side.STORE_INDEX) {
+			throw new IllegalStateException(
+					variant + " does not fit in a Position");
+		}
+	}
+
+	/*
+	 * Helper method: to unpack the row of player from a packed Position.
+	 */
+
+	private static int[] unpackRow(long[] state, int offset, Player player) {
+		int[] row = new int[Side.ROW_SIZE];
+		Position.unpackRow(state, offset, player, row);
+		return row;
+	}
+
 	/**
 	 * Print method that prints the current {@code Mancala} {@code board}. If
 	 * the game is over, it also announces the {@code Player} that has won. If
@@ -284,18 +819,8 @@ public class Mancala {
 	 */
 
 	public void printCurrentGameStatus() {
-		Player playerToPrint = sideInPlay.getPlayer();
-		String msg = String.format("Player %s's turn.%n Current board:%n",
-				playerToPrint);
-		if (isGameOver()) {
-			playerToPrint = sideInPlay.getStoreCount() > sideWaiting
-					.getStoreCount() ? sideInPlay.getPlayer()
-							: sideWaiting.getPlayer();
-			msg = String.format("Player %s has won!!%n Final board: ",
-					playerToPrint);
-		}
-
-		System.out.println(String.format("%28s%n" + this.toString(), msg));
+		System.out.println(new BoardRenderer().renderStatus(this,
+				new StringBuilder(STATUS_CHARS)));
 	}
 
 	/**
@@ -309,21 +834,9 @@ public class Mancala {
 
 	@Override
 	public String toString() {
-		Player currentPlayer = sideInPlay.getPlayer();
-		int[] playerOneRow = currentPlayer == Player.One ? sideInPlay.getRow()
-				: sideWaiting.getRow();
-		int[] playerTwoRow = currentPlayer == Player.Two ? sideInPlay.getRow()
-				: sideWaiting.getRow();
-		String filler = "---------------------------";
-		String middleFiller = "|=================|";
-		return String.format(
-				"%s%n" + "|   |%2d|%2d|%2d|%2d|%2d|%2d|   |%n" + "|%3d%s%3d|%n"
-						+ "|   |%2d|%2d|%2d|%2d|%2d|%2d|   |%n" + "%s%n",
-				filler, playerTwoRow[5], playerTwoRow[4], playerTwoRow[3],
-				playerTwoRow[2], playerTwoRow[1], playerTwoRow[0],
-				playerTwoRow[6], middleFiller, playerOneRow[6], playerOneRow[0],
-				playerOneRow[1], playerOneRow[2], playerOneRow[3],
-				playerOneRow[4], playerOneRow[5], filler);
+		return new BoardRenderer()
+				.render(Format.TEXT, this, new StringBuilder(BOARD_CHARS))
+				.toString();
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+/**
+ * {@code MatchStats} holds the results of one pairing of a
+ * {@code Tournament}, from the point of view of its first player: the games
+ * won, drawn and lost, the pentanomial of the pairs of games played from the
+ * same opening, the Elo difference they measure with its 95% confidence
+ * interval, and the verdict of the {@code Sprt}, if there was one.
+ * <p>
+ * The confidence interval comes from the variance of the pair scores rather
+ * than of single games, so the agreement of the two games of a pair, which
+ * shared an opening, does not make the interval look narrower than it is.
+ */
+
+public final class MatchStats {
+
+	private static final double Z_95 = 1.959964; // two-sided 95% quantile.
+	private final String player; // the player the stats are for.
+	private final String opponent; // the other player.
+	private final long wins; // games won by player.
+	private final long draws; // games drawn.
+	private final long losses; // games lost by player.
+	private final long[] pentanomial; // pairs scoring 0 to 2 by halves.
+	private final Sprt.Verdict verdict; // the SPRT verdict, or null.
+
+	/**
+	 * Constructs a new instance of {@code MatchStats}.
+	 *
+	 * @param player      The name of the player the stats are for.
+	 * @param opponent    The name of the other player.
+	 * @param wins        The games won by {@code player}.
+	 * @param draws       The games drawn.
+	 * @param losses      The games lost by {@code player}.
+	 * @param pentanomial The pairs in which {@code player} scored 0, 0.5, 1,
+	 *                    1.5 and 2 points, copied.
+	 * @param verdict     The {@code Sprt.Verdict}, or null without a test.
+	 */
+	public MatchStats(String player, String opponent, long wins, long draws,
+			long losses, long[] pentanomial, Sprt.Verdict verdict) {
+		this.player = player;
+		this.opponent = opponent;
+		this.wins = wins;
+		this.draws = draws;
+		this.losses = losses;
+		this.pentanomial = pentanomial.clone();
+		this.verdict = verdict;
+	}
+
+	/**
+	 * Accessor method to get the player the stats are for.
+	 *
+	 * @return the name of the player.
+	 */
+	public String getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Accessor method to get the other player.
+	 *
+	 * @return the name of the opponent.
+	 */
+	public String getOpponent() {
+		return opponent;
+	}
+
+	/**
+	 * Accessor method to get the games won.
+	 *
+	 * @return the games won by the player.
+	 */
+	public long getWins() {
+		return wins;
+	}
+
+	/**
+	 * Accessor method to get the games drawn.
+	 *
+	 * @return the number of draws.
+	 */
+	public long getDraws() {
+		return draws;
+	}
+
+	/**
+	 * Accessor method to get the games lost.
+	 *
+	 * @return the games lost by the player.
+	 */
+	public long getLosses() {
+		return losses;
+	}
+
+	/**
+	 * Accessor method to get the number of games played.
+	 *
+	 * @return the wins, draws and losses.
+	 */
+	public long getGames() {
+		return wins + draws + losses;
+	}
+
+	/**
+	 * Accessor method to get the pentanomial of the pairs of games.
+	 *
+	 * @return a copy of the pairs in which the player scored 0, 0.5, 1, 1.5
+	 *         and 2 points.
+	 */
+	public long[] getPentanomial() {
+		return pentanomial.clone();
+	}
+
+	/**
+	 * Accessor method to get the verdict of the {@code Sprt}.
+	 *
+	 * @return the verdict, or null if the pairing was not tested.
+	 */
+	public Sprt.Verdict getVerdict() {
+		return verdict;
+	}
+
+	/**
+	 * This method calculates the score of the player per game.
+	 *
+	 * @return the points per game, between 0 and 1, or 0.5 before any game.
+	 */
+	public double getScore() {
+		long games = getGames();
+		return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+	}
+
+	/**
+	 * This method calculates the Elo difference the games measure.
+	 *
+	 * @return the Elo of the player less that of the opponent, infinite if
+	 *         one of them scored every point.
+	 */
+	public double getElo() {
+		return Sprt.elo(getScore());
+	}
+
+	/**
+	 * This method calculates the Elo difference at the bottom of the 95%
+	 * confidence interval.
+	 *
+	 * @return the lower bound of the Elo difference.
+	 */
+	public double getEloLower() {
+		return Sprt.elo(Math.max(0, getScore() - Z_95 * scoreError()));
+	}
+
+	/**
+	 * This method calculates the Elo difference at the top of the 95%
+	 * confidence interval.
+	 *
+	 * @return the upper bound of the Elo difference.
+	 */
+	public double getEloUpper() {
+		return Sprt.elo(Math.min(1, getScore() + Z_95 * scoreError()));
+	}
+
+	/*
+	 * Helper method: to get the standard error of the score per game, from
+	 * the variance of the pair scores.
+	 */
+
+	private double scoreError() {
+		long pairs = 0;
+		double mean = 0;
+		for (int k = 0; k < Sprt.PAIR_SCORES; k++) {
+			pairs += pentanomial[k];
+			mean += pentanomial[k] * k / 4.0;
+		}
+		if (pairs < 2) {
+			return 0.5; // nothing is known yet
+		}
+		mean /= pairs;
+		double variance = 0;
+		for (int k = 0; k < Sprt.PAIR_SCORES; k++) {
+			double deviation = k / 4.0 - mean;
+			variance += pentanomial[k] * deviation * deviation;
+		}
+		return Math.sqrt(variance / (pairs - 1) / pairs);
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"%s vs %s: +%d =%d -%d, score %.3f, elo %+.1f [%+.1f, %+.1f]%s",
+				player, opponent, wins, draws, losses, getScore(), getElo(),
+				getEloLower(), getEloUpper(),
+				verdict == null ? "" : ", " + verdict);
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+/**
+ * {@code MonteCarloResult} holds the outcome of a {@code MonteCarloSearch}.
+ *
+ */
+
+public final class MonteCarloResult {
+
+	private final int bestPit; // the pit number to play, 0 if none.
+	private final double winRate; // results of bestPit for the mover.
+	private final long playouts; // playouts over all threads.
+	private final long nodes; // nodes over all trees.
+	private final long elapsedNanos; // the wall-clock time of the search.
+
+	/**
+	 * Constructs a new instance of {@code MonteCarloResult}.
+	 *
+	 * @param bestPit      The pit number to play, 0 if there is none.
+	 * @param winRate      The mean result of {@code bestPit}, between 0 and 1.
+	 * @param playouts     The playouts over all threads.
+	 * @param nodes        The nodes over all trees.
+	 * @param elapsedNanos The wall-clock time of the search.
+	 */
+	public MonteCarloResult(int bestPit, double winRate, long playouts,
+			long nodes, long elapsedNanos) {
+		this.bestPit = bestPit;
+		this.winRate = winRate;
+		this.playouts = playouts;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Accessor method to get the most visited pit number.
+	 *
+	 * @return the pit number to play, or 0 if the game is over.
+	 */
+	public int getBestPit() {
+		return bestPit;
+	}
+
+	/**
+	 * Accessor method to get the mean result of the best pit for the
+	 * {@code Player} to move, a win counting 1 and a draw one half.
+	 *
+	 * @return the win rate of the best pit.
+	 */
+	public double getWinRate() {
+		return winRate;
+	}
+
+	/**
+	 * Accessor method to get the number of playouts run.
+	 *
+	 * @return the playouts over all threads.
+	 */
+	public long getPlayouts() {
+		return playouts;
+	}
+
+	/**
+	 * Accessor method to get the number of nodes in the trees.
+	 *
+	 * @return the nodes over all trees.
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Accessor method to get the memory taken by the nodes of the trees.
+	 *
+	 * @return the bytes used by the nodes.
+	 */
+	public long getNodeBytes() {
+		return nodes * MonteCarloSearch.BYTES_PER_NODE;
+	}
+
+	/**
+	 * Accessor method to get the wall-clock time of the search.
+	 *
+	 * @return the elapsed time in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Accessor method to get the speed of the search.
+	 *
+	 * @return the number of playouts per second.
+	 */
+	public long getPlayoutsPerSecond() {
+		// in double, as playouts * 10^9 overflows past about 9.2e9 playouts
+		return elapsedNanos == 0 ? 0
+				: (long) (playouts / (elapsedNanos / 1e9));
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"pit %d win rate %.3f, %d playouts (%d/s), %d nodes of %d "
+						+ "bytes",
+				bestPit, winRate, playouts, getPlayoutsPerSecond(), nodes,
+				MonteCarloSearch.BYTES_PER_NODE);
+	}
+}
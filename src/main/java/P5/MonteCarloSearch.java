@@ -0,0 +1,315 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import P5.Side.Player;
+
+/**
+ * {@code MonteCarloSearch} chooses moves with Monte Carlo Tree Search: UCT
+ * selection, expansion of every move of a leaf at once, one random playout
+ * from the new leaf and back propagation of its result. A win counts 1, a
+ * draw one half.
+ * <p>
+ * The trees are not made of node objects. Every node is a slot in a few
+ * primitive arrays holding its packed {@code Position}, visits, wins, parent
+ * and children, allocated once per thread and reused by every search; see
+ * {@link #BYTES_PER_NODE}. Playouts run on a scratch {@code Position} with
+ * {@link Position#applyMove(long[], int, long[], int, int)}, so a search does
+ * not allocate after it starts.
+ * <p>
+ * Because every node is a {@code Position}, only games with the six pits of
+ * the standard board and at most {@link Position#MAX_SEEDS} seeds can be
+ * searched, at most 21 seeds per pit to start with.
+ * <p>
+ * Playouts run in parallel on a {@code ForkJoinPool} by root
+ * parallelisation: every thread grows its own tree from the same root, and
+ * the visits and wins of the moves at the root are added up at the end. The
+ * threads share nothing while they search.
+ */
+
+public class MonteCarloSearch implements AutoCloseable {
+
+	// memory per node: position, visits, wins, parent, first child, counts.
+	public static final int BYTES_PER_NODE = Position.WORDS * Long.BYTES
+			+ Integer.BYTES + Double.BYTES + 2 * Integer.BYTES + 2;
+	private static final double EXPLORATION = Math.sqrt(2); // UCT constant.
+	private static final int CLOCK_INTERVAL = 256; // playouts between checks.
+	private final Tree[] trees; // one per thread.
+	private final ForkJoinPool pool; // runs one tree per thread.
+
+	/**
+	 * Constructs a new instance of {@code MonteCarloSearch} searching on
+	 * {@code threads} threads with at most {@code maxNodes} nodes in the tree
+	 * of each one.
+	 *
+	 * @param threads  The number of threads, at least 1.
+	 * @param maxNodes The capacity of each tree, at least 7.
+	 * @throws IllegalArgumentException if either value is too small.
+	 */
+	public MonteCarloSearch(int threads, int maxNodes) {
+		if (threads < 1 || maxNodes <= Side.STORE_INDEX) {
+			throw new IllegalArgumentException(
+					"Too few threads or nodes: " + threads + ", " + maxNodes);
+		}
+		SplittableRandom random = new SplittableRandom();
+		this.trees = new Tree[threads];
+		for (int i = 0; i < threads; i++) {
+			trees[i] = new Tree(maxNodes, random.split());
+		}
+		this.pool = new ForkJoinPool(threads);
+	}
+
+	/**
+	 * This method searches {@code game} until {@code maxPlayouts} playouts
+	 * have been run or {@code maxMillis} milliseconds have passed. The game
+	 * is not changed.
+	 *
+	 * @param game        The game to search, with the {@code Player} to move.
+	 * @param maxPlayouts The number of playouts over all threads.
+	 * @param maxMillis   The wall-clock time allowed, Long.MAX_VALUE for no
+	 *                    limit.
+	 * @return the move with the most visits over all threads.
+	 * @throws IllegalStateException    if the game does not have six pits.
+	 * @throws IllegalArgumentException if the board holds more than
+	 *                                  {@link Position#MAX_SEEDS} seeds.
+	 */
+	public MonteCarloResult search(Mancala game, long maxPlayouts,
+			long maxMillis) {
+		long start = System.nanoTime();
+		// capped so that the deadline cannot overflow
+		long deadline = start
+				+ Math.min(maxMillis, Long.MAX_VALUE / 4_000_000) * 1_000_000;
+		long[] root = new long[Position.WORDS];
+		game.toPosition(root, 0);
+
+		List<Callable<Long>> tasks = new ArrayList<>();
+		for (int i = 0; i < trees.length; i++) {
+			Tree tree = trees[i];
+			long share = maxPlayouts / trees.length
+					+ (i < maxPlayouts % trees.length ? 1 : 0);
+			tasks.add(() -> tree.search(root, share, deadline));
+		}
+		long playouts = 0;
+		for (Future<Long> future : pool.invokeAll(tasks)) {
+			playouts += waitFor(future);
+		}
+
+		long[] visits = new long[Side.STORE_INDEX + 1];
+		double[] wins = new double[Side.STORE_INDEX + 1];
+		long nodes = 0;
+		for (Tree tree : trees) {
+			tree.addRootMoves(visits, wins);
+			nodes += tree.size;
+		}
+		int bestPit = 0;
+		for (int pitNumber = 1; pitNumber <= Side.STORE_INDEX; pitNumber++) {
+			if (visits[pitNumber] > visits[bestPit]) {
+				bestPit = pitNumber;
+			}
+		}
+		double winRate = bestPit == 0 ? 0 : wins[bestPit] / visits[bestPit];
+		return new MonteCarloResult(bestPit, winRate, playouts, nodes,
+				System.nanoTime() - start);
+	}
+
+	/**
+	 * This method stops the threads.
+	 */
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	/*
+	 * Helper method: to wait for the playout count of a thread.
+	 */
+
+	private static long waitFor(Future<Long> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted during search", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Playouts failed", e.getCause());
+		}
+	}
+
+	/*
+	 * The search tree of one thread, one array element per node. Node 0 is
+	 * the root and the children of a node are consecutive.
+	 */
+
+	private static final class Tree {
+		private final long[] positions; // packed positions, WORDS per node.
+		private final int[] visits; // playouts through each node.
+		private final double[] wins; // results for the player who moved.
+		private final int[] parent; // parent node, -1 for the root.
+		private final int[] firstChild; // first child, -1 if not expanded.
+		private final byte[] childCount; // number of children.
+		private final byte[] move; // pit number leading to each node.
+		private final long[] scratch = new long[Position.WORDS]; // playouts.
+		private final SplittableRandom random; // used by this thread only.
+		private int size; // nodes in use.
+
+		private Tree(int maxNodes, SplittableRandom random) {
+			this.positions = new long[maxNodes * Position.WORDS];
+			this.visits = new int[maxNodes];
+			this.wins = new double[maxNodes];
+			this.parent = new int[maxNodes];
+			this.firstChild = new int[maxNodes];
+			this.childCount = new byte[maxNodes];
+			this.move = new byte[maxNodes];
+			this.random = random;
+		}
+
+		/*
+		 * Helper method: to run playouts from root until there have been
+		 * maxPlayouts of them or the deadline has passed, returning their
+		 * number.
+		 */
+
+		private long search(long[] root, long maxPlayouts, long deadline) {
+			System.arraycopy(root, 0, positions, 0, Position.WORDS);
+			size = 1;
+			clear(0, -1);
+			long playouts = 0;
+			while (playouts < maxPlayouts) {
+				if (playouts % CLOCK_INTERVAL == 0 && playouts > 0
+						&& System.nanoTime() - deadline > 0) {
+					break;
+				}
+				int node = 0;
+				while (firstChild[node] >= 0) {
+					node = select(node);
+				}
+				if ((visits[node] > 0 || node == 0) && expand(node)) {
+					node = firstChild[node];
+				}
+				backPropagate(node, playout(node));
+				playouts++;
+			}
+			return playouts;
+		}
+
+		/*
+		 * Helper method: to choose the child of node with the best upper
+		 * confidence bound, or its first child not yet visited.
+		 */
+
+		private int select(int node) {
+			double logVisits = Math.log(visits[node]);
+			int best = -1;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			int end = firstChild[node] + childCount[node];
+			for (int child = firstChild[node]; child < end; child++) {
+				if (visits[child] == 0) {
+					return child;
+				}
+				double value = wins[child] / visits[child] + EXPLORATION
+						* Math.sqrt(logVisits / visits[child]);
+				if (value > bestValue) {
+					bestValue = value;
+					best = child;
+				}
+			}
+			return best;
+		}
+
+		/*
+		 * Helper method: to add a child for every legal move of node, if the
+		 * tree has room. It returns whether children were added.
+		 */
+
+		private boolean expand(int node) {
+			int moves = Position.legalMoves(positions, node * Position.WORDS);
+			int count = Integer.bitCount(moves);
+			if (count == 0 || size + count > visits.length) {
+				return false;
+			}
+			firstChild[node] = size;
+			childCount[node] = (byte) count;
+			for (; moves != 0; moves &= moves - 1) {
+				int pitNumber = Integer.numberOfTrailingZeros(moves) + 1;
+				Position.applyMove(positions, node * Position.WORDS,
+						positions, size * Position.WORDS, pitNumber);
+				clear(size, node);
+				move[size] = (byte) pitNumber;
+				size++;
+			}
+			return true;
+		}
+
+		/*
+		 * Helper method: to play random moves from node to the end of the
+		 * game and return the result for Player.One.
+		 */
+
+		private double playout(int node) {
+			System.arraycopy(positions, node * Position.WORDS, scratch, 0,
+					Position.WORDS);
+			int moves;
+			while ((moves = Position.legalMoves(scratch, 0)) != 0) {
+				Position.applyMove(scratch, 0, scratch, 0,
+						MoveSelector.randomPit(moves, random));
+			}
+			int margin = Position.seedCount(scratch, 0, Player.One,
+					Side.STORE_INDEX)
+					- Position.seedCount(scratch, 0, Player.Two,
+							Side.STORE_INDEX);
+			return margin > 0 ? 1 : margin < 0 ? 0 : 0.5;
+		}
+
+		/*
+		 * Helper method: to add the result for Player.One to node and its
+		 * ancestors, each scored for the player who moved into it.
+		 */
+
+		private void backPropagate(int node, double resultOne) {
+			for (; node > 0; node = parent[node]) {
+				Player mover = Position.sideToMove(positions,
+						parent[node] * Position.WORDS);
+				visits[node]++;
+				wins[node] += mover == Player.One ? resultOne : 1 - resultOne;
+			}
+			visits[0]++;
+		}
+
+		/*
+		 * Helper method: to add the visits and wins of every move at the
+		 * root, indexed by pit number.
+		 */
+
+		private void addRootMoves(long[] rootVisits, double[] rootWins) {
+			int end = firstChild[0] + childCount[0];
+			for (int child = firstChild[0]; child >= 0 && child < end;
+					child++) {
+				rootVisits[move[child]] += visits[child];
+				rootWins[move[child]] += wins[child];
+			}
+		}
+
+		/*
+		 * Helper method: to reset the statistics of node, a child of parent.
+		 */
+
+		private void clear(int node, int parentNode) {
+			visits[node] = 0;
+			wins[node] = 0;
+			parent[node] = parentNode;
+			firstChild[node] = -1;
+			childCount[node] = 0;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import P5.Side.Player;
+
+/**
+ * {@code MoveSelector} chooses the pit for the {@code Player} to move during
+ * self-play. A selector is used by one thread only, so it may keep state such
+ * as a {@code SearchEngine} between calls, but it forgets that state in
+ * {@link #newGame()} so that each game is played the same however many
+ * games came before it on the thread.
+ */
+
+@FunctionalInterface
+public interface MoveSelector {
+
+	/**
+	 * This method chooses a move for the current {@code Player} of
+	 * {@code game}, which is not over. The game must be left in the state it
+	 * was given in.
+	 *
+	 * @param game   The game to choose a move in.
+	 * @param random The random numbers of the calling thread.
+	 * @return a pit number between 1 and the pits of the game's
+	 *         {@code Variant} inclusive that is a legal move.
+	 */
+	int selectMove(Mancala game, SplittableRandom random);
+
+	/**
+	 * This method is called before the first move of every game, to forget
+	 * what was learned in earlier games. It does nothing by default.
+	 */
+	default void newGame() {
+	}
+
+	/**
+	 * This method returns a selector that plays uniformly random legal moves.
+	 *
+	 * @return the random selector.
+	 */
+	static MoveSelector random() {
+		return (game, random) -> randomPit(game.getLegalMoves(), random);
+	}
+
+	/**
+	 * This method picks one of the pits of {@code moves} uniformly at
+	 * random, as the random selector does. It also serves code that has a
+	 * {@code Position} or a {@code GameBatch} rather than a {@code Mancala}.
+	 *
+	 * @param moves  A non-zero bit mask of legal pits, bit
+	 *               {@code pitNumber - 1} for each, as returned by
+	 *               {@link Mancala#getLegalMoves()}.
+	 * @param random The random numbers to use.
+	 * @return the chosen pit number.
+	 */
+	static int randomPit(int moves, RandomGenerator random) {
+		for (int skip = random.nextInt(Integer.bitCount(moves)); skip > 0;
+				skip--) {
+			moves &= moves - 1; // drop the lowest legal pit
+		}
+		return Integer.numberOfTrailingZeros(moves) + 1;
+	}
+
+	/**
+	 * This method returns a selector that plays the move leaving the mover's
+	 * store furthest ahead of the other store after that move alone, the pit
+	 * closest to the store on a tie.
+	 *
+	 * @return the greedy selector.
+	 */
+	static MoveSelector greedy() {
+		return (game, random) -> {
+			Player mover = game.getCurrentPlayer();
+			Player opponent = mover == Player.One ? Player.Two : Player.One;
+			int moves = game.getLegalMoves();
+			int bestPit = 0;
+			int best = Integer.MIN_VALUE;
+			for (int pitNumber = game.getVariant()
+					.getPits(); pitNumber >= 1; pitNumber--) {
+				if ((moves & 1 << pitNumber - 1) == 0) {
+					continue;
+				}
+				game.makeMove(pitNumber);
+				int margin = game.getStoreCount(mover)
+						- game.getStoreCount(opponent);
+				game.unmakeMove();
+				if (margin > best) {
+					best = margin;
+					bestPit = pitNumber;
+				}
+			}
+			return bestPit;
+		};
+	}
+
+	/**
+	 * This method returns a selector that plays the best move found by its
+	 * own {@code SearchEngine} searching {@code depth} plies. The engine's
+	 * {@code TranspositionTable} is kept between the moves of a game and
+	 * cleared by {@link #newGame()}.
+	 *
+	 * @param depth     The depth of every search.
+	 * @param megabytes The size of the engine's {@code TranspositionTable}.
+	 * @return the engine selector.
+	 */
+	static MoveSelector engine(int depth, int megabytes) {
+		TranspositionTable table = new TranspositionTable(megabytes);
+		SearchEngine engine = new SearchEngine(table);
+		return new MoveSelector() {
+			@Override
+			public int selectMove(Mancala game, SplittableRandom random) {
+				return engine.search(game, depth, Long.MAX_VALUE).getBestPit();
+			}
+
+			@Override
+			public void newGame() {
+				table.clear();
+			}
+		};
+	}
+}
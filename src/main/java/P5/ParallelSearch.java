@@ -0,0 +1,142 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@code ParallelSearch} searches one position on several threads with the
+ * lazy SMP scheme. Every thread runs its own {@code SearchEngine} on its own
+ * copy of the game, and all of them share one lock-free
+ * {@code TranspositionTable}. Helper threads search one ply ahead on every
+ * other thread, filling the table with results the main thread then finds.
+ * The result is that of the calling thread, which is the main thread.
+ * <p>
+ * After every search the speed of each thread is available from
+ * {@link #getNodesPerSecondPerThread()} to check how the search scales.
+ */
+
+public class ParallelSearch implements AutoCloseable {
+
+	private final TranspositionTable table; // shared by every thread.
+	private final SearchEngine[] engines; // engines[0] is the main thread's.
+	private final ExecutorService helpers; // runs engines[1] onwards.
+	private long[] nodesPerSecond = new long[0]; // per thread, last search.
+
+	/**
+	 * Constructs a new instance of {@code ParallelSearch} using
+	 * {@code threads} threads, the calling thread included.
+	 *
+	 * @param threads The number of searching threads, at least 1.
+	 * @param table   The {@code TranspositionTable} every thread shares.
+	 * @throws IllegalArgumentException if {@code threads} is less than 1.
+	 */
+	public ParallelSearch(int threads, TranspositionTable table) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"At least one thread is needed: " + threads);
+		}
+		this.table = table;
+		this.engines = new SearchEngine[threads];
+		for (int i = 0; i < threads; i++) {
+			engines[i] = new SearchEngine(table);
+			engines[i].setStartsNewSearch(false);
+			engines[i].setDepthOffset(i % 2);
+		}
+		this.helpers = threads == 1 ? null
+				: Executors.newFixedThreadPool(threads - 1, runnable -> {
+					Thread thread = new Thread(runnable, "mancala-search");
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * This method searches {@code game} on every thread and returns the
+	 * result of the main thread, with the nodes of all threads added up. The
+	 * game is left in the state it was given in.
+	 *
+	 * @param game     The game to search, with the {@code Player} to move.
+	 * @param maxDepth The deepest iteration of the main thread.
+	 * @param maxNodes The number of nodes after which the main thread stops.
+	 * @return the result of the main thread.
+	 */
+	public SearchResult search(Mancala game, int maxDepth, long maxNodes) {
+		table.newSearch();
+		List<Future<SearchResult>> futures = new ArrayList<>();
+		for (int i = 1; i < engines.length; i++) {
+			SearchEngine engine = engines[i];
+			// a helper that finished before it was stopped last time would
+			// otherwise cut this search off after its first iteration
+			engine.clearStop();
+			Mancala copy = new Mancala(game);
+			futures.add(helpers.submit(
+					() -> engine.search(copy, maxDepth, Long.MAX_VALUE)));
+		}
+
+		SearchResult main = engines[0].search(game, maxDepth, maxNodes);
+
+		long[] speeds = new long[engines.length];
+		speeds[0] = main.getNodesPerSecond();
+		long nodes = main.getNodes();
+		for (int i = 1; i < engines.length; i++) {
+			if (!futures.get(i - 1).isDone()) {
+				engines[i].stop();
+			}
+		}
+		for (int i = 1; i < engines.length; i++) {
+			SearchResult helper = waitFor(futures.get(i - 1));
+			speeds[i] = helper.getNodesPerSecond();
+			nodes += helper.getNodes();
+		}
+		nodesPerSecond = speeds;
+
+		return new SearchResult(main.getBestPit(), main.getScore(),
+				main.getDepth(), nodes, main.getElapsedNanos(),
+				main.getPrincipalVariation());
+	}
+
+	/**
+	 * Accessor method to get the speed of every thread during the last
+	 * search. Index 0 is the main thread.
+	 *
+	 * @return a copy of the nodes searched per second by each thread.
+	 */
+	public long[] getNodesPerSecondPerThread() {
+		return nodesPerSecond.clone();
+	}
+
+	/**
+	 * This method stops the helper threads.
+	 */
+	@Override
+	public void close() {
+		if (helpers != null) {
+			helpers.shutdownNow();
+		}
+	}
+
+	/*
+	 * Helper method: to wait for a helper thread to finish its search.
+	 */
+
+	private static SearchResult waitFor(Future<SearchResult> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted during search", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Helper search failed",
+					e.getCause());
+		}
+	}
+}
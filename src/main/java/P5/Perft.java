@@ -0,0 +1,153 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import P5.Side.Player;
+
+/**
+ * {@code Perft} counts the positions reached by every sequence of exactly
+ * {@code depth} legal moves, to check that a move generator plays the same
+ * game as {@link Mancala#performTurn(int)} and to measure its speed with one
+ * number. A move that earns an extra turn is one ply like any other, and a
+ * game that ends before {@code depth} moves adds nothing, as in chess perft.
+ * <p>
+ * {@link #KNOWN_COUNTS} holds the counts from the opening position; any
+ * change to sowing, captures or the end of the game changes them.
+ * <p>
+ * Usage: {@code java P5.Perft <depth> [<14 seed counts> <One|Two>]}, where
+ * the seed counts are the row of {@code Player.One} then that of
+ * {@code Player.Two}, stores last.
+ */
+
+public final class Perft {
+
+	// perft of the opening position, index is the depth.
+	public static final long[] KNOWN_COUNTS = { 1L, 6L, 35L, 185L, 942L,
+			4_685L, 23_169L, 113_959L, 559_885L, 2_743_126L, 13_394_138L,
+			65_110_546L, 314_268_190L };
+
+	private Perft() {
+	}
+
+	/**
+	 * Runs perft from the command line, printing the count below every move
+	 * and the speed.
+	 *
+	 * @param args The depth, then optionally a position.
+	 */
+	public static void main(String[] args) {
+		if (args.length != 1 && args.length != 2 * Side.ROW_SIZE + 2) {
+			System.err.println(
+					"Usage: Perft <depth> [<14 seed counts> <One|Two>]");
+			return;
+		}
+		int depth = Integer.parseInt(args[0]);
+		if (depth < 1) {
+			System.err.println("Perft: the depth must be at least 1");
+			return;
+		}
+		Mancala game = new Mancala();
+		if (args.length > 1) {
+			int[][] rows = new int[2][Side.ROW_SIZE];
+			for (int i = 0; i < 2 * Side.ROW_SIZE; i++) {
+				rows[i / Side.ROW_SIZE][i % Side.ROW_SIZE] = Integer
+						.parseInt(args[i + 1]);
+			}
+			long[] state = new long[Position.WORDS];
+			Position.pack(state, 0, rows[0], rows[1],
+					Player.valueOf(args[args.length - 1]), false);
+			game = new Mancala(state, 0);
+		}
+
+		long start = System.nanoTime();
+		long[] counts = divide(game, depth);
+		long elapsed = System.nanoTime() - start;
+		long total = 0;
+		for (int pitNumber = 1; pitNumber <= Side.STORE_INDEX; pitNumber++) {
+			if (counts[pitNumber] != 0) {
+				System.out.printf("%d: %d%n", pitNumber, counts[pitNumber]);
+				total += counts[pitNumber];
+			}
+		}
+		System.out.printf("Nodes: %d%nTime: %d ms%nNodes/s: %d%n", total,
+				elapsed / 1_000_000,
+				elapsed == 0 ? 0 : (long) (total / (elapsed / 1e9)));
+	}
+
+	/**
+	 * This method counts the positions {@code depth} moves after
+	 * {@code game} using {@link Mancala#makeMove(int)} and
+	 * {@link Mancala#unmakeMove()}. The game is left in the state it was
+	 * given in.
+	 *
+	 * @param game  The game to start from.
+	 * @param depth The number of moves, at least 0.
+	 * @return the number of positions.
+	 */
+	public static long perft(Mancala game, int depth) {
+		int moves = game.getLegalMoves();
+		if (depth <= 1) {
+			return depth == 0 ? 1 : Integer.bitCount(moves);
+		}
+		long nodes = 0;
+		for (; moves != 0; moves &= moves - 1) {
+			game.makeMove(Integer.numberOfTrailingZeros(moves) + 1);
+			nodes += perft(game, depth - 1);
+			game.unmakeMove();
+		}
+		return nodes;
+	}
+
+	/**
+	 * This method counts the positions {@code depth} moves after the
+	 * {@code Position} at {@code offset} using
+	 * {@link Position#applyMove(long[], int, long[], int, int)}. The words
+	 * after the position, {@code depth} positions of them, are overwritten.
+	 *
+	 * @param state  The array holding the position, with room for
+	 *               {@code depth} more.
+	 * @param offset The index of the first word of the position.
+	 * @param depth  The number of moves, at least 0.
+	 * @return the number of positions.
+	 */
+	public static long perft(long[] state, int offset, int depth) {
+		int moves = Position.legalMoves(state, offset);
+		if (depth <= 1) {
+			return depth == 0 ? 1 : Integer.bitCount(moves);
+		}
+		long nodes = 0;
+		int child = offset + Position.WORDS;
+		for (; moves != 0; moves &= moves - 1) {
+			Position.applyMove(state, offset, state, child,
+					Integer.numberOfTrailingZeros(moves) + 1);
+			nodes += perft(state, child, depth - 1);
+		}
+		return nodes;
+	}
+
+	/**
+	 * This method counts the positions {@code depth} moves after
+	 * {@code game} separately below each of its moves.
+	 *
+	 * @param game  The game to start from.
+	 * @param depth The number of moves, at least 1.
+	 * @return the counts, index is the pit number; 0 for illegal pits.
+	 * @throws IllegalArgumentException if {@code depth} is less than 1.
+	 */
+	public static long[] divide(Mancala game, int depth) {
+		if (depth < 1) {
+			throw new IllegalArgumentException("Invalid depth: " + depth);
+		}
+		long[] counts = new long[Side.STORE_INDEX + 1];
+		for (int pitNumber = 1; pitNumber <= Side.STORE_INDEX; pitNumber++) {
+			if (game.makeMove(pitNumber)) {
+				counts[pitNumber] = perft(game, depth - 1);
+				game.unmakeMove();
+			}
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,345 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import P5.Side.Player;
+
+/**
+ * {@code Position} encodes a whole {@code Mancala} position into two primitive
+ * {@code long} words so that positions can be stored in plain {@code long[]}
+ * arrays instead of object graphs.
+ * <p>
+ * Each word holds one {@code Player}'s row of six pits and one store, one
+ * byte per slot, with slot {@code i} in bits {@code 8*i} to {@code 8*i+7}. The
+ * word for {@code Player.One} is stored at {@code offset} and the word for
+ * {@code Player.Two} at {@code offset + 1}. The top byte of the
+ * {@code Player.One} word holds the side-to-move and game-over flags.
+ * <p>
+ * Because every slot is one byte, the total number of seeds on the board must
+ * not exceed 255, which allows up to 21 seeds per pit.
+ * <p>
+ * All methods are static and never allocate. A position is never modified in
+ * place unless the caller passes the same array and offset as both source and
+ * destination.
+ */
+
+public final class Position {
+
+	public static final int WORDS = 2; // number of longs per position.
+	public static final int MAX_SEEDS = 255; // most seeds the encoding holds.
+	private static final int SLOT_BITS = 8; // bits per pit or store.
+	private static final long SLOT_MASK = 0xFFL; // mask for a single slot.
+	private static final long ROW_MASK = 0x00FF_FFFF_FFFF_FFFFL; // 7 slots.
+	private static final long PITS_MASK = 0x0000_FFFF_FFFF_FFFFL; // 6 pits.
+	private static final long ONES = 0x0101_0101_0101_0101L; // byte-sum helper.
+	private static final int FLAGS_SHIFT = 56; // position of the flag byte.
+	private static final long TWO_TO_MOVE = 1L << FLAGS_SHIFT; // flag bit.
+	private static final long GAME_OVER = 2L << FLAGS_SHIFT; // flag bit.
+	private static final int LAP_SIZE = Side.ROW_SIZE + Side.STORE_INDEX; // 13
+
+	private Position() {
+	}
+
+	/**
+	 * Writes the standard starting position into {@code state}.
+	 *
+	 * @param state  The array receiving the position.
+	 * @param offset The index of the first word of the position.
+	 */
+	public static void initial(long[] state, int offset) {
+		initial(state, offset, Side.SEED_START_VALUE);
+	}
+
+	/**
+	 * Writes a starting position with {@code seedsPerPit} seeds in every pit
+	 * into {@code state}, with {@code Player.One} to move.
+	 *
+	 * @param state       The array receiving the position.
+	 * @param offset      The index of the first word of the position.
+	 * @param seedsPerPit The number of seeds in every pit.
+	 * @throws IllegalArgumentException if the board would hold more than
+	 *                                  {@link #MAX_SEEDS} seeds.
+	 */
+	public static void initial(long[] state, int offset, int seedsPerPit) {
+		if (seedsPerPit < 0
+				|| seedsPerPit * Side.STORE_INDEX * 2 > MAX_SEEDS) {
+			throw new IllegalArgumentException(
+					"Unsupported seeds per pit: " + seedsPerPit);
+		}
+		long row = (ONES & PITS_MASK) * seedsPerPit;
+		state[offset] = row;
+		state[offset + 1] = row;
+	}
+
+	/**
+	 * Packs two rows and the turn flags into {@code state}.
+	 *
+	 * @param state        The array receiving the position.
+	 * @param offset       The index of the first word of the position.
+	 * @param playerOneRow The row of {@code Player.One}.
+	 * @param playerTwoRow The row of {@code Player.Two}.
+	 * @param toMove       The {@code Player} whose turn it is.
+	 * @param gameOver     True if the game is over.
+	 * @throws IllegalArgumentException if the board holds more than
+	 *                                  {@link #MAX_SEEDS} seeds.
+	 */
+	public static void pack(long[] state, int offset, int[] playerOneRow,
+			int[] playerTwoRow, Player toMove, boolean gameOver) {
+		state[offset] = packRow(playerOneRow) | flags(toMove, gameOver);
+		state[offset + 1] = packRow(playerTwoRow);
+		if (totalSeeds(state, offset) > MAX_SEEDS) {
+			throw new IllegalArgumentException(
+					"Board holds more than " + MAX_SEEDS + " seeds");
+		}
+	}
+
+	/**
+	 * Unpacks the row of {@code player} into {@code row}.
+	 *
+	 * @param state  The array holding the position.
+	 * @param offset The index of the first word of the position.
+	 * @param player The {@code Player} whose row is wanted.
+	 * @param row    An array of at least {@code Side.ROW_SIZE} elements.
+	 */
+	public static void unpackRow(long[] state, int offset, Player player,
+			int[] row) {
+		long word = rowWord(state, offset, player);
+		for (int i = 0; i < Side.ROW_SIZE; i++) {
+			row[i] = slot(word, i);
+		}
+	}
+
+	/**
+	 * Accessor for the number of seeds in a pit or store.
+	 *
+	 * @param state  The array holding the position.
+	 * @param offset The index of the first word of the position.
+	 * @param player The {@code Player} who owns the row.
+	 * @param index  The index of the row, {@code Side.STORE_INDEX} for the
+	 *               store.
+	 * @return the number of seeds in the slot.
+	 */
+	public static int seedCount(long[] state, int offset, Player player,
+			int index) {
+		return slot(rowWord(state, offset, player), index);
+	}
+
+	/**
+	 * Accessor for the {@code Player} whose turn it is.
+	 *
+	 * @param state  The array holding the position.
+	 * @param offset The index of the first word of the position.
+	 * @return the {@code Player} to move.
+	 */
+	public static Player sideToMove(long[] state, int offset) {
+		return (state[offset] & TWO_TO_MOVE) != 0 ? Player.Two : Player.One;
+	}
+
+	/**
+	 * Accessor for the game over flag.
+	 *
+	 * @param state  The array holding the position.
+	 * @param offset The index of the first word of the position.
+	 * @return True if the game is over.
+	 */
+	public static boolean isGameOver(long[] state, int offset) {
+		return (state[offset] & GAME_OVER) != 0;
+	}
+
+	/**
+	 * Calculates the legal moves of the {@code Player} to move.
+	 *
+	 * @param state  The array holding the position.
+	 * @param offset The index of the first word of the position.
+	 * @return a bit mask where bit {@code pitNumber - 1} is set when
+	 *         {@code pitNumber} is a legal move; 0 once the game is over.
+	 */
+	public static int legalMoves(long[] state, int offset) {
+		long flags = state[offset];
+		if ((flags & GAME_OVER) != 0) {
+			return 0;
+		}
+		long word = (flags & TWO_TO_MOVE) != 0 ? state[offset + 1] : flags;
+		int moves = 0;
+		for (int i = 0; i < Side.STORE_INDEX; i++) {
+			if (slot(word, i) != 0) {
+				moves |= 1 << i;
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Applies a move to the position in {@code src} and writes the resulting
+	 * position into {@code dst}. The result is identical to calling
+	 * {@link Mancala#performTurn(int)} on the equivalent game. The source and
+	 * destination may be the same array and offset.
+	 *
+	 * @param src       The array holding the position to move from.
+	 * @param srcOffset The index of the first word of the source position.
+	 * @param dst       The array receiving the new position.
+	 * @param dstOffset The index of the first word of the new position.
+	 * @param pitNumber The pit to play, between 1 and 6 inclusive.
+	 * @return True if the move was legal and applied; False otherwise, in
+	 *         which case {@code dst} is left untouched.
+	 */
+	public static boolean applyMove(long[] src, int srcOffset, long[] dst,
+			int dstOffset, int pitNumber) {
+		long flags = src[srcOffset] & ~ROW_MASK;
+		int pitIndex = pitNumber - 1;
+		if ((flags & GAME_OVER) != 0 || pitIndex < 0
+				|| pitIndex >= Side.STORE_INDEX) {
+			return false;
+		}
+
+		boolean twoToMove = (flags & TWO_TO_MOVE) != 0;
+		long mine = twoToMove ? src[srcOffset + 1] : src[srcOffset] & ROW_MASK;
+		long theirs = twoToMove ? src[srcOffset] & ROW_MASK
+				: src[srcOffset + 1];
+
+		int seeds = slot(mine, pitIndex);
+		if (seeds == 0) {
+			return false;
+		}
+		mine &= ~(SLOT_MASK << (pitIndex * SLOT_BITS));
+
+		long laps = seeds / LAP_SIZE;
+		mine += laps * (ONES & ROW_MASK);
+		theirs += laps * (ONES & PITS_MASK);
+		int start = pitIndex + 1; // first slot of the lap to get a seed
+		int end = start + seeds % LAP_SIZE; // slot after the last seed
+		mine += onesInRange(start, Math.min(end, Side.ROW_SIZE));
+		if (end > Side.ROW_SIZE) {
+			theirs += onesInRange(0, Math.min(end, LAP_SIZE) - Side.ROW_SIZE);
+		}
+		if (end > LAP_SIZE) {
+			mine += onesInRange(0, end - LAP_SIZE);
+		}
+		int landing = end > LAP_SIZE ? end - 1 - LAP_SIZE : end - 1;
+
+		boolean switchTurns = true;
+		boolean checkGameOver = true;
+		if (landing == Side.STORE_INDEX) {
+			switchTurns = false; // current player gets another turn
+		} else if (landing < Side.STORE_INDEX && slot(mine, landing) == 1) {
+			int opposite = Side.STORE_INDEX - 1 - landing;
+			long captured = 1 + slot(theirs, opposite);
+			mine &= ~(SLOT_MASK << (landing * SLOT_BITS));
+			theirs &= ~(SLOT_MASK << (opposite * SLOT_BITS));
+			mine += captured << (Side.STORE_INDEX * SLOT_BITS);
+		} else if (landing < Side.STORE_INDEX) {
+			checkGameOver = false; // lands in non-empty pit
+		}
+
+		if (checkGameOver && ((mine & PITS_MASK) == 0
+				|| (theirs & PITS_MASK) == 0)) {
+			mine = sweepPits(mine);
+			theirs = sweepPits(theirs);
+			flags |= GAME_OVER;
+			switchTurns = false;
+		}
+		if (switchTurns) {
+			flags ^= TWO_TO_MOVE;
+			twoToMove = !twoToMove;
+			long temp = mine;
+			mine = theirs;
+			theirs = temp;
+		}
+
+		dst[dstOffset] = (twoToMove ? theirs : mine) | flags;
+		dst[dstOffset + 1] = twoToMove ? mine : theirs;
+		return true;
+	}
+
+	/**
+	 * Calculates the total number of seeds on the board, stores included.
+	 *
+	 * @param state  The array holding the position.
+	 * @param offset The index of the first word of the position.
+	 * @return the total number of seeds.
+	 */
+	public static int totalSeeds(long[] state, int offset) {
+		long one = state[offset] & ROW_MASK;
+		long two = state[offset + 1];
+		return sumPits(one) + slot(one, Side.STORE_INDEX) + sumPits(two)
+				+ slot(two, Side.STORE_INDEX);
+	}
+
+	/*
+	 * Helper method: to select the word holding the row of player with the
+	 * flag byte removed.
+	 */
+
+	private static long rowWord(long[] state, int offset, Player player) {
+		return player == Player.One ? state[offset] & ROW_MASK
+				: state[offset + 1];
+	}
+
+	/*
+	 * Helper method: to pack a row of seven counts into one word.
+	 */
+
+	static long packRow(int[] row) {
+		long word = 0;
+		for (int i = 0; i < Side.ROW_SIZE; i++) {
+			if (row[i] < 0 || row[i] > MAX_SEEDS) {
+				throw new IllegalArgumentException(
+						"Unsupported seed count: " + row[i]);
+			}
+			word |= (long) row[i] << (i * SLOT_BITS);
+		}
+		return word;
+	}
+
+	/*
+	 * Helper method: to get the flag byte of the Player.One word.
+	 */
+
+	static long flags(Player toMove, boolean gameOver) {
+		return (toMove == Player.Two ? TWO_TO_MOVE : 0)
+				| (gameOver ? GAME_OVER : 0);
+	}
+
+	/*
+	 * Helper method: to read one slot of a row word.
+	 */
+
+	static int slot(long word, int index) {
+		return (int) (word >>> (index * SLOT_BITS) & SLOT_MASK);
+	}
+
+	/*
+	 * Helper method: to build a word with a one in every slot from fromIndex
+	 * inclusive to toIndex exclusive.
+	 */
+
+	private static long onesInRange(int fromIndex, int toIndex) {
+		if (toIndex <= fromIndex) {
+			return 0;
+		}
+		long upTo = (1L << (toIndex * SLOT_BITS)) - 1;
+		return ONES & upTo & -(1L << (fromIndex * SLOT_BITS));
+	}
+
+	/*
+	 * Helper method: to add the six pit bytes of a row word. The sum never
+	 * exceeds MAX_SEEDS so the multiply cannot carry between bytes.
+	 */
+
+	private static int sumPits(long word) {
+		return (int) (((word & PITS_MASK) * ONES) >>> FLAGS_SHIFT);
+	}
+
+	/*
+	 * Helper method: to move every seed in the pits of a row word into its
+	 * store.
+	 */
+
+	private static long sweepPits(long word) {
+		long total = sumPits(word);
+		return (word & ~PITS_MASK) + (total << (Side.STORE_INDEX * SLOT_BITS));
+	}
+}
@@ -0,0 +1,285 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import P5.Side.Player;
+
+/**
+ * {@code SearchEngine} chooses moves for a computer player. It runs a negamax
+ * search with alpha-beta pruning over {@link Mancala#makeMove(int)} and
+ * {@link Mancala#unmakeMove()}, deepening one ply at a time until a depth or
+ * node budget is used up.
+ * <p>
+ * When the last seed of a move lands in the mover's store the same
+ * {@code Player} moves again, so the score of that child is not negated.
+ * Scores are store differences in seeds from the point of view of the
+ * {@code Player} to move; positions where the game is over score exactly.
+ * <p>
+ * Results are remembered in a {@code TranspositionTable} keyed by the
+ * {@code Zobrist} hash of the position, so positions reached by different
+ * move orders are searched once.
+ * <p>
+ * A {@code SearchEngine} is not thread-safe; use one per thread. Only
+ * {@link #stop()} may be called from another thread. Several engines may
+ * share one {@code TranspositionTable}, see {@code ParallelSearch}.
+ * <p>
+ * With an {@code EndgameDatabase} set, positions it covers are scored exactly
+ * without searching them.
+ */
+
+public class SearchEngine {
+
+	public static final int MAX_PLY = 128; // deepest supported search.
+	private static final int INFINITY = 1_000_000; // beyond any score.
+	private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+	private final int[] pvLength = new int[MAX_PLY + 1]; // pv length per ply.
+	private final TranspositionTable table; // shared results, may be null.
+	private EndgameDatabase endgames; // exact outcomes, may be null.
+	private int[] previousPv = new int[0]; // pv of the last iteration.
+	private Mancala game; // the game being searched.
+	private long nodes; // moves made during the current search.
+	private long nodeLimit; // moves allowed during the current search.
+	private boolean limitsActive; // flag to allow cutting off an iteration.
+	private boolean aborted; // flag to indicate the budget ran out.
+	private volatile boolean stopRequested; // flag set by another thread.
+	private int depthOffset; // extra plies added to every iteration.
+	private boolean startsNewSearch = true; // flag to age the table.
+
+	/**
+	 * Constructs a new instance of {@code SearchEngine} with its own
+	 * {@code TranspositionTable}, sized by the {@code mancala.tt.mb} system
+	 * property.
+	 */
+	public SearchEngine() {
+		this(new TranspositionTable());
+	}
+
+	/**
+	 * Constructs a new instance of {@code SearchEngine} using {@code table}.
+	 *
+	 * @param table The {@code TranspositionTable} to use, or null to search
+	 *              without one.
+	 */
+	public SearchEngine(TranspositionTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * This method searches {@code game} with iterative deepening and returns
+	 * the result of the deepest completed iteration. The first iteration
+	 * always completes so a move is always found. The game is left in the
+	 * state it was given in.
+	 *
+	 * @param game     The game to search, with the {@code Player} to move.
+	 * @param maxDepth The deepest iteration to run, at most {@link #MAX_PLY}.
+	 * @param maxNodes The number of nodes after which the search stops.
+	 * @return the result of the deepest completed iteration.
+	 */
+	public SearchResult search(Mancala game, int maxDepth, long maxNodes) {
+		long start = System.nanoTime();
+		this.game = game;
+		this.nodes = 0;
+		this.nodeLimit = maxNodes;
+		this.limitsActive = false;
+		this.aborted = false;
+		this.previousPv = new int[0];
+		if (table != null && startsNewSearch) {
+			table.newSearch();
+		}
+		SearchResult result = new SearchResult(0, 0, 0, 0, 0, previousPv);
+
+		if (game.getLegalMoves() == 0) {
+			stopRequested = false;
+			return result;
+		}
+
+		int lastDepth = Math.min(maxDepth + depthOffset, MAX_PLY);
+		for (int depth = 1 + depthOffset; depth <= lastDepth; depth++) {
+			int score = negamax(depth, -INFINITY, INFINITY, 0, true);
+			if (aborted) {
+				break;
+			}
+			previousPv = new int[pvLength[0]];
+			System.arraycopy(pvTable[0], 0, previousPv, 0, pvLength[0]);
+			result = new SearchResult(previousPv[0], score, depth, nodes,
+					System.nanoTime() - start, previousPv);
+			limitsActive = true; // only deeper iterations may be cut off
+		}
+
+		this.game = null;
+		stopRequested = false;
+		return new SearchResult(result.getBestPit(), result.getScore(),
+				result.getDepth(), nodes, System.nanoTime() - start,
+				previousPv);
+	}
+
+	/**
+	 * This method asks the running search, or the next one if none is
+	 * running, to return as soon as its first iteration is complete. It may
+	 * be called from any thread.
+	 */
+	public void stop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * This method withdraws a {@link #stop()} that no search has seen, such
+	 * as one made just after the last search returned. It must not be called
+	 * while a search is running.
+	 */
+	void clearStop() {
+		stopRequested = false;
+	}
+
+	/**
+	 * This method sets the {@code EndgameDatabase} probed below the root.
+	 *
+	 * @param endgames The database, or null to search every position.
+	 */
+	public void setEndgameDatabase(EndgameDatabase endgames) {
+		this.endgames = endgames;
+	}
+
+	/**
+	 * This method sets the number of plies added to every iteration, so that
+	 * helper threads of a parallel search work ahead of the main thread.
+	 *
+	 * @param depthOffset The number of plies to add, 0 by default.
+	 */
+	void setDepthOffset(int depthOffset) {
+		this.depthOffset = depthOffset;
+	}
+
+	/**
+	 * This method sets whether each search ages the entries of the
+	 * {@code TranspositionTable}. Engines sharing a table leave this to the
+	 * code that coordinates them.
+	 *
+	 * @param startsNewSearch True, the default, to age the table.
+	 */
+	void setStartsNewSearch(boolean startsNewSearch) {
+		this.startsNewSearch = startsNewSearch;
+	}
+
+	/*
+	 * Helper method: to search the current position of game to depth plies
+	 * and return its score for the player to move. onPv is true while the
+	 * path from the root follows the previous principal variation, whose
+	 * move is then tried first.
+	 */
+
+	private int negamax(int depth, int alpha, int beta, int ply,
+			boolean onPv) {
+		pvLength[ply] = ply;
+		if (endgames != null && ply > 0 && endgames.covers(game)) {
+			return endgames.probe(game);
+		}
+		if (depth == 0 || ply == MAX_PLY) {
+			return evaluate(game.getCurrentPlayer());
+		}
+
+		int originalAlpha = alpha;
+		long key = table == null ? 0 : game.getZobristKey();
+		long entry = table == null ? 0 : table.probe(key);
+		if (entry != 0 && ply > 0
+				&& TranspositionTable.depthOf(entry) >= depth) {
+			int score = TranspositionTable.scoreOf(entry);
+			int bound = TranspositionTable.boundOf(entry);
+			if (bound == TranspositionTable.EXACT
+					|| (bound == TranspositionTable.LOWER_BOUND
+							&& score >= beta)
+					|| (bound == TranspositionTable.UPPER_BOUND
+							&& score <= alpha)) {
+				return score;
+			}
+		}
+
+		int moves = game.getLegalMoves();
+		int pvMove = onPv && ply < previousPv.length ? previousPv[ply] : 0;
+		int firstMove = pvMove != 0 ? pvMove
+				: TranspositionTable.bestPitOf(entry);
+		int bestPit = 0;
+		int best = -INFINITY;
+
+		int pits = game.getVariant().getPits();
+		for (int i = 0; i <= pits; i++) {
+			// try the pv or table move, then pits closest to the store first
+			int pitNumber = i == 0 ? firstMove : pits + 1 - i;
+			if (pitNumber == 0 || (moves & 1 << pitNumber - 1) == 0
+					|| (i > 0 && pitNumber == firstMove)) {
+				continue;
+			}
+
+			Player mover = game.getCurrentPlayer();
+			game.makeMove(pitNumber);
+			nodes++;
+			if (limitsActive && (nodes >= nodeLimit || stopRequested)) {
+				aborted = true;
+			}
+
+			int score;
+			if (game.isGameOverConditionMet()) {
+				pvLength[ply + 1] = ply + 1;
+				score = evaluate(mover);
+			} else if (game.getCurrentPlayer() == mover) { // extra turn
+				score = negamax(depth - 1, alpha, beta, ply + 1,
+						pitNumber == pvMove);
+			} else {
+				score = -negamax(depth - 1, -beta, -alpha, ply + 1,
+						pitNumber == pvMove);
+			}
+			game.unmakeMove();
+
+			if (aborted) {
+				return 0;
+			}
+			if (score > best) {
+				best = score;
+				bestPit = pitNumber;
+				updatePv(ply, pitNumber);
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+
+		if (table != null) {
+			int bound = best <= originalAlpha
+					? TranspositionTable.UPPER_BOUND
+					: best >= beta ? TranspositionTable.LOWER_BOUND
+							: TranspositionTable.EXACT;
+			table.store(key, depth, best, bound, bestPit);
+		}
+		return best;
+	}
+
+	/*
+	 * Helper method: to make pitNumber followed by the principal variation
+	 * of the child the principal variation of ply.
+	 */
+
+	private void updatePv(int ply, int pitNumber) {
+		int[] line = pvTable[ply];
+		line[ply] = pitNumber;
+		int length = pvLength[ply + 1];
+		System.arraycopy(pvTable[ply + 1], ply + 1, line, ply + 1,
+				length - (ply + 1));
+		pvLength[ply] = length;
+	}
+
+	/*
+	 * Helper method: to score the current position as the store difference
+	 * from the point of view of player.
+	 */
+
+	private int evaluate(Player player) {
+		Player opponent = player == Player.One ? Player.Two : Player.One;
+		return game.getStoreCount(player) - game.getStoreCount(opponent);
+	}
+}
@@ -0,0 +1,118 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.Arrays;
+
+/**
+ * {@code SearchResult} holds the outcome of one completed iteration of a
+ * {@code SearchEngine} search.
+ *
+ */
+
+public final class SearchResult {
+
+	private final int bestPit; // the pit number to play, 0 if none.
+	private final int score; // score for the player to move.
+	private final int depth; // the completed search depth in plies.
+	private final long nodes; // the number of moves made during the search.
+	private final long elapsedNanos; // the wall-clock time of the search.
+	private final int[] principalVariation; // the expected line of play.
+
+	/**
+	 * Constructs a new instance of {@code SearchResult}.
+	 *
+	 * @param bestPit            The pit number to play, 0 if there is none.
+	 * @param score              The score for the player to move, in seeds.
+	 * @param depth              The completed search depth in plies.
+	 * @param nodes              The number of moves made during the search.
+	 * @param elapsedNanos       The wall-clock time of the search.
+	 * @param principalVariation The expected line of play, copied.
+	 */
+	public SearchResult(int bestPit, int score, int depth, long nodes,
+			long elapsedNanos, int[] principalVariation) {
+		this.bestPit = bestPit;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+		this.principalVariation = principalVariation.clone();
+	}
+
+	/**
+	 * Accessor method to get the best pit number found.
+	 *
+	 * @return the pit number to play, or 0 if the game is over.
+	 */
+	public int getBestPit() {
+		return bestPit;
+	}
+
+	/**
+	 * Accessor method to get the score of the best pit. The score is the
+	 * expected store difference in seeds from the point of view of the
+	 * {@code Player} to move.
+	 *
+	 * @return the score of the best pit.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Accessor method to get the completed search depth.
+	 *
+	 * @return the depth in plies, each extra turn counting as one ply.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Accessor method to get the number of moves made during the search.
+	 *
+	 * @return the number of nodes searched.
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Accessor method to get the wall-clock time of the search.
+	 *
+	 * @return the elapsed time in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * This method calculates the search speed.
+	 *
+	 * @return the number of nodes searched per second.
+	 */
+	public long getNodesPerSecond() {
+		// in double, as nodes * 10^9 overflows past about 9.2e9 nodes
+		return elapsedNanos == 0 ? 0 : (long) (nodes / (elapsedNanos / 1e9));
+	}
+
+	/**
+	 * Accessor method to get the principal variation, the line of play both
+	 * players are expected to follow, starting with {@link #getBestPit()}.
+	 *
+	 * @return a copy of the pit numbers of the principal variation.
+	 */
+	public int[] getPrincipalVariation() {
+		return principalVariation.clone();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("depth %d score %+d nodes %d nps %d pv %s", depth,
+				score, nodes, getNodesPerSecond(),
+				Arrays.toString(principalVariation));
+	}
+}
@@ -0,0 +1,219 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import P5.Side.Player;
+
+/**
+ * {@code SelfPlay} plays large numbers of games between two
+ * {@code MoveSelector}s on a pool of threads, for checking the rules and
+ * tuning the engine. Every thread reuses one {@code Mancala} with
+ * {@link Mancala#reset()}, has its own selectors and random numbers, and
+ * counts its results in its own tally, so the threads share nothing until
+ * the tallies are added up at the end. The selectors are told of every game
+ * with {@link MoveSelector#newGame()}.
+ * <p>
+ * Moves are checked against {@link Mancala#getLegalMoves()}; a selector
+ * choosing an invalid pit fails the run instead of silently losing a turn.
+ * <p>
+ * Usage: {@code java P5.SelfPlay <games> <threads> [depth]}, where a depth
+ * has both players search that many plies instead of playing randomly.
+ */
+
+public class SelfPlay implements AutoCloseable {
+
+	private final int threads; // the number of threads playing.
+	private final ExecutorService pool; // runs one task per thread.
+
+	/**
+	 * Constructs a new instance of {@code SelfPlay} playing on
+	 * {@code threads} threads.
+	 *
+	 * @param threads The number of threads, at least 1.
+	 * @throws IllegalArgumentException if {@code threads} is less than 1.
+	 */
+	public SelfPlay(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"At least one thread is needed: " + threads);
+		}
+		this.threads = threads;
+		this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "mancala-self-play");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Runs self-play from the command line and prints the totals.
+	 *
+	 * @param args The number of games, of threads and optionally a depth.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2 || args.length > 3) {
+			System.err.println("Usage: SelfPlay <games> <threads> [depth]");
+			return;
+		}
+		long games = Long.parseLong(args[0]);
+		int threads = Integer.parseInt(args[1]);
+		Supplier<MoveSelector> selector = MoveSelector::random;
+		if (args.length == 3) {
+			int depth = Integer.parseInt(args[2]);
+			selector = () -> MoveSelector.engine(depth, 1);
+		}
+		try (SelfPlay selfPlay = new SelfPlay(threads)) {
+			System.out.println(selfPlay.play(games, selector, selector,
+					System.nanoTime()));
+		}
+	}
+
+	/**
+	 * This method plays {@code games} games, each thread asking the
+	 * suppliers once for the selectors it uses in all of its games.
+	 *
+	 * @param games     The number of games to play.
+	 * @param playerOne Supplies the selectors of {@code Player.One}.
+	 * @param playerTwo Supplies the selectors of {@code Player.Two}.
+	 * @param seed      The seed of the random numbers of all threads.
+	 * @return the totals of every game played.
+	 * @throws IllegalStateException if a selector chooses an invalid pit.
+	 */
+	public SelfPlayStats play(long games, Supplier<MoveSelector> playerOne,
+			Supplier<MoveSelector> playerTwo, long seed) {
+		long start = System.nanoTime();
+		SplittableRandom random = new SplittableRandom(seed);
+		List<Future<Tally>> futures = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			long share = games / threads + (i < games % threads ? 1 : 0);
+			SplittableRandom threadRandom = random.split();
+			futures.add(pool.submit(() -> playGames(share, playerOne.get(),
+					playerTwo.get(), threadRandom)));
+		}
+
+		Tally total = new Tally();
+		for (Future<Tally> future : futures) {
+			total.add(waitFor(future));
+		}
+		return new SelfPlayStats(total.games, total.winsOne, total.winsTwo,
+				total.draws, total.turns,
+				total.games == 0 ? 0 : total.shortestGame, total.longestGame,
+				System.nanoTime() - start);
+	}
+
+	/**
+	 * This method stops the threads.
+	 */
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	/*
+	 * Helper method: to play games games on the calling thread, reusing one
+	 * Mancala for all of them.
+	 */
+
+	private static Tally playGames(long games, MoveSelector playerOne,
+			MoveSelector playerTwo, SplittableRandom random) {
+		Tally tally = new Tally();
+		Mancala game = new Mancala();
+		for (long g = 0; g < games; g++) {
+			game.reset();
+			playerOne.newGame();
+			playerTwo.newGame();
+			int turns = 0;
+			while (game.getLegalMoves() != 0) {
+				MoveSelector selector = game.getCurrentPlayer() == Player.One
+						? playerOne
+						: playerTwo;
+				int pitNumber = selector.selectMove(game, random);
+				if (!TurnResult.isPlayed(game.takeTurn(pitNumber))) {
+					throw new IllegalStateException(
+							"Invalid pit chosen: " + pitNumber);
+				}
+				turns++;
+			}
+			tally.record(game.getStoreCount(Player.One)
+					- game.getStoreCount(Player.Two), turns);
+		}
+		return tally;
+	}
+
+	/*
+	 * Helper method: to wait for the tally of a thread.
+	 */
+
+	private static Tally waitFor(Future<Tally> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted during self-play", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Self-play failed", e.getCause());
+		}
+	}
+
+	/*
+	 * The results counted by one thread.
+	 */
+
+	private static final class Tally {
+		private long games; // the number of games played.
+		private long winsOne; // games won by Player.One.
+		private long winsTwo; // games won by Player.Two.
+		private long draws; // games ending with equal stores.
+		private long turns; // turns over all games.
+		private int shortestGame = Integer.MAX_VALUE; // fewest turns.
+		private int longestGame; // most turns.
+
+		/*
+		 * Helper method: to count one game won by margin seeds for
+		 * Player.One.
+		 */
+
+		private void record(int margin, int length) {
+			games++;
+			if (margin > 0) {
+				winsOne++;
+			} else if (margin < 0) {
+				winsTwo++;
+			} else {
+				draws++;
+			}
+			turns += length;
+			shortestGame = Math.min(shortestGame, length);
+			longestGame = Math.max(longestGame, length);
+		}
+
+		/*
+		 * Helper method: to add the counts of other to this tally.
+		 */
+
+		private void add(Tally other) {
+			games += other.games;
+			winsOne += other.winsOne;
+			winsTwo += other.winsTwo;
+			draws += other.draws;
+			turns += other.turns;
+			shortestGame = Math.min(shortestGame, other.shortestGame);
+			longestGame = Math.max(longestGame, other.longestGame);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+/**
+ * {@code SelfPlayStats} holds the totals of a {@code SelfPlay} run. Lengths
+ * count turns, so a move that earns an extra turn counts once.
+ *
+ */
+
+public final class SelfPlayStats {
+
+	private final long games; // the number of games played.
+	private final long winsOne; // games won by Player.One.
+	private final long winsTwo; // games won by Player.Two.
+	private final long draws; // games ending with equal stores.
+	private final long turns; // turns over all games.
+	private final int shortestGame; // fewest turns in one game.
+	private final int longestGame; // most turns in one game.
+	private final long elapsedNanos; // the wall-clock time of the run.
+
+	/**
+	 * Constructs a new instance of {@code SelfPlayStats}.
+	 *
+	 * @param games        The number of games played.
+	 * @param winsOne      The games won by {@code Player.One}.
+	 * @param winsTwo      The games won by {@code Player.Two}.
+	 * @param draws        The games ending in a draw.
+	 * @param turns        The turns over all games.
+	 * @param shortestGame The fewest turns in one game, 0 if none were played.
+	 * @param longestGame  The most turns in one game.
+	 * @param elapsedNanos The wall-clock time of the run.
+	 */
+	public SelfPlayStats(long games, long winsOne, long winsTwo, long draws,
+			long turns, int shortestGame, int longestGame, long elapsedNanos) {
+		this.games = games;
+		this.winsOne = winsOne;
+		this.winsTwo = winsTwo;
+		this.draws = draws;
+		this.turns = turns;
+		this.shortestGame = shortestGame;
+		this.longestGame = longestGame;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Accessor method to get the number of games played.
+	 *
+	 * @return the number of games.
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Accessor method to get the games won by {@code Player.One}.
+	 *
+	 * @return the wins of the first player.
+	 */
+	public long getWinsOne() {
+		return winsOne;
+	}
+
+	/**
+	 * Accessor method to get the games won by {@code Player.Two}.
+	 *
+	 * @return the wins of the second player.
+	 */
+	public long getWinsTwo() {
+		return winsTwo;
+	}
+
+	/**
+	 * Accessor method to get the games that ended in a draw.
+	 *
+	 * @return the number of draws.
+	 */
+	public long getDraws() {
+		return draws;
+	}
+
+	/**
+	 * Accessor method to get the turns played over all games.
+	 *
+	 * @return the total number of turns.
+	 */
+	public long getTurns() {
+		return turns;
+	}
+
+	/**
+	 * Accessor method to get the length of the shortest game.
+	 *
+	 * @return the fewest turns in one game, 0 if no game was played.
+	 */
+	public int getShortestGame() {
+		return shortestGame;
+	}
+
+	/**
+	 * Accessor method to get the length of the longest game.
+	 *
+	 * @return the most turns in one game.
+	 */
+	public int getLongestGame() {
+		return longestGame;
+	}
+
+	/**
+	 * Accessor method to get the average length of a game.
+	 *
+	 * @return the mean number of turns per game, 0 if none were played.
+	 */
+	public double getAverageGame() {
+		return games == 0 ? 0 : (double) turns / games;
+	}
+
+	/**
+	 * Accessor method to get the wall-clock time of the run.
+	 *
+	 * @return the elapsed time in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Accessor method to get the speed of the run.
+	 *
+	 * @return the number of games played per second.
+	 */
+	public double getGamesPerSecond() {
+		return elapsedNanos == 0 ? 0 : games * 1_000_000_000.0 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"games %d (One %d, Two %d, draws %d), turns %d..%d avg %.1f, "
+						+ "%.0f games/s",
+				games, winsOne, winsTwo, draws, shortestGame, longestGame,
+				getAverageGame(), getGamesPerSecond());
+	}
+}
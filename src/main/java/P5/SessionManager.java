@@ -0,0 +1,305 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code SessionManager} hosts many {@code Mancala} games at once. Games live
+ * in a {@code ConcurrentHashMap} keyed by id, and every game is its own lock,
+ * so turns in different games never wait for each other and turns in one
+ * game are applied one at a time in the order they get the lock.
+ * <p>
+ * States are returned as packed {@code Position}s. Every game publishes a
+ * {@code BoardSnapshot} after each turn, so reading a state never waits for
+ * the lock of its game.
+ * <p>
+ * With a {@code GameJournal} attached, every new game, turn and removal is
+ * logged, and a turn is only returned once its log record is on disk.
+ * <p>
+ * Every turn asked for, played or refused, is counted in the
+ * {@code TurnMetrics} of {@link #getMetrics()}.
+ */
+
+public class SessionManager implements AutoCloseable {
+
+	private final ConcurrentHashMap<Long, Session> games; // games by id.
+	private final AtomicLong nextId = new AtomicLong(1); // id of next game.
+	private final ExecutorService executor; // runs submitted turns.
+	private final TurnMetrics metrics = new TurnMetrics(); // of all turns.
+	private volatile GameJournal journal; // logs changes, may be null.
+
+	/**
+	 * Constructs a new instance of {@code SessionManager} running submitted
+	 * turns on {@code threads} threads.
+	 *
+	 * @param threads The number of threads for submitted turns, at least 1.
+	 */
+	public SessionManager(int threads) {
+		this.games = new ConcurrentHashMap<>();
+		this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "mancala-session");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * This method starts a new game.
+	 *
+	 * @return the id of the new game.
+	 */
+	public long createGame() {
+		long id = nextId.getAndIncrement();
+		games.put(id, new Session(new Mancala()));
+		GameJournal log = journal;
+		if (log != null) {
+			log.logCreate(id).join();
+		}
+		return id;
+	}
+
+	/**
+	 * This method ends a game and forgets it.
+	 *
+	 * @param id The id of the game.
+	 * @return True if the game existed.
+	 */
+	public boolean removeGame(long id) {
+		boolean removed = games.remove(id) != null;
+		GameJournal log = journal;
+		if (removed && log != null) {
+			log.logRemove(id).join();
+		}
+		return removed;
+	}
+
+	/**
+	 * Accessor method to get the number of games hosted.
+	 *
+	 * @return the number of games.
+	 */
+	public int getGameCount() {
+		return games.size();
+	}
+
+	/**
+	 * This method reads the state of a game.
+	 *
+	 * @param id The id of the game.
+	 * @return the game as a packed {@code Position} of
+	 *         {@code Position.WORDS} words.
+	 * @throws NoSuchElementException if there is no game {@code id}.
+	 */
+	public long[] getState(long id) {
+		long[] state = new long[Position.WORDS];
+		find(id).game.getSnapshot().toPosition(state, 0);
+		return state;
+	}
+
+	/**
+	 * This method plays {@code pitNumber} for the {@code Player} to move in a
+	 * game.
+	 *
+	 * @param id        The id of the game.
+	 * @param pitNumber The pit to play, between 1 and 6 inclusive.
+	 * @return the game after the turn as a packed {@code Position}.
+	 * @throws NoSuchElementException   if there is no game {@code id}.
+	 * @throws IllegalArgumentException if the pit may not be played.
+	 */
+	public long[] takeTurn(long id, int pitNumber) {
+		Turn turn = applyTurn(id, pitNumber);
+		if (turn.durable != null) {
+			turn.durable.join();
+		}
+		return turn.state;
+	}
+
+	/**
+	 * This method plays a turn like {@link #takeTurn(long, int)} on one of
+	 * the threads of this manager. The thread does not wait for the log.
+	 *
+	 * @param id        The id of the game.
+	 * @param pitNumber The pit to play, between 1 and 6 inclusive.
+	 * @return the game after the turn, or the exception of
+	 *         {@link #takeTurn(long, int)}.
+	 */
+	public CompletableFuture<long[]> submitTurn(long id, int pitNumber) {
+		return CompletableFuture
+				.supplyAsync(() -> applyTurn(id, pitNumber), executor)
+				.thenCompose(turn -> turn.durable == null
+						? CompletableFuture.completedFuture(turn.state)
+						: turn.durable.thenApply(ignored -> turn.state));
+	}
+
+	/**
+	 * Accessor method to get the counts and timings of the turns of every
+	 * game hosted.
+	 *
+	 * @return the metrics, updated as turns are played.
+	 */
+	public TurnMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * This method stops the threads running submitted turns.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/*
+	 * Helper method: to attach the journal logging every change from now on.
+	 */
+
+	void attachJournal(GameJournal journal) {
+		this.journal = journal;
+	}
+
+	/*
+	 * Helper method: to put back a game read from a snapshot.
+	 */
+
+	void restoreGame(long id, long[] state, int offset, int plies) {
+		Session session = new Session(new Mancala(state, offset));
+		session.plies = plies;
+		games.put(id, session);
+		nextId.accumulateAndGet(id + 1, Math::max);
+	}
+
+	/*
+	 * Helper method: to get the id the next new game will have.
+	 */
+
+	long getNextId() {
+		return nextId.get();
+	}
+
+	/*
+	 * Helper method: to make sure no id below next is handed out again.
+	 */
+
+	void restoreNextId(long next) {
+		nextId.accumulateAndGet(next, Math::max);
+	}
+
+	/*
+	 * Helper method: to replay a logged change while recovering. Turns that
+	 * a snapshot already holds are skipped.
+	 */
+
+	void replay(int type, long id, int ply, int pitNumber) {
+		nextId.accumulateAndGet(id + 1, Math::max);
+		if (type == GameJournal.CREATE) {
+			games.putIfAbsent(id, new Session(new Mancala()));
+		} else if (type == GameJournal.REMOVE) {
+			games.remove(id);
+		} else {
+			Session session = games.get(id);
+			if (session != null && ply == session.plies + 1) {
+				session.game.performTurn(pitNumber);
+				session.plies = ply;
+			}
+		}
+	}
+
+	/*
+	 * Helper method: to copy every game as its id, plies and packed
+	 * Position, each game read while it is locked.
+	 */
+
+	long[] snapshotGames() {
+		long[] snapshot = new long[games.size() * 4];
+		int filled = 0;
+		long[] state = new long[Position.WORDS];
+		for (var entry : games.entrySet()) {
+			if (filled == snapshot.length) { // games were added meanwhile
+				snapshot = Arrays.copyOf(snapshot,
+						snapshot.length * 2 + 4);
+			}
+			Session session = entry.getValue();
+			synchronized (session) {
+				session.game.toPosition(state, 0);
+				snapshot[filled + 1] = session.plies;
+			}
+			snapshot[filled] = entry.getKey();
+			snapshot[filled + 2] = state[0];
+			snapshot[filled + 3] = state[1];
+			filled += 4;
+		}
+		return Arrays.copyOf(snapshot, filled);
+	}
+
+	/*
+	 * Helper method: to play a turn under the lock of its game and log it,
+	 * returning the state and the pending log write.
+	 */
+
+	private Turn applyTurn(long id, int pitNumber) {
+		Session session = find(id);
+		Turn turn = new Turn();
+		synchronized (session) {
+			Mancala game = session.game;
+			long start = System.nanoTime();
+			int result = game.takeTurn(pitNumber);
+			metrics.record(result, System.nanoTime() - start);
+			if (!TurnResult.isPlayed(result)) {
+				throw new IllegalArgumentException("Pit " + pitNumber
+						+ " may not be played: " + TurnResult.toString(result));
+			}
+			session.plies++;
+			game.toPosition(turn.state, 0);
+			GameJournal log = journal;
+			if (log != null) {
+				turn.durable = log.logTurn(id, session.plies, pitNumber);
+			}
+		}
+		return turn;
+	}
+
+	/*
+	 * Helper method: to find the game with id or fail.
+	 */
+
+	private Session find(long id) {
+		Session session = games.get(id);
+		if (session == null) {
+			throw new NoSuchElementException("No game " + id);
+		}
+		return session;
+	}
+
+	/*
+	 * A hosted game and the number of turns played in it; also its lock.
+	 */
+
+	private static final class Session {
+		private final Mancala game; // the game.
+		private int plies; // turns played, numbers the logged turns.
+
+		private Session(Mancala game) {
+			this.game = game;
+			game.publishSnapshots();
+		}
+	}
+
+	/*
+	 * The outcome of a turn: the state after it and its pending log write.
+	 */
+
+	private static final class Turn {
+		private final long[] state = new long[Position.WORDS]; // after turn.
+		private CompletableFuture<Void> durable; // log write, may be null.
+	}
+}
@@ -5,11 +5,11 @@
 
 package P5;
 
-import java.util.Arrays;
-
 /**
  * {@code Side} defines a {@code Player}'s {@code Side} of the {@code Mancala}
- * game board, consisting of six pits and one store.
+ * game board, consisting of the pits of its {@code Variant} and one store.
+ * The constants describe the standard board of six pits with four seeds
+ * each, {@code Variant.KALAH_6_4}.
  * 
  */
 
@@ -21,8 +21,12 @@ public class Side {
 	public static final int STORE_INDEX = 6;// The index of the store.
 											// row[STORE_INDEX] is the store.
 	private final Player player; // The Player on this Side
+	private final int pits; // The number of pits, also the store's index.
+	private final int firstSlot; // Zobrist slot of row[0].
 	private final int[] row; // This Side's pits and store
 	private int actionIndex; // Index of row where next game action occurs.
+	private int seedsInPits; // Running total of the seeds in the pits.
+	private long zobristKey; // Running Zobrist hash of this Side's row.
 
 	/**
 	 * Represents the players in {@code Mancala}, a two-player game. The
@@ -42,9 +46,36 @@ public class Side {
 	 * @param player Either {@code Player.One} or {@code Player.Two}.
 	 */
 	public Side(Player player) {
+		this(player, Variant.KALAH_6_4);
+	}
+
+	/**
+	 * Constructs a Side object with the {@code Player} value provided as
+	 * {@code player} argument, at the start of a game of {@code variant}.
+	 * 
+	 * @param player  Either {@code Player.One} or {@code Player.Two}.
+	 * @param variant The geometry and starting seeds of the board.
+	 */
+	public Side(Player player, Variant variant) {
+		this(player, variant.startRow());
+	}
+
+	/**
+	 * Constructs a Side object with the {@code Player} value provided as
+	 * {@code player} argument and a copy of the seed counts in {@code row}.
+	 * 
+	 * @param player Either {@code Player.One} or {@code Player.Two}.
+	 * @param row    The seed counts of the pits and, last, the store.
+	 */
+	Side(Player player, int[] row) {
 		this.player = player;
-		this.row = new int[ROW_SIZE];
-		Arrays.fill(row, 0, STORE_INDEX, SEED_START_VALUE);
+		this.pits = row.length - 1;
+		this.firstSlot = player.ordinal() * row.length;
+		this.row = row.clone();
+		for (int i = 0; i < pits; i++) {
+			seedsInPits += row[i];
+		}
+		this.zobristKey = computeZobristKey(row.length);
 	}
 
 	/**
@@ -55,7 +86,7 @@ public class Side {
 	 * @return True if it is a valid choice, False if not valid.
 	 */
 	public boolean isValidPit(int index) {
-		if (index >= 0 && index <= 5) {
+		if (index >= 0 && index < pits) {
 			if (row[index] != 0) {
 				return true;
 			}
@@ -74,31 +105,153 @@ public class Side {
 		actionIndex = index;
 
 		int temp = row[actionIndex];
-		row[actionIndex] = 0;
+		setSlot(actionIndex, 0);
+		if (actionIndex < pits) {
+			seedsInPits -= temp;
+		}
 		return temp;
 	}
 
 	/**
+	 * This method sows {@code seedsToSow} seeds one per slot, continuing from
+	 * the last action index. Full laps of the row are added arithmetically so
+	 * the cost does not depend on the number of seeds.
+	 * 
 	 * @param ourMove    True if the sowing of seeds is during our turn, false
 	 *                   if it is the opposing player's move.
 	 * @param seedsToSow The number of seeds that are to be sown.
 	 */
 	public void sowSeedsIntoPits(boolean ourMove, int seedsToSow) {
-		if (ourMove) {
-			for (int i = 0; i < seedsToSow; i++) { // loop through entire row
-				actionIndex++;
-				actionIndex = actionIndex % ROW_SIZE;
-				row[actionIndex] += 1;
-			}
+		if (pits == STORE_INDEX) {
+			sowSeedsIntoPits(ourMove, seedsToSow, STORE_INDEX);
 		} else {
-			actionIndex = 0;
-			for (int j = 0; j < seedsToSow; j++) { // loop up to excluding seed
-													// store
-				actionIndex = actionIndex % STORE_INDEX;
-				row[actionIndex++] += 1;
+			sowSeedsIntoPits(ourMove, seedsToSow, pits);
+		}
+	}
+
+	/*
+	 * Helper method: to sow on a row of pits pits. The standard board passes
+	 * the constant STORE_INDEX, so once this is inlined the JIT divides by
+	 * constants and unrolls the loops as it did before boards had a variant.
+	 */
+
+	private void sowSeedsIntoPits(boolean ourMove, int seedsToSow, int pits) {
+		if (ourMove) { // sow around the entire row, store included
+			int rowSize = pits + 1;
+			int start = actionIndex + 1;
+			int remainder = seedsToSow % rowSize;
+			addSeedsToPits(seedsToSow / rowSize, true, pits);
+			if (start + remainder > rowSize) {
+				sowSeedsIntoRange(start, rowSize, pits);
+				sowSeedsIntoRange(0, start + remainder - rowSize, pits);
+			} else {
+				sowSeedsIntoRange(start, start + remainder, pits);
 			}
+			actionIndex = (start - 1 + seedsToSow) % rowSize;
+		} else { // sow up to excluding seed store
+			addSeedsToPits(seedsToSow / pits, false, pits);
+			sowSeedsIntoRange(0, seedsToSow % pits, pits);
+			actionIndex = seedsToSow == 0 ? 0 : (seedsToSow - 1) % pits + 1;
 		}
+	}
 
+	/**
+	 * This adds one seed to every slot of {@code row} from {@code fromIndex}
+	 * inclusive to {@code toIndex} exclusive. If any seed is sown the action
+	 * index is left on the last slot that received a seed.
+	 * 
+	 * @param fromIndex The first index of {@code row} to receive a seed.
+	 * @param toIndex   The index after the last one to receive a seed.
+	 */
+	public void sowSeedsIntoRange(int fromIndex, int toIndex) {
+		sowSeedsIntoRange(fromIndex, toIndex, pits);
+	}
+
+	/*
+	 * Helper method: sowSeedsIntoRange on a row of pits pits, so callers on
+	 * the standard board sow with a constant size.
+	 */
+
+	void sowSeedsIntoRange(int fromIndex, int toIndex, int pits) {
+		if (toIndex <= fromIndex) {
+			return;
+		}
+		for (int i = fromIndex; i < toIndex; i++) {
+			setSlot(i, row[i] + 1);
+		}
+		seedsInPits += Math.min(toIndex, pits) - Math.min(fromIndex, pits);
+		actionIndex = toIndex - 1;
+	}
+
+	/**
+	 * This adds {@code seeds} seeds to every pit on our {@code Side}, which is
+	 * the effect of sowing {@code seeds} full laps around the board.
+	 * 
+	 * @param seeds        The number of seeds to add to every pit.
+	 * @param includeStore True if the store also receives {@code seeds}.
+	 */
+	public void addSeedsToPits(int seeds, boolean includeStore) {
+		addSeedsToPits(seeds, includeStore, pits);
+	}
+
+	/*
+	 * Helper method: addSeedsToPits on a row of pits pits, so callers on the
+	 * standard board add with a constant size.
+	 */
+
+	void addSeedsToPits(int seeds, boolean includeStore, int pits) {
+		if (seeds == 0) {
+			return;
+		}
+		int end = includeStore ? pits + 1 : pits;
+		for (int i = 0; i < end; i++) {
+			setSlot(i, row[i] + seeds);
+		}
+		seedsInPits += pits * seeds;
+	}
+
+	/**
+	 * This copies the seed counts of {@code row} into {@code dst} starting at
+	 * {@code offset}.
+	 * 
+	 * @param dst    The array receiving the seed counts.
+	 * @param offset The index of {@code dst} receiving the first pit.
+	 */
+	void saveRow(int[] dst, int offset) {
+		if (pits == STORE_INDEX) { // a constant length is copied inline
+			System.arraycopy(row, 0, dst, offset, ROW_SIZE);
+		} else {
+			System.arraycopy(row, 0, dst, offset, row.length);
+		}
+	}
+
+	/**
+	 * This replaces the seed counts of {@code row} with the ones saved in
+	 * {@code src} starting at {@code offset}.
+	 * 
+	 * @param src    The array holding the seed counts.
+	 * @param offset The index of {@code src} holding the first pit.
+	 */
+	void restoreRow(int[] src, int offset) {
+		if (pits == STORE_INDEX) {
+			restoreRow(src, offset, STORE_INDEX);
+		} else {
+			restoreRow(src, offset, pits);
+		}
+	}
+
+	/*
+	 * Helper method: restoreRow on a row of pits pits, so the standard board
+	 * copies and hashes with a constant size.
+	 */
+
+	private void restoreRow(int[] src, int offset, int pits) {
+		System.arraycopy(src, offset, row, 0, pits + 1);
+		seedsInPits = 0;
+		for (int i = 0; i < pits; i++) {
+			seedsInPits += row[i];
+		}
+		zobristKey = computeZobristKey(pits + 1);
 	}
 
 	/**
@@ -107,9 +260,11 @@ public class Side {
 	 */
 
 	public void emptyPitsToStore() {
-		int total = (int) Arrays.stream(row, 0, STORE_INDEX).sum();
-		addSeedsToStore(total);
-		Arrays.fill(row, 0, STORE_INDEX, 0);
+		addSeedsToStore(seedsInPits);
+		for (int i = 0; i < pits; i++) {
+			setSlot(i, 0);
+		}
+		seedsInPits = 0;
 	}
 
 	/**
@@ -118,7 +273,30 @@ public class Side {
 	 * @param seeds The number of seeds to add to our store.
 	 */
 	public void addSeedsToStore(int seeds) {
-		row[STORE_INDEX] += seeds;
+		setSlot(pits, row[pits] + seeds);
+	}
+
+	/*
+	 * Helper method: to write a seed count into row while keeping the
+	 * Zobrist hash of the row up to date.
+	 */
+
+	private void setSlot(int index, int seeds) {
+		int slot = firstSlot + index;
+		zobristKey ^= Zobrist.key(slot, row[index]) ^ Zobrist.key(slot, seeds);
+		row[index] = seeds;
+	}
+
+	/*
+	 * Helper method: to compute the Zobrist hash of row from scratch.
+	 */
+
+	private long computeZobristKey(int rowSize) {
+		long key = 0;
+		for (int i = 0; i < rowSize; i++) {
+			key ^= Zobrist.key(firstSlot + i, row[i]);
+		}
+		return key;
 	}
 
 	/**
@@ -132,7 +310,9 @@ public class Side {
 	}
 
 	/**
-	 * This is an accessor method for the row instance field.
+	 * This is an accessor method for the row instance field. The returned
+	 * array must not be modified, since the running pit total and hash are
+	 * only kept up to date by the methods of this class.
 	 * 
 	 * @return row the {@code row} for this {@code Side}.
 	 */
@@ -149,6 +329,15 @@ public class Side {
 		return actionIndex;
 	}
 
+	/**
+	 * This is an accessor method for the running Zobrist hash of our row.
+	 * 
+	 * @return the exclusive or of the {@code Zobrist} keys of every slot.
+	 */
+	public long getZobristKey() {
+		return zobristKey;
+	}
+
 	/**
 	 * This is an accessor method to get the seed count from the chosen pit.
 	 * 
@@ -166,16 +355,26 @@ public class Side {
 	 * @return the number of seeds in the store.
 	 */
 	public int getStoreCount() {
-		return row[STORE_INDEX];
+		return row[pits];
+	}
+
+	/**
+	 * This is an accessor method for the number of pits, which is also the
+	 * index of the store in {@code row}.
+	 * 
+	 * @return the number of pits on this {@code Side}.
+	 */
+	public int getPits() {
+		return pits;
 	}
 
 	/**
-	 * This method calculates the total number of seeds that are in pits,
-	 * excluding the number of seeds in the store.
+	 * This is an accessor method for the running total of seeds that are in
+	 * pits, excluding the number of seeds in the store.
 	 * 
 	 * @return the total number of seeds in pits.
 	 */
 	public int getNumSeedsInPits() {
-		return Arrays.stream(row, 0, STORE_INDEX).sum();
+		return seedsInPits;
 	}
 }
@@ -0,0 +1,139 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+/**
+ * {@code SowingTable} holds the sowing and capture transitions of one board
+ * size, precomputed so that {@code Mancala}'s {@code Engine.TABLES} sows a
+ * turn with lookups instead of division, remainders and comparisons.
+ * <p>
+ * A turn from pit {@code i} with {@code r} seeds left after the full laps
+ * sows three ranges, the mover's row from {@code i + 1}, the waiting row from
+ * 0 and the mover's row again from 0, and ends on one slot of the lap. All
+ * four are packed into one {@code int} per {@code (i, r)}, so a turn reads a
+ * single entry. The laps and remainder of every seed count up to
+ * {@link #COUNTED_SEEDS} are tabulated as well; larger counts, which only
+ * very large variants reach, are divided.
+ */
+
+final class SowingTable {
+
+	static final int COUNTED_SEEDS = 1024; // seed counts tabulated at most.
+	private static final int FIELD_BITS = 8; // bits per field of a transition.
+	private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+	private final int lapSize; // slots sown in a lap.
+	private final int counted; // seed counts below this are tabulated.
+	private final int[] transitions; // the ranges and landing per (i, r).
+	private final int[] laps; // laps[s] is the full laps of s seeds.
+	private final int[] remainders; // remainders[s] is s % lapSize.
+	private final int[] opposites; // opposites[i] is the pit opposite i.
+
+	/*
+	 * Constructs a new instance of SowingTable for a board of pits pits per
+	 * Side and at most totalSeeds seeds.
+	 */
+
+	SowingTable(int pits, int totalSeeds) {
+		int rowSize = pits + 1;
+		this.lapSize = 2 * pits + 1;
+		this.counted = Math.min(totalSeeds, COUNTED_SEEDS) + 1;
+		this.transitions = new int[pits * lapSize];
+		for (int i = 0; i < pits; i++) {
+			for (int r = 0; r < lapSize; r++) {
+				int start = i + 1; // first slot of the lap to get a seed
+				int end = start + r; // slot after the last one to get a seed
+				int landing = end - 1;
+				transitions[i * lapSize + r] = Math.min(end, rowSize)
+						| Math.max(0, Math.min(end, lapSize) - rowSize)
+								<< FIELD_BITS
+						| Math.max(0, end - lapSize) << 2 * FIELD_BITS
+						| (landing >= lapSize ? landing - lapSize : landing)
+								<< 3 * FIELD_BITS;
+			}
+		}
+		this.laps = new int[counted];
+		this.remainders = new int[counted];
+		for (int seeds = 0; seeds < counted; seeds++) {
+			laps[seeds] = seeds / lapSize;
+			remainders[seeds] = seeds % lapSize;
+		}
+		this.opposites = new int[pits];
+		for (int i = 0; i < pits; i++) {
+			opposites[i] = pits - 1 - i;
+		}
+	}
+
+	/*
+	 * Helper method: to get the full laps sown by seeds seeds.
+	 */
+
+	int laps(int seeds) {
+		return seeds < counted ? laps[seeds] : seeds / lapSize;
+	}
+
+	/*
+	 * Helper method: to get the seeds left to sow from a pit after the full
+	 * laps of seeds seeds.
+	 */
+
+	int remainder(int seeds) {
+		return seeds < counted ? remainders[seeds] : seeds % lapSize;
+	}
+
+	/*
+	 * Helper method: to get the transition of sowing remainder seeds from
+	 * pitIndex.
+	 */
+
+	int transition(int pitIndex, int remainder) {
+		return transitions[pitIndex * lapSize + remainder];
+	}
+
+	/*
+	 * Helper method: to get the end of the range sown on the mover's row from
+	 * pitIndex + 1 by transition.
+	 */
+
+	static int mineEnd(int transition) {
+		return transition & FIELD_MASK;
+	}
+
+	/*
+	 * Helper method: to get the end of the range sown on the waiting row from
+	 * 0 by transition.
+	 */
+
+	static int theirsEnd(int transition) {
+		return transition >>> FIELD_BITS & FIELD_MASK;
+	}
+
+	/*
+	 * Helper method: to get the end of the range sown on the mover's row from
+	 * 0, after going around the board, by transition.
+	 */
+
+	static int wrapEnd(int transition) {
+		return transition >>> 2 * FIELD_BITS & FIELD_MASK;
+	}
+
+	/*
+	 * Helper method: to get the slot of the lap, as sowSeeds returns it,
+	 * where the last seed of transition lands.
+	 */
+
+	static int landing(int transition) {
+		return transition >>> 3 * FIELD_BITS;
+	}
+
+	/*
+	 * Helper method: to get the waiting player's pit opposite the mover's
+	 * pit pitIndex.
+	 */
+
+	int opposite(int pitIndex) {
+		return opposites[pitIndex];
+	}
+}
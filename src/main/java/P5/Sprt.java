@@ -0,0 +1,157 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+/**
+ * {@code Sprt} is a sequential probability ratio test deciding, in as few
+ * games as possible, whether one player is {@code elo0} or {@code elo1} Elo
+ * stronger than another, with error rates {@code alpha} and {@code beta}.
+ * <p>
+ * Games are played in pairs from the same opening with the players swapping
+ * sides, and a pair scores 0, 0.5, 1, 1.5 or 2 points. The test takes the
+ * counts of those five pair scores, the pentanomial, because the two games
+ * of a pair are not independent. Its log-likelihood ratio is the normal
+ * approximation of the generalized test,
+ * {@code N (s1 - s0) (2 m - s0 - s1) / (2 v)} over {@code N} pairs with mean
+ * score {@code m} and variance {@code v} per game of a pair, where
+ * {@code s0} and {@code s1} are the expected scores of the two hypotheses.
+ * Half a pair is added to each count, so a short run of equal pairs, whose
+ * variance is 0, cannot end the test on its own.
+ */
+
+public final class Sprt {
+
+	/**
+	 * The outcomes of the test so far.
+	 */
+	public enum Verdict {
+		CONTINUE, ACCEPT_H0, ACCEPT_H1
+	}
+
+	public static final int PAIR_SCORES = 5; // 0 to 2 points in half points.
+	private static final double PRIOR = 0.5; // pairs added to every count.
+	private final double elo0; // the Elo difference of the null hypothesis.
+	private final double elo1; // the Elo difference of the alternative.
+	private final double lowerBound; // accepts H0 at or below.
+	private final double upperBound; // accepts H1 at or above.
+
+	/**
+	 * Constructs a new instance of {@code Sprt}.
+	 *
+	 * @param elo0  The Elo difference of the null hypothesis.
+	 * @param elo1  The Elo difference of the alternative, above
+	 *              {@code elo0}.
+	 * @param alpha The chance of accepting H1 when H0 holds.
+	 * @param beta  The chance of accepting H0 when H1 holds.
+	 * @throws IllegalArgumentException if the hypotheses or error rates are
+	 *                                  invalid.
+	 */
+	public Sprt(double elo0, double elo1, double alpha, double beta) {
+		if (!(elo0 < elo1) || !(alpha > 0 && alpha < 1)
+				|| !(beta > 0 && beta < 1)) {
+			throw new IllegalArgumentException("Invalid SPRT: elo0 " + elo0
+					+ ", elo1 " + elo1 + ", alpha " + alpha + ", beta " + beta);
+		}
+		this.elo0 = elo0;
+		this.elo1 = elo1;
+		this.lowerBound = Math.log(beta / (1 - alpha));
+		this.upperBound = Math.log((1 - beta) / alpha);
+	}
+
+	/**
+	 * This method calculates the expected score per game of a player
+	 * {@code elo} Elo stronger than its opponent.
+	 *
+	 * @param elo The Elo difference.
+	 * @return the expected score, between 0 and 1.
+	 */
+	public static double expectedScore(double elo) {
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+
+	/**
+	 * This method calculates the Elo difference of a player expected to
+	 * score {@code score} per game, the inverse of
+	 * {@link #expectedScore(double)}.
+	 *
+	 * @param score The score per game, between 0 and 1.
+	 * @return the Elo difference, infinite for a score of 0 or 1.
+	 */
+	public static double elo(double score) {
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+	/**
+	 * This method calculates the log-likelihood ratio of H1 against H0.
+	 *
+	 * @param pentanomial The number of pairs scoring 0, 0.5, 1, 1.5 and 2
+	 *                    points.
+	 * @return the log-likelihood ratio, 0 before the first pair.
+	 */
+	public double logLikelihoodRatio(long[] pentanomial) {
+		long pairs = 0;
+		for (long count : pentanomial) {
+			pairs += count;
+		}
+		if (pairs == 0) {
+			return 0;
+		}
+		// the prior keeps the first few pairs, which may all agree, from
+		// looking like certainty; over many pairs it does not matter
+		double total = pairs + PAIR_SCORES * PRIOR;
+		double mean = 0;
+		for (int k = 0; k < PAIR_SCORES; k++) {
+			mean += (pentanomial[k] + PRIOR) * k / 4.0;
+		}
+		mean /= total;
+		double variance = 0;
+		for (int k = 0; k < PAIR_SCORES; k++) {
+			double deviation = k / 4.0 - mean;
+			variance += (pentanomial[k] + PRIOR) * deviation * deviation;
+		}
+		variance /= total;
+		double s0 = expectedScore(elo0);
+		double s1 = expectedScore(elo1);
+		return pairs * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+	}
+
+	/**
+	 * This method decides the test on the pairs played so far.
+	 *
+	 * @param pentanomial The number of pairs scoring 0, 0.5, 1, 1.5 and 2
+	 *                    points.
+	 * @return the {@code Verdict}.
+	 */
+	public Verdict verdict(long[] pentanomial) {
+		double llr = logLikelihoodRatio(pentanomial);
+		return llr >= upperBound ? Verdict.ACCEPT_H1
+				: llr <= lowerBound ? Verdict.ACCEPT_H0 : Verdict.CONTINUE;
+	}
+
+	/**
+	 * Accessor method to get the bound at or below which H0 is accepted.
+	 *
+	 * @return the lower bound of the log-likelihood ratio.
+	 */
+	public double getLowerBound() {
+		return lowerBound;
+	}
+
+	/**
+	 * Accessor method to get the bound at or above which H1 is accepted.
+	 *
+	 * @return the upper bound of the log-likelihood ratio.
+	 */
+	public double getUpperBound() {
+		return upperBound;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("SPRT [%.1f, %.1f] bounds [%.2f, %.2f]", elo0,
+				elo1, lowerBound, upperBound);
+	}
+}
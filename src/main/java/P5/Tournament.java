@@ -0,0 +1,480 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import P5.Side.Player;
+
+/**
+ * {@code Tournament} plays a round robin between {@code Entrant}s on a pool
+ * of threads, to measure which engine settings are stronger. Every pairing
+ * plays the same number of rounds, and a round is a pair of games from one
+ * opening of random first moves, the players swapping sides for the second
+ * game. Each round uses a new opening, shared by every pairing, so the
+ * luck of the opening and the advantage of moving first cancel out.
+ * <p>
+ * Threads take the next round of the next pairing from a shared counter, so
+ * all pairings advance together and every thread stays busy. Each thread
+ * asks every {@code Entrant} once for the {@code MoveSelector} it uses in
+ * all of its games, calling {@link MoveSelector#newGame()} before each one.
+ * Openings and the random numbers of each game depend only on the seed and
+ * the round, and no selector carries anything from one game into the next,
+ * so without an {@code Sprt} a run repeats exactly whatever the threads.
+ * <p>
+ * With an {@code Sprt}, a pairing stops being played as soon as its test
+ * accepts either hypothesis, and the run ends once every pairing has a
+ * verdict. Every game is written to the log as one line: the game number,
+ * the names of {@code Player.One} and {@code Player.Two}, the pits of the
+ * opening, or {@code -} for none, the store margin of {@code Player.One}
+ * and the number of turns.
+ * <p>
+ * Usage: {@code java P5.Tournament <rounds> <threads> [depth ...]}, which
+ * pairs a random and a greedy player with an engine searching each depth.
+ */
+
+public class Tournament implements AutoCloseable {
+
+	private static final long OPENING_GAMMA = 0x9E37_79B9_7F4A_7C15L;
+	private static final long GAME_GAMMA = 0xC2B2_AE3D_27D4_EB4FL;
+	private final int threads; // the number of threads playing.
+	private final ExecutorService pool; // runs one task per thread.
+
+	/**
+	 * {@code Entrant} is a player of a {@code Tournament}: a name, used in
+	 * the log and the results, and a supplier of its {@code MoveSelector}s.
+	 */
+	public static final class Entrant {
+
+		private final String name; // the name of the player.
+		private final Supplier<MoveSelector> selectors; // one per thread.
+
+		/**
+		 * Constructs a new instance of {@code Entrant}.
+		 *
+		 * @param name      The name of the player, without white space.
+		 * @param selectors Supplies the selector of each thread.
+		 * @throws IllegalArgumentException if the name is empty or has white
+		 *                                  space.
+		 */
+		public Entrant(String name, Supplier<MoveSelector> selectors) {
+			if (name.isEmpty()
+					|| name.chars().anyMatch(Character::isWhitespace)) {
+				throw new IllegalArgumentException("Invalid name: " + name);
+			}
+			this.name = name;
+			this.selectors = selectors;
+		}
+
+		/**
+		 * This method returns an entrant playing uniformly random legal
+		 * moves.
+		 *
+		 * @return the entrant named {@code random}.
+		 */
+		public static Entrant random() {
+			return new Entrant("random", MoveSelector::random);
+		}
+
+		/**
+		 * This method returns an entrant playing the greedy move.
+		 *
+		 * @return the entrant named {@code greedy}.
+		 */
+		public static Entrant greedy() {
+			return new Entrant("greedy", MoveSelector::greedy);
+		}
+
+		/**
+		 * This method returns an entrant searching {@code depth} plies.
+		 *
+		 * @param depth     The depth of every search.
+		 * @param megabytes The size of the {@code TranspositionTable} of
+		 *                  each thread.
+		 * @return the entrant named {@code engine} followed by the depth.
+		 */
+		public static Entrant engine(int depth, int megabytes) {
+			return new Entrant("engine" + depth,
+					() -> MoveSelector.engine(depth, megabytes));
+		}
+
+		/**
+		 * Accessor method to get the name of the player.
+		 *
+		 * @return the name.
+		 */
+		public String getName() {
+			return name;
+		}
+	}
+
+	/**
+	 * Constructs a new instance of {@code Tournament} playing on
+	 * {@code threads} threads.
+	 *
+	 * @param threads The number of threads, at least 1.
+	 * @throws IllegalArgumentException if {@code threads} is less than 1.
+	 */
+	public Tournament(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException(
+					"At least one thread is needed: " + threads);
+		}
+		this.threads = threads;
+		this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "mancala-tournament");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Runs a tournament from the command line, logging every game and
+	 * printing the results, with an {@code Sprt} of 0 against 50 Elo.
+	 *
+	 * @param args The number of rounds, of threads and the engine depths.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println(
+					"Usage: Tournament <rounds> <threads> [depth ...]");
+			return;
+		}
+		long rounds = Long.parseLong(args[0]);
+		int threads = Integer.parseInt(args[1]);
+		List<Entrant> entrants = new ArrayList<>();
+		for (int i = 2; i < args.length; i++) {
+			entrants.add(Entrant.engine(Integer.parseInt(args[i]), 1));
+		}
+		entrants.add(Entrant.greedy());
+		entrants.add(Entrant.random());
+		try (Tournament tournament = new Tournament(threads)) {
+			System.out.println(tournament.play(entrants, rounds, 2,
+					new Sprt(0, 50, 0.05, 0.05), System.out,
+					System.nanoTime()));
+		}
+	}
+
+	/**
+	 * This method plays a round robin of {@code rounds} rounds, two games
+	 * each, in every pairing of {@code entrants}.
+	 *
+	 * @param entrants     The players, at least two with different names.
+	 * @param rounds       The most rounds played in each pairing.
+	 * @param openingPlies The random turns played at the start of every
+	 *                     opening.
+	 * @param sprt         The test that ends a pairing early, or null to
+	 *                     play every round.
+	 * @param log          Receives one line per game, or null.
+	 * @param seed         The seed of the openings and random players.
+	 * @return the results of every pairing.
+	 * @throws IllegalArgumentException if the entrants, rounds or opening
+	 *                                  plies are invalid.
+	 * @throws IllegalStateException    if a selector chooses an invalid pit.
+	 * @throws UncheckedIOException     if the log cannot be written.
+	 */
+	public TournamentResult play(List<Entrant> entrants, long rounds,
+			int openingPlies, Sprt sprt, Appendable log, long seed) {
+		Set<String> names = new HashSet<>();
+		for (Entrant entrant : entrants) {
+			if (!names.add(entrant.getName())) {
+				throw new IllegalArgumentException(
+						"Duplicate name: " + entrant.getName());
+			}
+		}
+		if (entrants.size() < 2 || rounds < 0 || openingPlies < 0) {
+			throw new IllegalArgumentException("Invalid tournament: "
+					+ entrants.size() + " entrants, " + rounds + " rounds, "
+					+ openingPlies + " opening plies");
+		}
+		long start = System.nanoTime();
+		List<Pairing> pairings = new ArrayList<>();
+		for (int i = 0; i < entrants.size(); i++) {
+			for (int j = i + 1; j < entrants.size(); j++) {
+				pairings.add(new Pairing(i, j));
+			}
+		}
+		Schedule schedule = new Schedule(entrants, pairings, rounds,
+				openingPlies, sprt, log, seed);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			futures.add(pool.submit(schedule::playRounds));
+		}
+		for (Future<?> future : futures) {
+			waitFor(future);
+		}
+
+		List<MatchStats> matches = new ArrayList<>();
+		long games = 0;
+		for (Pairing pairing : pairings) {
+			MatchStats match = pairing.toStats(entrants, sprt);
+			matches.add(match);
+			games += match.getGames();
+		}
+		return new TournamentResult(matches, games,
+				System.nanoTime() - start);
+	}
+
+	/**
+	 * This method stops the threads.
+	 */
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	/*
+	 * Helper method: to wait for a thread to finish its rounds.
+	 */
+
+	private static void waitFor(Future<?> future) {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted during tournament",
+					e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Tournament failed",
+					e.getCause());
+		}
+	}
+
+	/*
+	 * The rounds of one run, taken by the threads in order.
+	 */
+
+	private static final class Schedule {
+		private final List<Entrant> entrants; // the players.
+		private final List<Pairing> pairings; // every pair of players.
+		private final long total; // rounds over all pairings.
+		private final int openingPlies; // random turns of every opening.
+		private final Sprt sprt; // ends pairings early, or null.
+		private final Appendable log; // receives every game, or null.
+		private final long seed; // the seed of the run.
+		private final AtomicLong next = new AtomicLong(); // next round.
+		private final AtomicInteger undecided; // pairings still playing.
+
+		private Schedule(List<Entrant> entrants, List<Pairing> pairings,
+				long rounds, int openingPlies, Sprt sprt, Appendable log,
+				long seed) {
+			this.entrants = entrants;
+			this.pairings = pairings;
+			this.total = rounds * pairings.size();
+			this.openingPlies = openingPlies;
+			this.sprt = sprt;
+			this.log = log;
+			this.seed = seed;
+			this.undecided = new AtomicInteger(pairings.size());
+		}
+
+		/*
+		 * Helper method: to play rounds on the calling thread until every
+		 * round is taken or every pairing is decided. A failing thread takes
+		 * the rest of the rounds, so the others stop too.
+		 */
+
+		private void playRounds() {
+			Mancala game = new Mancala();
+			MoveSelector[] selectors = new MoveSelector[entrants.size()];
+			for (int i = 0; i < selectors.length; i++) {
+				selectors[i] = entrants.get(i).selectors.get();
+			}
+			try {
+				for (long n = next.getAndIncrement(); n < total
+						&& undecided.get() > 0; n = next.getAndIncrement()) {
+					Pairing pairing = pairings.get((int) (n % pairings.size()));
+					if (!pairing.decided) {
+						playRound(n, n / pairings.size(), pairing, game,
+								selectors);
+					}
+				}
+			} catch (RuntimeException e) {
+				next.set(total);
+				throw e;
+			}
+		}
+
+		/*
+		 * Helper method: to play round n, both games of round of pairing
+		 * from one opening.
+		 */
+
+		private void playRound(long n, long round, Pairing pairing,
+				Mancala game, MoveSelector[] selectors) {
+			int[] opening = opening(game,
+					new SplittableRandom(seed ^ round * OPENING_GAMMA));
+			SplittableRandom random = new SplittableRandom(
+					seed ^ ~n * GAME_GAMMA);
+			int first = playGame(2 * n, game, opening, pairing.first,
+					pairing.second, selectors, random);
+			int second = playGame(2 * n + 1, game, opening, pairing.second,
+					pairing.first, selectors, random);
+			if (pairing.record(first, -second, sprt)) {
+				undecided.decrementAndGet();
+			}
+		}
+
+		/*
+		 * Helper method: to choose the random turns of an opening, played
+		 * on game.
+		 */
+
+		private int[] opening(Mancala game, SplittableRandom random) {
+			MoveSelector randomMoves = MoveSelector.random();
+			int[] pits = new int[openingPlies];
+			game.reset();
+			int plies = 0;
+			while (plies < openingPlies && game.getLegalMoves() != 0) {
+				pits[plies] = randomMoves.selectMove(game, random);
+				game.takeTurn(pits[plies++]);
+			}
+			return plies == openingPlies ? pits
+					: Arrays.copyOf(pits, plies);
+		}
+
+		/*
+		 * Helper method: to play game number number from opening between
+		 * entrants one and two, log it and return the store margin of one.
+		 */
+
+		private int playGame(long number, Mancala game, int[] opening,
+				int one, int two, MoveSelector[] selectors,
+				SplittableRandom random) {
+			game.reset();
+			game.performTurns(opening, null);
+			selectors[one].newGame();
+			selectors[two].newGame();
+			int turns = opening.length;
+			while (game.getLegalMoves() != 0) {
+				MoveSelector selector = selectors[game
+						.getCurrentPlayer() == Player.One ? one : two];
+				int pitNumber = selector.selectMove(game, random);
+				if (!TurnResult.isPlayed(game.takeTurn(pitNumber))) {
+					throw new IllegalStateException(
+							"Invalid pit chosen: " + pitNumber);
+				}
+				turns++;
+			}
+			int margin = game.getStoreCount(Player.One)
+					- game.getStoreCount(Player.Two);
+			if (log != null) {
+				writeLine(number, one, two, opening, margin, turns);
+			}
+			return margin;
+		}
+
+		/*
+		 * Helper method: to write the log line of one game.
+		 */
+
+		private void writeLine(long number, int one, int two, int[] opening,
+				int margin, int turns) {
+			StringBuilder line = new StringBuilder(48).append(number)
+					.append(' ').append(entrants.get(one).getName())
+					.append(' ').append(entrants.get(two).getName())
+					.append(' ');
+			if (opening.length == 0) {
+				line.append('-');
+			}
+			for (int i = 0; i < opening.length; i++) {
+				line.append(i == 0 ? "" : ".").append(opening[i]);
+			}
+			line.append(' ').append(margin > 0 ? "+" : "").append(margin)
+					.append(' ').append(turns).append('\n');
+			try {
+				synchronized (log) {
+					log.append(line);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/*
+	 * The results so far of the games between the entrants first and second,
+	 * from the point of view of first.
+	 */
+
+	private static final class Pairing {
+		private final int first; // the entrant entered first.
+		private final int second; // the entrant entered after it.
+		private final long[] pentanomial = new long[Sprt.PAIR_SCORES];
+		private long wins; // games won by first.
+		private long draws; // games drawn.
+		private long losses; // games lost by first.
+		private volatile boolean decided; // flag set once the test decides.
+		private Sprt.Verdict verdict = Sprt.Verdict.CONTINUE; // once decided.
+
+		private Pairing(int first, int second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		/*
+		 * Helper method: to count a round whose games first won by the
+		 * margins a and b, and return True if it decides the test.
+		 */
+
+		private synchronized boolean record(int a, int b, Sprt sprt) {
+			int halfPoints = count(a) + count(b);
+			pentanomial[halfPoints]++;
+			if (decided || sprt == null) {
+				return false; // rounds already started still count
+			}
+			verdict = sprt.verdict(pentanomial);
+			decided = verdict != Sprt.Verdict.CONTINUE;
+			return decided;
+		}
+
+		/*
+		 * Helper method: to count one game won by margin and return the half
+		 * points it is worth.
+		 */
+
+		private int count(int margin) {
+			if (margin > 0) {
+				wins++;
+				return 2;
+			}
+			if (margin < 0) {
+				losses++;
+				return 0;
+			}
+			draws++;
+			return 1;
+		}
+
+		/*
+		 * Helper method: to get the MatchStats of the games played.
+		 */
+
+		private synchronized MatchStats toStats(List<Entrant> entrants,
+				Sprt sprt) {
+			return new MatchStats(entrants.get(first).getName(),
+					entrants.get(second).getName(), wins, draws, losses,
+					pentanomial, sprt == null ? null : verdict);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.List;
+
+/**
+ * {@code TournamentResult} holds the outcome of a {@code Tournament}: the
+ * {@code MatchStats} of every pairing, from the point of view of the player
+ * entered first, and the totals of the run.
+ */
+
+public final class TournamentResult {
+
+	private final List<MatchStats> matches; // one per pairing.
+	private final long games; // the games played in all pairings.
+	private final long elapsedNanos; // the wall-clock time of the run.
+
+	/**
+	 * Constructs a new instance of {@code TournamentResult}.
+	 *
+	 * @param matches      The stats of every pairing, copied.
+	 * @param games        The games played in all pairings.
+	 * @param elapsedNanos The wall-clock time of the run.
+	 */
+	public TournamentResult(List<MatchStats> matches, long games,
+			long elapsedNanos) {
+		this.matches = List.copyOf(matches);
+		this.games = games;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Accessor method to get the stats of every pairing.
+	 *
+	 * @return the unmodifiable stats, in the order the pairings were played.
+	 */
+	public List<MatchStats> getMatches() {
+		return matches;
+	}
+
+	/**
+	 * This method finds the stats of the pairing of two players.
+	 *
+	 * @param player   The name of the player entered first.
+	 * @param opponent The name of the player entered after it.
+	 * @return the stats from the point of view of {@code player}.
+	 * @throws IllegalArgumentException if the players were not paired in
+	 *                                  that order.
+	 */
+	public MatchStats getMatch(String player, String opponent) {
+		for (MatchStats match : matches) {
+			if (match.getPlayer().equals(player)
+					&& match.getOpponent().equals(opponent)) {
+				return match;
+			}
+		}
+		throw new IllegalArgumentException(
+				"No pairing of " + player + " and " + opponent);
+	}
+
+	/**
+	 * Accessor method to get the games played.
+	 *
+	 * @return the number of games in all pairings.
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Accessor method to get the wall-clock time of the run.
+	 *
+	 * @return the elapsed time in nanoseconds.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder(String.format(
+				"%d games in %.1f s", games, elapsedNanos / 1e9));
+		for (MatchStats match : matches) {
+			text.append(System.lineSeparator()).append(match);
+		}
+		return text.toString();
+	}
+}
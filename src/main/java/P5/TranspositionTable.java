@@ -0,0 +1,187 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.Arrays;
+
+/**
+ * {@code TranspositionTable} remembers search results by {@code Zobrist} hash
+ * so that positions reached through different move orders are searched once.
+ * <p>
+ * The table is one big {@code long[]} with two words per entry, a key and a
+ * packed data word, so even multi-gigabyte tables are a single object for the
+ * garbage collector. Its size is given in megabytes, by default from the
+ * {@code mancala.tt.mb} system property. An entry is replaced by a search of
+ * equal or greater depth, or by any search once it is left over from an older
+ * search.
+ * <p>
+ * The table may be shared by several searching threads without locks. The
+ * key word of an entry is stored exclusive-or'ed with its data word, so an
+ * entry torn by two racing writers no longer matches its key and simply
+ * reads as a miss. {@link #newSearch()} may also be called from any thread
+ * while others store: the generation is volatile, so every store after it
+ * returns sees the new age, although two racing calls may age the table by
+ * only one.
+ */
+
+public class TranspositionTable {
+
+	public static final String SIZE_PROPERTY = "mancala.tt.mb"; // size option.
+	public static final int DEFAULT_MEGABYTES = 16; // size without option.
+	public static final int EXACT = 1; // the score is exact.
+	public static final int LOWER_BOUND = 2; // the score failed high.
+	public static final int UPPER_BOUND = 3; // the score failed low.
+	private static final int ENTRY_BYTES = 2 * Long.BYTES; // key and data.
+	private static final long MAX_ENTRIES = 1L << 29; // keeps the array legal.
+	private static final long VALID = 1L << 63; // marks a stored data word.
+	private static final int DEPTH_SHIFT = 32; // 8 bits of remaining depth.
+	private static final int BOUND_SHIFT = 40; // 2 bits of bound type.
+	private static final int PIT_SHIFT = 42; // 5 bits of best pit number.
+	private static final int GENERATION_SHIFT = 47; // 8 bits of search age.
+	private final long[] table; // key and data words of every entry.
+	private final int indexMask; // entry count minus one.
+	private volatile int generation; // age of the current search.
+
+	/**
+	 * Constructs a new instance of {@code TranspositionTable} sized by the
+	 * {@code mancala.tt.mb} system property, or {@link #DEFAULT_MEGABYTES}.
+	 */
+	public TranspositionTable() {
+		this(Integer.getInteger(SIZE_PROPERTY, DEFAULT_MEGABYTES));
+	}
+
+	/**
+	 * Constructs a new instance of {@code TranspositionTable} using at most
+	 * {@code megabytes} of memory. The entry count is rounded down to a power
+	 * of two.
+	 *
+	 * @param megabytes The memory to use, at least 1.
+	 * @throws IllegalArgumentException if {@code megabytes} is less than 1.
+	 */
+	public TranspositionTable(int megabytes) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException(
+					"Table size must be at least 1 MB: " + megabytes);
+		}
+		long entries = Long.highestOneBit(
+				Math.min((long) megabytes * (1 << 20) / ENTRY_BYTES,
+						MAX_ENTRIES));
+		this.table = new long[(int) entries * 2];
+		this.indexMask = (int) entries - 1;
+	}
+
+	/**
+	 * This method starts a new search so that entries of earlier searches
+	 * give way to new ones regardless of depth.
+	 */
+	public void newSearch() {
+		generation = (generation + 1) & 0xFF;
+	}
+
+	/**
+	 * This method empties the table.
+	 */
+	public void clear() {
+		Arrays.fill(table, 0);
+	}
+
+	/**
+	 * This method looks up the entry of a position.
+	 *
+	 * @param key The {@code Zobrist} hash of the position.
+	 * @return the packed data word of the entry, or 0 if there is none. Use
+	 *         the static accessors of this class to unpack it.
+	 */
+	public long probe(long key) {
+		int index = ((int) key & indexMask) << 1;
+		long data = table[index + 1];
+		return (table[index] ^ data) == key ? data : 0;
+	}
+
+	/**
+	 * This method stores the result of searching a position, unless the slot
+	 * holds a deeper result of the current search.
+	 *
+	 * @param key     The {@code Zobrist} hash of the position.
+	 * @param depth   The remaining depth the position was searched to.
+	 * @param score   The score for the {@code Player} to move.
+	 * @param bound   {@link #EXACT}, {@link #LOWER_BOUND} or
+	 *                {@link #UPPER_BOUND}.
+	 * @param bestPit The best pit number found, or 0.
+	 */
+	public void store(long key, int depth, int score, int bound, int bestPit) {
+		int index = ((int) key & indexMask) << 1;
+		int current = generation; // one volatile read per store
+		long old = table[index + 1];
+		if (old != 0 && (table[index] ^ old) != key
+				&& generationOf(old) == current && depthOf(old) > depth) {
+			return; // depth-preferred replacement
+		}
+		long data = VALID | (long) current << GENERATION_SHIFT
+				| (long) bestPit << PIT_SHIFT | (long) bound << BOUND_SHIFT
+				| (long) depth << DEPTH_SHIFT | (score & 0xFFFF_FFFFL);
+		table[index] = key ^ data;
+		table[index + 1] = data;
+	}
+
+	/**
+	 * Accessor for the number of entries of the table.
+	 *
+	 * @return the number of entries.
+	 */
+	public int capacity() {
+		return indexMask + 1;
+	}
+
+	/**
+	 * Accessor for the score of a data word returned by {@link #probe(long)}.
+	 *
+	 * @param data A non-zero data word.
+	 * @return the stored score.
+	 */
+	public static int scoreOf(long data) {
+		return (int) data;
+	}
+
+	/**
+	 * Accessor for the depth of a data word returned by {@link #probe(long)}.
+	 *
+	 * @param data A non-zero data word.
+	 * @return the stored remaining depth.
+	 */
+	public static int depthOf(long data) {
+		return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	/**
+	 * Accessor for the bound of a data word returned by {@link #probe(long)}.
+	 *
+	 * @param data A non-zero data word.
+	 * @return {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}.
+	 */
+	public static int boundOf(long data) {
+		return (int) (data >>> BOUND_SHIFT) & 0x3;
+	}
+
+	/**
+	 * Accessor for the best pit of a data word returned by
+	 * {@link #probe(long)}.
+	 *
+	 * @param data A non-zero data word.
+	 * @return the stored pit number, or 0 if none was stored.
+	 */
+	public static int bestPitOf(long data) {
+		return (int) (data >>> PIT_SHIFT) & 0x1F; // up to Variant.MAX_PITS
+	}
+
+	/*
+	 * Helper method: to read the search age of a data word.
+	 */
+
+	private static int generationOf(long data) {
+		return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+	}
+}
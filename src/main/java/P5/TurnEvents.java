@@ -0,0 +1,160 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import P5.Side.Player;
+
+/**
+ * {@code TurnEvents} holds the Java Flight Recorder events of
+ * {@link Mancala#takeTurn(int)} and {@link Mancala#performTurns(int[], int[])}:
+ * {@code P5.Turn} times every turn, and {@code P5.Capture},
+ * {@code P5.GameOver} and {@code P5.InvalidMove} mark the turns that
+ * captured, ended the game or could not be played.
+ * <p>
+ * The events are recorded while a flight recording is running, for example
+ * one started with {@code -XX:StartFlightRecording}, and {@code P5.Turn}
+ * can be turned off on its own in the settings of the recording. While no
+ * recording is running, the JIT removes the event objects and their checks
+ * from the turn, so turns cost what they did without them. Moves made by
+ * the search with {@link Mancala#makeMove(int)} are not recorded.
+ */
+
+final class TurnEvents {
+
+	private static final String CATEGORY = "Mancala"; // shown in JMC.
+
+	private TurnEvents() {
+	}
+
+	/*
+	 * Helper method: to commit the events of a turn played by mover in game
+	 * with result, once turn has been ended. Kept small so it is inlined
+	 * into the turn and falls away with the events while they are disabled.
+	 */
+
+	static void commit(TurnEvent turn, Mancala game, Player mover,
+			int pitNumber, int result) {
+		if (turn.shouldCommit()) {
+			turn.player = mover.name();
+			turn.pit = pitNumber;
+			turn.result = result;
+			turn.commit();
+		}
+		if (!TurnResult.isPlayed(result)) {
+			InvalidMoveEvent invalid = new InvalidMoveEvent();
+			if (invalid.shouldCommit()) {
+				invalid.player = mover.name();
+				invalid.pit = pitNumber;
+				invalid.gameOver = TurnResult.isGameOver(result);
+				invalid.commit();
+			}
+			return;
+		}
+		if (TurnResult.isCapture(result)) {
+			CaptureEvent capture = new CaptureEvent();
+			if (capture.shouldCommit()) {
+				capture.player = mover.name();
+				capture.pit = pitNumber;
+				capture.landing = TurnResult.landingSlot(result);
+				capture.seeds = TurnResult.capturedSeeds(result);
+				capture.commit();
+			}
+		}
+		if (TurnResult.isGameOver(result)) {
+			GameOverEvent over = new GameOverEvent();
+			if (over.shouldCommit()) {
+				over.storeOne = game.getStoreCount(Player.One);
+				over.storeTwo = game.getStoreCount(Player.Two);
+				over.commit();
+			}
+		}
+	}
+
+	/*
+	 * A turn, timed from the choice of the pit to the settled board.
+	 */
+
+	@Name("P5.Turn")
+	@Label("Turn")
+	@Category(CATEGORY)
+	@Description("A turn played or refused by Mancala.takeTurn")
+	@StackTrace(false)
+	static final class TurnEvent extends Event {
+		@Label("Player")
+		String player; // the Player to move.
+
+		@Label("Pit")
+		int pit; // the pit chosen.
+
+		@Label("Result")
+		@Description("The TurnResult of the turn")
+		int result; // decoded by TurnResult.
+	}
+
+	/*
+	 * A turn whose last seed captured the seeds of the opposite pit.
+	 */
+
+	@Name("P5.Capture")
+	@Label("Capture")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class CaptureEvent extends Event {
+		@Label("Player")
+		String player; // the Player who captured.
+
+		@Label("Pit")
+		int pit; // the pit chosen.
+
+		@Label("Landing Slot")
+		int landing; // the pit index of the last seed.
+
+		@Label("Captured Seeds")
+		int seeds; // the waiting player's seeds captured.
+	}
+
+	/*
+	 * A turn that ended the game.
+	 */
+
+	@Name("P5.GameOver")
+	@Label("Game Over")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class GameOverEvent extends Event {
+		@Label("Store One")
+		int storeOne; // the final store of Player.One.
+
+		@Label("Store Two")
+		int storeTwo; // the final store of Player.Two.
+	}
+
+	/*
+	 * A pit that could not be played, because Side.isValidPit refused it or
+	 * the game was over.
+	 */
+
+	@Name("P5.InvalidMove")
+	@Label("Invalid Move")
+	@Category(CATEGORY)
+	static final class InvalidMoveEvent extends Event {
+		@Label("Player")
+		String player; // the Player to move.
+
+		@Label("Pit")
+		int pit; // the pit chosen.
+
+		@Label("Game Over")
+		boolean gameOver; // refused because the game was over.
+	}
+}
@@ -0,0 +1,210 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code TurnMetrics} counts the turns of many games from many threads:
+ * turns played and refused, captures, extra turns and games over, with a
+ * histogram of the time a turn takes and one of the seeds a capture takes.
+ * Counters are {@code LongAdder}s, so threads recording at once do not
+ * contend, and recording never allocates.
+ * <p>
+ * Histogram bucket {@code b} counts the values {@code v} with
+ * {@code 2^(b-1) <= v < 2^b}, and bucket 0 counts 0. {@link #writeTo} prints
+ * everything in the Prometheus text format for a local scrape.
+ */
+
+public final class TurnMetrics {
+
+	/**
+	 * The number of buckets of a histogram; the last counts everything from
+	 * {@code 2^(BUCKETS - 2)} up, over four minutes for latencies.
+	 */
+	public static final int BUCKETS = 40;
+
+	private final LongAdder turns = new LongAdder(); // turns played.
+	private final LongAdder rejected = new LongAdder(); // turns refused.
+	private final LongAdder captures = new LongAdder(); // capturing turns.
+	private final LongAdder extraTurns = new LongAdder(); // mover goes again.
+	private final LongAdder gamesOver = new LongAdder(); // turns ending games.
+	private final Histogram latency = new Histogram(); // nanos per turn.
+	private final Histogram captured = new Histogram(); // seeds per capture.
+
+	/**
+	 * This method records a turn.
+	 *
+	 * @param result The {@code TurnResult} of the turn.
+	 * @param nanos  The time the turn took.
+	 */
+	public void record(int result, long nanos) {
+		if (!TurnResult.isPlayed(result)) {
+			rejected.increment();
+			return;
+		}
+		turns.increment();
+		latency.record(nanos);
+		if (TurnResult.isCapture(result)) {
+			captures.increment();
+			captured.record(TurnResult.capturedSeeds(result));
+		}
+		if (TurnResult.isExtraTurn(result)) {
+			extraTurns.increment();
+		}
+		if (TurnResult.isGameOver(result)) {
+			gamesOver.increment();
+		}
+	}
+
+	/**
+	 * Accessor method to get the number of turns played.
+	 *
+	 * @return the turns recorded as played.
+	 */
+	public long getTurns() {
+		return turns.sum();
+	}
+
+	/**
+	 * Accessor method to get the number of turns refused.
+	 *
+	 * @return the turns whose pit could not be played.
+	 */
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * Accessor method to get the number of turns that captured.
+	 *
+	 * @return the capturing turns.
+	 */
+	public long getCaptures() {
+		return captures.sum();
+	}
+
+	/**
+	 * Accessor method to get the number of turns that earned another turn.
+	 *
+	 * @return the turns ending in the mover's store.
+	 */
+	public long getExtraTurns() {
+		return extraTurns.sum();
+	}
+
+	/**
+	 * Accessor method to get the number of turns that ended a game.
+	 *
+	 * @return the games finished.
+	 */
+	public long getGamesOver() {
+		return gamesOver.sum();
+	}
+
+	/**
+	 * Accessor method to get the histogram of the time turns took.
+	 *
+	 * @return the count of each of the {@link #BUCKETS} buckets, in
+	 *         nanoseconds.
+	 */
+	public long[] getLatencyBuckets() {
+		return latency.counts();
+	}
+
+	/**
+	 * Accessor method to get the histogram of the seeds captures took.
+	 *
+	 * @return the count of each of the {@link #BUCKETS} buckets.
+	 */
+	public long[] getCapturedSeedBuckets() {
+		return captured.counts();
+	}
+
+	/**
+	 * This method appends every metric to {@code text} in the Prometheus text
+	 * format, histograms with cumulative {@code le} buckets.
+	 *
+	 * @param text The buffer receiving the metrics.
+	 * @return {@code text}.
+	 */
+	public StringBuilder writeTo(StringBuilder text) {
+		counter(text, "mancala_turns_total", "Turns played.", turns);
+		counter(text, "mancala_turns_rejected_total",
+				"Turns whose pit could not be played.", rejected);
+		counter(text, "mancala_captures_total", "Turns that captured.",
+				captures);
+		counter(text, "mancala_extra_turns_total",
+				"Turns that earned another turn.", extraTurns);
+		counter(text, "mancala_games_over_total", "Turns that ended a game.",
+				gamesOver);
+		latency.writeTo(text, "mancala_turn_latency_nanoseconds",
+				"Time to play a turn.");
+		captured.writeTo(text, "mancala_captured_seeds",
+				"Seeds taken by a capture.");
+		return text;
+	}
+
+	/*
+	 * Helper method: to append a counter in the Prometheus text format.
+	 */
+
+	private static void counter(StringBuilder text, String name, String help,
+			LongAdder value) {
+		text.append("# HELP ").append(name).append(' ').append(help)
+				.append("\n# TYPE ").append(name).append(" counter\n")
+				.append(name).append(' ').append(value.sum()).append('\n');
+	}
+
+	/*
+	 * A histogram of non-negative values in power of two buckets, with the
+	 * sum of the values recorded.
+	 */
+
+	private static final class Histogram {
+		private final LongAdder[] buckets = new LongAdder[BUCKETS]; // counts.
+		private final LongAdder sum = new LongAdder(); // of values recorded.
+
+		private Histogram() {
+			for (int b = 0; b < BUCKETS; b++) {
+				buckets[b] = new LongAdder();
+			}
+		}
+
+		private void record(long value) {
+			long clamped = Math.max(value, 0);
+			int bucket = 64 - Long.numberOfLeadingZeros(clamped);
+			buckets[Math.min(bucket, BUCKETS - 1)].increment();
+			sum.add(clamped);
+		}
+
+		private long[] counts() {
+			long[] counts = new long[BUCKETS];
+			for (int b = 0; b < BUCKETS; b++) {
+				counts[b] = buckets[b].sum();
+			}
+			return counts;
+		}
+
+		private void writeTo(StringBuilder text, String name, String help) {
+			text.append("# HELP ").append(name).append(' ').append(help)
+					.append("\n# TYPE ").append(name).append(" histogram\n");
+			long count = 0;
+			for (int b = 0; b < BUCKETS - 1; b++) {
+				count += buckets[b].sum();
+				// bucket b holds values below 2^b, that is at most 2^b - 1
+				text.append(name).append("_bucket{le=\"")
+						.append((1L << b) - 1).append("\"} ").append(count)
+						.append('\n');
+			}
+			count += buckets[BUCKETS - 1].sum();
+			text.append(name).append("_bucket{le=\"+Inf\"} ").append(count)
+					.append('\n').append(name).append("_sum ")
+					.append(sum.sum()).append('\n').append(name)
+					.append("_count ").append(count).append('\n');
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+/**
+ * {@code TurnResult} decodes the {@code int} returned by
+ * {@link Mancala#takeTurn(int)}, which tells in one primitive what a turn
+ * did, so callers do not have to compare the board before and after.
+ * <p>
+ * Bit 0 is set if the turn was played. Bit 1 is set if the mover plays
+ * again, bit 2 if the last seed captured and bit 3 if the game is over after
+ * the call, which for a turn that was not played tells why it was refused.
+ * Bits 4 to 9 hold the slot of the lap where the last seed landed, counted
+ * from the mover's first pit: the mover's pits, the mover's store and then
+ * the waiting player's pits. Bits 10 to 31 hold the number of the waiting
+ * player's seeds captured, at most {@link #MAX_CAPTURED}.
+ * <p>
+ * All methods are static, and apart from {@link #toString(int)} never
+ * allocate.
+ */
+
+public final class TurnResult {
+
+	public static final int REJECTED = 0; // no turn, the game goes on.
+	public static final int PLAYED = 1; // flag bit, the turn was played.
+	public static final int EXTRA_TURN = 2; // flag bit, the mover goes again.
+	public static final int CAPTURE = 4; // flag bit, the last seed captured.
+	public static final int GAME_OVER = 8; // flag bit, the game has ended.
+	public static final int MAX_CAPTURED = (1 << 22) - 1; // widest count.
+	static final int LANDING_SHIFT = 4; // position of landing slot.
+	private static final int LANDING_MASK = 0x3F; // 6 bits of landing slot.
+	static final int CAPTURED_SHIFT = 10; // position of the count.
+
+	private TurnResult() {
+	}
+
+	/*
+	 * Helper method: to encode the result of a turn that was played;
+	 * captured is -1 if the last seed did not capture.
+	 */
+
+	static int played(int landing, int captured, boolean extraTurn,
+			boolean gameOver) {
+		int result = PLAYED | landing << LANDING_SHIFT;
+		if (captured >= 0) {
+			result |= CAPTURE
+					| Math.min(captured, MAX_CAPTURED) << CAPTURED_SHIFT;
+		}
+		if (extraTurn) {
+			result |= EXTRA_TURN;
+		}
+		if (gameOver) {
+			result |= GAME_OVER;
+		}
+		return result;
+	}
+
+	/**
+	 * Accessor method to find whether the turn was played.
+	 *
+	 * @param result The result of the turn.
+	 * @return True if the turn was played, False if the pit could not be
+	 *         played or the game was already over.
+	 */
+	public static boolean isPlayed(int result) {
+		return (result & PLAYED) != 0;
+	}
+
+	/**
+	 * Accessor method to find whether the mover plays again.
+	 *
+	 * @param result The result of the turn.
+	 * @return True if the last seed landed in the mover's store and the game
+	 *         goes on.
+	 */
+	public static boolean isExtraTurn(int result) {
+		return (result & EXTRA_TURN) != 0;
+	}
+
+	/**
+	 * Accessor method to find whether the last seed captured.
+	 *
+	 * @param result The result of the turn.
+	 * @return True if the last seed landed in an empty pit of the mover.
+	 */
+	public static boolean isCapture(int result) {
+		return (result & CAPTURE) != 0;
+	}
+
+	/**
+	 * Accessor method to find whether the game is over after the call.
+	 *
+	 * @param result The result of the turn.
+	 * @return True if the game is over.
+	 */
+	public static boolean isGameOver(int result) {
+		return (result & GAME_OVER) != 0;
+	}
+
+	/**
+	 * Accessor method to get the slot where the last seed landed.
+	 *
+	 * @param result The result of a turn that was played.
+	 * @return the slot of the lap counted from the mover's first pit: below
+	 *         the pits of the {@code Variant} for the mover's pits, the
+	 *         pits for the mover's store, above it for the waiting player's
+	 *         pits.
+	 */
+	public static int landingSlot(int result) {
+		return result >>> LANDING_SHIFT & LANDING_MASK;
+	}
+
+	/**
+	 * Accessor method to get the waiting player's seeds captured.
+	 *
+	 * @param result The result of the turn.
+	 * @return the seeds taken from the pit opposite the last seed, 0 if
+	 *         there was no capture.
+	 */
+	public static int capturedSeeds(int result) {
+		return result >>> CAPTURED_SHIFT;
+	}
+
+	/**
+	 * This method describes a result for logs and messages.
+	 *
+	 * @param result The result of the turn.
+	 * @return the description, such as {@code played landing 3 capture 5}.
+	 */
+	public static String toString(int result) {
+		if (!isPlayed(result)) {
+			return isGameOver(result) ? "rejected game over" : "rejected";
+		}
+		StringBuilder text = new StringBuilder("played landing ")
+				.append(landingSlot(result));
+		if (isCapture(result)) {
+			text.append(" capture ").append(capturedSeeds(result));
+		}
+		if (isExtraTurn(result)) {
+			text.append(" extra turn");
+		}
+		if (isGameOver(result)) {
+			text.append(" game over");
+		}
+		return text.toString();
+	}
+}
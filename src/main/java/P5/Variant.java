@@ -0,0 +1,152 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import java.util.Arrays;
+
+/**
+ * {@code Variant} describes the geometry of a Kalah board: the number of
+ * pits on each {@code Side} and the seeds in every pit at the start. Kalah is
+ * a game of two players, so every variant has two {@code Side}s.
+ * <p>
+ * Variants are immutable. The common ones, {@link #KALAH_6_4} and
+ * {@link #KALAH_6_3}, are shared constants returned by
+ * {@link #of(int, int)}, and a {@code Mancala} of any variant with six pits
+ * can be packed into a {@code Position}.
+ */
+
+public final class Variant {
+
+	public static final int MAX_PITS = 16; // most pits per Side.
+	public static final Variant KALAH_6_4 = new Variant(Side.STORE_INDEX,
+			Side.SEED_START_VALUE); // the standard game.
+	public static final Variant KALAH_6_3 = new Variant(Side.STORE_INDEX, 3);
+	private final int pits; // pits on each Side.
+	private final int seedsPerPit; // seeds in every pit at the start.
+	private final int[] startRow; // a row at the start, store last.
+	private SowingTable sowingTable; // built on first use, then shared.
+
+	/*
+	 * Constructs a new instance of Variant with pits pits holding
+	 * seedsPerPit seeds each.
+	 */
+
+	private Variant(int pits, int seedsPerPit) {
+		this.pits = pits;
+		this.seedsPerPit = seedsPerPit;
+		this.startRow = new int[pits + 1];
+		Arrays.fill(startRow, 0, pits, seedsPerPit);
+	}
+
+	/**
+	 * This method gets the variant with {@code pits} pits per {@code Side}
+	 * and {@code seedsPerPit} seeds in every pit at the start.
+	 *
+	 * @param pits        The pits per {@code Side}, between 1 and
+	 *                    {@link #MAX_PITS} inclusive.
+	 * @param seedsPerPit The seeds in every pit at the start, at least 1.
+	 * @return the variant.
+	 * @throws IllegalArgumentException if the geometry is not supported.
+	 */
+	public static Variant of(int pits, int seedsPerPit) {
+		if (pits < 1 || pits > MAX_PITS || seedsPerPit < 1
+				|| seedsPerPit > Integer.MAX_VALUE / (2 * pits)) {
+			throw new IllegalArgumentException(
+					"Invalid variant: " + pits + " pits, " + seedsPerPit
+							+ " seeds per pit");
+		}
+		if (pits == KALAH_6_4.pits) {
+			if (seedsPerPit == KALAH_6_4.seedsPerPit) {
+				return KALAH_6_4;
+			}
+			if (seedsPerPit == KALAH_6_3.seedsPerPit) {
+				return KALAH_6_3;
+			}
+		}
+		return new Variant(pits, seedsPerPit);
+	}
+
+	/**
+	 * Accessor method to get the pits per {@code Side}.
+	 *
+	 * @return the number of pits on each {@code Side}, not counting the
+	 *         store.
+	 */
+	public int getPits() {
+		return pits;
+	}
+
+	/**
+	 * Accessor method to get the seeds in every pit at the start.
+	 *
+	 * @return the starting seeds per pit.
+	 */
+	public int getSeedsPerPit() {
+		return seedsPerPit;
+	}
+
+	/**
+	 * Accessor method to get the length of a row, the pits and the store.
+	 *
+	 * @return the pits plus one.
+	 */
+	public int getRowSize() {
+		return pits + 1;
+	}
+
+	/**
+	 * Accessor method to find whether games of this variant can be packed
+	 * into a {@code Position}.
+	 *
+	 * @return True if the variant has six pits and at most
+	 *         {@code Position.MAX_SEEDS} seeds.
+	 */
+	public boolean fitsPosition() {
+		return pits == Side.STORE_INDEX
+				&& 2 * pits * seedsPerPit <= Position.MAX_SEEDS;
+	}
+
+	/*
+	 * Helper method: to get the row of either Side at the start; the array
+	 * is shared and must not be modified.
+	 */
+
+	int[] startRow() {
+		return startRow;
+	}
+
+	/*
+	 * Helper method: to get the SowingTable of this geometry, built the
+	 * first time it is asked for. The table is immutable, so threads racing
+	 * to build it at worst build it twice.
+	 */
+
+	SowingTable sowingTable() {
+		SowingTable table = sowingTable;
+		if (table == null) {
+			table = new SowingTable(pits, 2 * pits * seedsPerPit);
+			sowingTable = table;
+		}
+		return table;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Variant
+				&& ((Variant) other).pits == pits
+				&& ((Variant) other).seedsPerPit == seedsPerPit;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * pits + seedsPerPit;
+	}
+
+	@Override
+	public String toString() {
+		return "Kalah(" + pits + "," + seedsPerPit + ")";
+	}
+}
@@ -0,0 +1,311 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@code VectorStep} steps the games of a {@code GameBatch} a vector of
+ * games at a time with the incubating Vector API. It is only loaded by
+ * {@code GameBatch} once the {@code jdk.incubator.vector} module is known to
+ * be present.
+ * <p>
+ * A lane is a game. The slot of the lap a board slot has for the mover of a
+ * lane, its relative slot, is the same for every lane with the same mover,
+ * so every pass walks the board slots in order, loads that slot of every
+ * lane, and picks the lanes to change with masks comparing relative slots:
+ * the chosen pit, the landing slot, the pit opposite it, and the stores.
+ * <p>
+ * A turn takes four passes over all games, each its own method, that hand
+ * their lanes to the next pass in per-game columns. One loop doing all of
+ * them grows past what C2 inlines in one compilation, and the vectors it
+ * fails to inline are boxed on the heap.
+ */
+
+final class VectorStep {
+
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+	private static final int REFUSED = -1; // pit and landing of refused games.
+	private final int[][] slots; // the slots of the GameBatch.
+	private final int[] twoToMove; // the movers of the GameBatch.
+	private final int[] gameOver; // the game over flags of the GameBatch.
+	private final int pits; // pits per Side.
+	private final int bound; // the games stepped, a multiple of the length.
+	private final int[] pit; // the pit index chosen, or REFUSED.
+	private final int[] laps; // full laps sown.
+	private final int[] remainder; // seeds sown after the full laps.
+	private final int[] landing; // relative slot of the last seed, or REFUSED.
+	private final int[] captured; // the seeds captured, or -1 for none.
+	private final int[] seedsMine; // seeds in the pits of the mover.
+	private final int[] seedsTheirs; // seeds in the pits of the waiting one.
+
+	/*
+	 * Constructs a new instance of VectorStep for the games of a GameBatch
+	 * that fill whole vectors.
+	 */
+
+	VectorStep(int[][] slots, int[] twoToMove, int[] gameOver, int pits) {
+		this.slots = slots;
+		this.twoToMove = twoToMove;
+		this.gameOver = gameOver;
+		this.pits = pits;
+		this.bound = SPECIES.loopBound(twoToMove.length);
+		this.pit = new int[bound];
+		this.laps = new int[bound];
+		this.remainder = new int[bound];
+		this.landing = new int[bound];
+		this.captured = new int[bound];
+		this.seedsMine = new int[bound];
+		this.seedsTheirs = new int[bound];
+	}
+
+	/*
+	 * Helper method: to get the number of games, from the first, that step
+	 * handles; the rest do not fill a vector.
+	 */
+
+	int getBound() {
+		return bound;
+	}
+
+	/*
+	 * Helper method: to play pitNumbers[g] in every game g below the bound,
+	 * writing the TurnResults to results and returning the number of games
+	 * in which a turn was played.
+	 */
+
+	int step(int[] pitNumbers, int[] results) {
+		collect(pitNumbers);
+		sow();
+		capture();
+		return settle(results);
+	}
+
+	/*
+	 * Helper method: to empty the chosen pits and work out the laps, the
+	 * remainder and the landing slot of every game; refused games get
+	 * REFUSED and sow nothing.
+	 */
+
+	private void collect(int[] pitNumbers) {
+		int rowSize = pits + 1;
+		int lapSize = 2 * pits + 1;
+		IntVector zero = IntVector.zero(SPECIES);
+		IntVector one = IntVector.broadcast(SPECIES, 1);
+		IntVector lap = IntVector.broadcast(SPECIES, lapSize);
+		for (int g = 0; g < bound; g += SPECIES.length()) {
+			VectorMask<Integer> two = IntVector
+					.fromArray(SPECIES, twoToMove, g)
+					.compare(VectorOperators.NE, 0);
+			IntVector chosen = IntVector.fromArray(SPECIES, pitNumbers, g)
+					.sub(1);
+			VectorMask<Integer> valid = IntVector
+					.fromArray(SPECIES, gameOver, g)
+					.compare(VectorOperators.EQ, 0)
+					.and(chosen.compare(VectorOperators.GE, 0))
+					.and(chosen.compare(VectorOperators.LT, pits));
+			IntVector seeds = zero;
+			for (int s = 0; s < slots.length; s++) {
+				IntVector rel = relative(s, rowSize, two);
+				VectorMask<Integer> emptied = valid
+						.and(rel.compare(VectorOperators.EQ, chosen));
+				IntVector slot = IntVector.fromArray(SPECIES, slots[s], g);
+				seeds = seeds.add(slot, emptied);
+				slot.blend(zero, emptied).intoArray(slots[s], g);
+			}
+			valid = valid.and(seeds.compare(VectorOperators.NE, 0));
+			seeds = seeds.blend(zero, valid.not());
+
+			// full laps by subtraction; most turns have none
+			IntVector lapsSown = zero;
+			VectorMask<Integer> more;
+			while ((more = seeds.compare(VectorOperators.GE, lapSize))
+					.anyTrue()) {
+				lapsSown = lapsSown.add(one, more);
+				seeds = seeds.sub(lap, more);
+			}
+			IntVector last = chosen.add(seeds);
+			last = last.sub(lap, last.compare(VectorOperators.GE, lapSize));
+
+			IntVector refused = IntVector.broadcast(SPECIES, REFUSED);
+			refused.blend(chosen, valid).intoArray(pit, g);
+			refused.blend(last, valid).intoArray(landing, g);
+			lapsSown.intoArray(laps, g);
+			seeds.intoArray(remainder, g);
+		}
+	}
+
+	/*
+	 * Helper method: to sow the seeds of every game, skipping the waiting
+	 * store, and note what the last seed captures.
+	 */
+
+	private void sow() {
+		int rowSize = pits + 1;
+		int lapSize = 2 * pits + 1;
+		int theirStore = lapSize; // relative slot of the waiting store
+		IntVector zero = IntVector.zero(SPECIES);
+		IntVector one = IntVector.broadcast(SPECIES, 1);
+		IntVector lap = IntVector.broadcast(SPECIES, lapSize);
+		IntVector none = IntVector.broadcast(SPECIES, -1);
+		for (int g = 0; g < bound; g += SPECIES.length()) {
+			VectorMask<Integer> two = IntVector
+					.fromArray(SPECIES, twoToMove, g)
+					.compare(VectorOperators.NE, 0);
+			IntVector chosen = IntVector.fromArray(SPECIES, pit, g);
+			IntVector lapsSown = IntVector.fromArray(SPECIES, laps, g);
+			IntVector seeds = IntVector.fromArray(SPECIES, remainder, g);
+			IntVector last = IntVector.fromArray(SPECIES, landing, g);
+			IntVector opposite = IntVector
+					.broadcast(SPECIES, rowSize + pits - 1).sub(last);
+			IntVector landingCount = zero;
+			IntVector oppositeCount = zero;
+			for (int s = 0; s < slots.length; s++) {
+				IntVector rel = relative(s, rowSize, two);
+				IntVector distance = rel.sub(chosen).sub(1);
+				distance = distance.add(lap,
+						distance.compare(VectorOperators.LT, 0));
+				IntVector sown = lapsSown.add(one,
+						distance.compare(VectorOperators.LT, seeds));
+				IntVector slot = IntVector.fromArray(SPECIES, slots[s], g)
+						.add(sown, rel.compare(VectorOperators.NE, theirStore));
+				slot.intoArray(slots[s], g);
+				landingCount = landingCount.add(slot,
+						rel.compare(VectorOperators.EQ, last));
+				oppositeCount = oppositeCount.add(slot,
+						rel.compare(VectorOperators.EQ, opposite));
+			}
+			VectorMask<Integer> capture = last
+					.compare(VectorOperators.GE, 0)
+					.and(last.compare(VectorOperators.LT, pits))
+					.and(landingCount.compare(VectorOperators.EQ, 1));
+			none.blend(oppositeCount, capture).intoArray(captured, g);
+		}
+	}
+
+	/*
+	 * Helper method: to move captured seeds to the mover's store, and count
+	 * the seeds left in the pits of both sides.
+	 */
+
+	private void capture() {
+		int rowSize = pits + 1;
+		int theirStore = 2 * pits + 1;
+		IntVector zero = IntVector.zero(SPECIES);
+		IntVector one = IntVector.broadcast(SPECIES, 1);
+		for (int g = 0; g < bound; g += SPECIES.length()) {
+			VectorMask<Integer> two = IntVector
+					.fromArray(SPECIES, twoToMove, g)
+					.compare(VectorOperators.NE, 0);
+			IntVector taken = IntVector.fromArray(SPECIES, captured, g);
+			VectorMask<Integer> capture = taken.compare(VectorOperators.GE,
+					0);
+			boolean anyCapture = capture.anyTrue();
+			IntVector last = IntVector.fromArray(SPECIES, landing, g);
+			IntVector opposite = IntVector
+					.broadcast(SPECIES, rowSize + pits - 1).sub(last);
+			IntVector mine = zero;
+			IntVector theirs = zero;
+			for (int s = 0; s < slots.length; s++) {
+				IntVector rel = relative(s, rowSize, two);
+				IntVector slot = IntVector.fromArray(SPECIES, slots[s], g);
+				if (anyCapture) {
+					slot = slot.blend(zero, capture.and(
+							rel.compare(VectorOperators.EQ, last).or(rel
+									.compare(VectorOperators.EQ, opposite))));
+					slot = slot.add(taken.add(one),
+							capture.and(rel.compare(VectorOperators.EQ, pits)));
+					slot.intoArray(slots[s], g);
+				}
+				mine = mine.add(slot, rel.compare(VectorOperators.LT, pits));
+				theirs = theirs.add(slot,
+						rel.compare(VectorOperators.GE, rowSize).and(
+								rel.compare(VectorOperators.LT, theirStore)));
+			}
+			mine.intoArray(seedsMine, g);
+			theirs.intoArray(seedsTheirs, g);
+		}
+	}
+
+	/*
+	 * Helper method: to end the games with an empty side, pass the turn and
+	 * write the TurnResults, returning the number of turns played.
+	 */
+
+	private int settle(int[] results) {
+		int rowSize = pits + 1;
+		int theirStore = 2 * pits + 1;
+		IntVector zero = IntVector.zero(SPECIES);
+		IntVector one = IntVector.broadcast(SPECIES, 1);
+		int played = 0;
+		for (int g = 0; g < bound; g += SPECIES.length()) {
+			IntVector mover = IntVector.fromArray(SPECIES, twoToMove, g);
+			VectorMask<Integer> two = mover.compare(VectorOperators.NE, 0);
+			IntVector over = IntVector.fromArray(SPECIES, gameOver, g);
+			IntVector last = IntVector.fromArray(SPECIES, landing, g);
+			IntVector mine = IntVector.fromArray(SPECIES, seedsMine, g);
+			IntVector theirs = IntVector.fromArray(SPECIES, seedsTheirs, g);
+			VectorMask<Integer> valid = last.compare(VectorOperators.GE, 0);
+			VectorMask<Integer> ends = valid.and(
+					mine.compare(VectorOperators.EQ, 0).or(
+							theirs.compare(VectorOperators.EQ, 0)));
+			if (ends.anyTrue()) {
+				for (int s = 0; s < slots.length; s++) {
+					IntVector rel = relative(s, rowSize, two);
+					IntVector slot = IntVector.fromArray(SPECIES, slots[s], g);
+					if (s % rowSize == pits) { // a store
+						slot = slot.add(mine, ends.and(
+								rel.compare(VectorOperators.EQ, pits)));
+						slot = slot.add(theirs, ends.and(
+								rel.compare(VectorOperators.EQ, theirStore)));
+					} else {
+						slot = slot.blend(zero, ends);
+					}
+					slot.intoArray(slots[s], g);
+				}
+			}
+
+			VectorMask<Integer> extraTurn = valid
+					.and(last.compare(VectorOperators.EQ, pits)).andNot(ends);
+			VectorMask<Integer> switching = valid.andNot(extraTurn)
+					.andNot(ends);
+			mover.blend(one.sub(mover), switching).intoArray(twoToMove, g);
+			over.blend(one, ends).intoArray(gameOver, g);
+
+			IntVector taken = IntVector.fromArray(SPECIES, captured, g);
+			IntVector result = last
+					.lanewise(VectorOperators.LSHL, TurnResult.LANDING_SHIFT)
+					.or(TurnResult.PLAYED);
+			result = result.blend(result.or(taken
+					.min(TurnResult.MAX_CAPTURED)
+					.lanewise(VectorOperators.LSHL, TurnResult.CAPTURED_SHIFT)
+					.or(TurnResult.CAPTURE)),
+					taken.compare(VectorOperators.GE, 0));
+			result = result.blend(result.or(TurnResult.EXTRA_TURN), extraTurn);
+			result = result.blend(result.or(TurnResult.GAME_OVER), ends);
+			IntVector refused = zero.blend(TurnResult.GAME_OVER,
+					over.compare(VectorOperators.NE, 0));
+			refused.blend(result, valid).intoArray(results, g);
+			played += valid.trueCount();
+		}
+		return played;
+	}
+
+	/*
+	 * Helper method: to get the relative slot of board slot s in every lane:
+	 * s itself where Player.One moves, the same slot of the other row where
+	 * Player.Two moves.
+	 */
+
+	private static IntVector relative(int s, int rowSize,
+			VectorMask<Integer> two) {
+		return IntVector.broadcast(SPECIES, s).blend(
+				s < rowSize ? s + rowSize : s - rowSize, two);
+	}
+}
@@ -0,0 +1,64 @@
+/**
+ * @author Dustin Hagstrom
+ * @version 1.0
+ */
+
+package P5;
+
+/**
+ * {@code Zobrist} provides the random keys used to hash {@code Mancala}
+ * positions. The hash of a position is the exclusive or of one key per pit or
+ * store, chosen by its seed count, and {@link #SIDE_TO_MOVE} when
+ * {@code Player.Two} is to move. Changing the count of one slot from
+ * {@code a} to {@code b} therefore updates the hash with
+ * {@code key(slot, a) ^ key(slot, b)}.
+ * <p>
+ * Slots 0 to 6 are the row of {@code Player.One} and slots 7 to 13 the row of
+ * {@code Player.Two}. Boards of other variants number their slots the same
+ * way, row after row, so the table holds the rows of the widest board.
+ */
+
+public final class Zobrist {
+
+	public static final int SLOTS = 2 * (Variant.MAX_PITS + 1); // widest.
+	private static final int COUNTS = 256; // seed counts held in the table.
+	// key for Player.Two, drawn just past the inputs used for the table.
+	public static final long SIDE_TO_MOVE = mix(SLOTS * COUNTS);
+	private static final long[] KEYS = new long[SLOTS * COUNTS];
+
+	static {
+		for (int i = 0; i < KEYS.length; i++) {
+			KEYS[i] = mix(i);
+		}
+	}
+
+	private Zobrist() {
+	}
+
+	/**
+	 * Accessor for the key of a slot holding {@code count} seeds.
+	 *
+	 * @param slot  The slot, 0 to 13 on the standard board, below
+	 *              {@link #SLOTS} on any board.
+	 * @param count The number of seeds in the slot.
+	 * @return the key of the slot and count.
+	 */
+	public static long key(int slot, int count) {
+		if (count < COUNTS) {
+			return KEYS[slot * COUNTS + count];
+		}
+		return mix((long) count * SLOTS + slot + KEYS.length);
+	}
+
+	/*
+	 * Helper method: the SplitMix64 finalizer, used to fill the table with
+	 * well distributed keys and to cover counts beyond the table.
+	 */
+
+	private static long mix(long value) {
+		long z = value * 0x9E37_79B9_7F4A_7C15L + 0x9E37_79B9_7F4A_7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+		return z ^ (z >>> 31);
+	}
+}
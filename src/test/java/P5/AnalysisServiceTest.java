@@ -0,0 +1,144 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AnalysisServiceTest {
+
+	@Test
+	@DisplayName("Test analyses stream deeper results until they end")
+	void testStreaming() throws Exception {
+		try (AnalysisService service = new AnalysisService(2,
+				new TranspositionTable(1))) {
+			Recorder recorder = new Recorder();
+			Analysis analysis = service.analyze(new Mancala(), 8, null,
+					recorder);
+			SearchResult last = analysis.getResult().get(30, TimeUnit.SECONDS);
+			recorder.done.get(30, TimeUnit.SECONDS);
+
+			assertEquals(8, last.getDepth());
+			assertSame(last, analysis.getLatest());
+			int depth = 1;
+			for (SearchResult result : recorder.results) {
+				assertEquals(depth++, result.getDepth()); // one ply at a time
+				assertEquals(result.getBestPit(),
+						result.getPrincipalVariation()[0]);
+				assertTrue((new Mancala().getLegalMoves()
+						& 1 << result.getBestPit() - 1) != 0);
+			}
+			assertEquals(9, depth);
+
+			Mancala over = new Mancala();
+			while (!over.isGameOverConditionMet()) {
+				over.performTurn(1 + Integer
+						.numberOfTrailingZeros(over.getLegalMoves()));
+			}
+			assertEquals(0, service.analyze(over, 4, null, null).getResult()
+					.get(30, TimeUnit.SECONDS).getBestPit());
+			assertThrows(IllegalArgumentException.class,
+					() -> service.analyze(new Mancala(), 0, null, null));
+		}
+	}
+
+	@Test
+	@DisplayName("Test cancellation, stale sessions and deadlines")
+	void testCancellation() throws Exception {
+		try (AnalysisService service = new AnalysisService(1,
+				new TranspositionTable(1))) {
+			Recorder recorder = new Recorder();
+			Analysis stale = service.analyze(7, new Mancala(),
+					SearchEngine.MAX_PLY, null, recorder);
+			Mancala moved = new Mancala();
+			moved.performTurn(1);
+			// one worker: only finishes if the stale one stopped at once
+			Analysis fresh = service.analyze(7, moved, 6, null, null);
+			assertTrue(stale.isDone());
+			assertTrue(stale.getResult().isCancelled());
+			assertFalse(stale.cancel());
+			assertThrows(CancellationException.class,
+					() -> recorder.done.get(30, TimeUnit.SECONDS));
+			assertEquals(6, fresh.getResult().get(30, TimeUnit.SECONDS)
+					.getDepth());
+
+			// a deep analysis does not keep a shallow one waiting
+			Analysis deep = service.analyze(new Mancala(),
+					SearchEngine.MAX_PLY, null, null);
+			Analysis shallow = service.analyze(moved, 3, null, null);
+			assertEquals(3, shallow.getResult().get(30, TimeUnit.SECONDS)
+					.getDepth());
+			assertFalse(deep.isDone());
+			assertTrue(deep.cancel());
+
+			Analysis timed = service.analyze(new Mancala(),
+					SearchEngine.MAX_PLY, Duration.ofMillis(200), null);
+			SearchResult result = timed.getResult().get(30, TimeUnit.SECONDS);
+			assertTrue(result.getDepth() >= 1);
+			assertSame(result, timed.getLatest());
+			while (service.getRunningCount() != 0) {
+				Thread.sleep(10);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test successive analyses age the shared table")
+	void testAging() throws Exception {
+		TranspositionTable table = new TranspositionTable(1);
+		long deep = 0x1234_5678_0000_0007L;
+		long shallow = deep + table.capacity(); // the same slot
+		try (AnalysisService service = new AnalysisService(2, table)) {
+			Random random = new Random(23);
+			for (int i = 0; i < 300; i++) {
+				table.store(deep, 60, 1, TranspositionTable.EXACT, 1);
+				Mancala game = new Mancala();
+				for (int turn = 0; turn < 6 && game.getLegalMoves() != 0;
+						turn++) {
+					game.performTurn(1 + random.nextInt(6));
+				}
+				service.analyze(game, 3, null, null).getResult().get(30,
+						TimeUnit.SECONDS);
+				// the deep result of the last analysis gives way at once
+				table.store(shallow, 1, 2, TranspositionTable.EXACT, 2);
+				assertEquals(0, table.probe(deep));
+				assertEquals(2,
+						TranspositionTable.scoreOf(table.probe(shallow)));
+			}
+		}
+	}
+
+	private static class Recorder implements Flow.Subscriber<SearchResult> {
+		final List<SearchResult> results = new CopyOnWriteArrayList<>();
+		final CompletableFuture<Void> done = new CompletableFuture<>();
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			subscription.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(SearchResult item) {
+			results.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			done.completeExceptionally(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			done.complete(null);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import P5.Side.Player;
+
+class BoardIndexTest {
+
+	@Test
+	@DisplayName("Test iteration walks every board once in rank order")
+	void testIterator() {
+		BoardIndex index = new BoardIndex(Variant.of(2, 1), 4);
+		assertEquals(6, index.getSlots());
+		assertEquals(126, index.size()); // 9 choose 5
+		Set<String> seen = new HashSet<>();
+		int[] unranked = new int[index.getSlots()];
+		long rank = 0;
+		for (int[] board : index) {
+			assertEquals(4, Arrays.stream(board).sum());
+			assertEquals(rank, index.rank(board));
+			assertArrayEquals(board, index.unrank(rank, unranked));
+			assertTrue(seen.add(Arrays.toString(board)));
+			rank++;
+		}
+		assertEquals(index.size(), rank);
+		assertArrayEquals(new int[] { 0, 0, 0, 0, 0, 4 },
+				index.unrank(0, unranked));
+		assertArrayEquals(new int[] { 4, 0, 0, 0, 0, 0 },
+				index.unrank(index.size() - 1, unranked));
+
+		Iterator<int[]> empty = new BoardIndex(Variant.of(1, 1), 0)
+				.iterator();
+		assertArrayEquals(new int[4], empty.next());
+		assertFalse(empty.hasNext());
+		assertThrows(NoSuchElementException.class, empty::next);
+	}
+
+	@Test
+	@DisplayName("Test games rank densely and unrank back")
+	void testGames() {
+		BoardIndex index = new BoardIndex(Variant.KALAH_6_4);
+		assertEquals(48, index.getSeeds());
+		assertEquals(14, index.getSlots());
+		assertEquals(6_566_222_272_575L, index.size()); // 61 choose 13
+		int[] board = new int[index.getSlots()];
+		Random random = new Random(25);
+		for (int games = 0; games < 20; games++) {
+			Mancala game = new Mancala();
+			while (!game.isGameOverConditionMet()) {
+				long rank = index.rank(game);
+				assertTrue(rank >= 0 && rank < index.size());
+				index.unrank(rank, board);
+				assertArrayEquals(game.getSide(Player.One).getRow(),
+						Arrays.copyOfRange(board, 0, Side.ROW_SIZE));
+				assertArrayEquals(game.getSide(Player.Two).getRow(),
+						Arrays.copyOfRange(board, Side.ROW_SIZE, 14));
+				assertEquals(rank, index.rank(board));
+				int moves = game.getLegalMoves();
+				int pit;
+				do {
+					pit = 1 + random.nextInt(Side.STORE_INDEX);
+				} while ((moves & 1 << pit - 1) == 0);
+				game.performTurn(pit);
+			}
+		}
+
+		assertThrows(IllegalArgumentException.class,
+				() -> index.rank(new int[13]));
+		assertThrows(IllegalArgumentException.class,
+				() -> index.rank(new int[14]));
+		int[] negative = new int[14];
+		negative[0] = -1;
+		negative[1] = 49;
+		assertThrows(IllegalArgumentException.class,
+				() -> index.rank(negative));
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> index.unrank(index.size(), board));
+		assertThrows(IllegalArgumentException.class,
+				() -> index.rank(new Mancala(Variant.KALAH_6_3)));
+		assertThrows(IllegalArgumentException.class,
+				() -> new BoardIndex(Variant.of(16, 1000)));
+	}
+}
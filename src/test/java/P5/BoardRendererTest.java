@@ -0,0 +1,107 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import P5.BoardRenderer.Format;
+import P5.Side.Player;
+
+class BoardRendererTest {
+
+	/*
+	 * Helper method: the board as Mancala.toString formatted it with
+	 * String.format.
+	 */
+	private static String formatBoard(Mancala game) {
+		int[] one = game.getSide(Player.One).getRow();
+		int[] two = game.getSide(Player.Two).getRow();
+		return String.format(
+				"%s%n" + "|   |%2d|%2d|%2d|%2d|%2d|%2d|   |%n" + "|%3d%s%3d|%n"
+						+ "|   |%2d|%2d|%2d|%2d|%2d|%2d|   |%n" + "%s%n",
+				"---------------------------", two[5], two[4], two[3], two[2],
+				two[1], two[0], two[6], "|=================|", one[6], one[0],
+				one[1], one[2], one[3], one[4], one[5],
+				"---------------------------");
+	}
+
+	/*
+	 * Helper method: the status as Mancala.printCurrentGameStatus formatted
+	 * it with String.format.
+	 */
+	private static String formatStatus(Mancala game) {
+		Player toMove = game.getCurrentPlayer();
+		Side inPlay = game.getSide(toMove);
+		Side waiting = game.getSide(game.getWaitingPlayer());
+		String msg = String.format("Player %s's turn.%n Current board:%n",
+				toMove);
+		if (inPlay.getNumSeedsInPits() == 0
+				|| waiting.getNumSeedsInPits() == 0) {
+			msg = String.format("Player %s has won!!%n Final board: ",
+					inPlay.getStoreCount() > waiting.getStoreCount() ? toMove
+							: game.getWaitingPlayer());
+		}
+		return String.format("%28s%n" + formatBoard(game), msg);
+	}
+
+	@Test
+	@DisplayName("Test text matches the formatted board and status")
+	void testText() {
+		BoardRenderer renderer = new BoardRenderer();
+		StringBuilder out = new StringBuilder();
+		Random random = new Random(16);
+		for (int g = 0; g < 50; g++) {
+			Mancala game = new Mancala();
+			while (true) {
+				assertEquals(formatBoard(game), game.toString());
+				out.setLength(0);
+				assertEquals(formatStatus(game),
+						renderer.renderStatus(game, out).toString());
+				if (game.isGameOverConditionMet()) {
+					break;
+				}
+				game.performTurn(MoveSelector.randomPit(game.getLegalMoves(),
+						random));
+			}
+		}
+
+		int[] row = { 0, 7, 10, 99, 100, 123, 255 };
+		Mancala wide = new Mancala();
+		wide.getSide(Player.One).restoreRow(row, 0);
+		wide.getSide(Player.Two).restoreRow(row, 0);
+		assertEquals(formatBoard(wide), wide.toString());
+
+		for (String line : new Mancala(Variant.of(8, 4)).toString()
+				.split(System.lineSeparator())) {
+			assertEquals(33, line.length(), line);
+		}
+	}
+
+	@Test
+	@DisplayName("Test compact boards in one buffer")
+	void testCompactBatch() {
+		long[] states = new long[3 * Position.WORDS];
+		Position.initial(states, 0);
+		Position.applyMove(states, 0, states, Position.WORDS, 3);
+		Position.applyMove(states, Position.WORDS, states,
+				2 * Position.WORDS, 1);
+
+		BoardRenderer renderer = new BoardRenderer();
+		ByteBuffer out = ByteBuffer.allocate(64);
+		assertEquals(2, renderer.render(Format.COMPACT, states, 0, 3, out));
+		assertEquals("4,4,4,4,4,4,0,4,4,4,4,4,4,0,1,0\n"
+				+ "4,4,0,5,5,5,1,4,4,4,4,4,4,0,1,0\n",
+				new String(out.array(), 0, out.position(),
+						StandardCharsets.US_ASCII));
+
+		StringBuilder text = new StringBuilder();
+		renderer.render(Format.TEXT, states, 2 * Position.WORDS, text);
+		assertEquals(new Mancala(states, 2 * Position.WORDS).toString(),
+				text.toString());
+	}
+}
@@ -0,0 +1,93 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import P5.Side.Player;
+
+class BoardSnapshotTest {
+
+	@Test
+	@DisplayName("Test snapshots copy the board and are published on change")
+	void testSnapshots() {
+		Mancala game = new Mancala();
+		assertNull(game.getSnapshot());
+		BoardSnapshot start = game.publishSnapshots();
+		assertSame(start, game.getSnapshot());
+		assertEquals(0b111111, start.getLegalMoves());
+
+		game.performTurn(3);
+		BoardSnapshot after = game.getSnapshot();
+		assertNotSame(start, after);
+		assertEquals(4, start.getSeedCount(Player.One, 2)); // unchanged
+		assertEquals(0, after.getSeedCount(Player.One, 2));
+		assertEquals(1, after.getStoreCount(Player.One));
+		assertEquals(Player.One, after.getSideToMove());
+		assertEquals(game.getZobristKey(), after.getZobristKey());
+		long[] state = new long[Position.WORDS];
+		long[] expected = new long[Position.WORDS];
+		after.toPosition(state, 0);
+		game.toPosition(expected, 0);
+		assertArrayEquals(expected, state);
+
+		game.takeTurn(3); // refused, still published
+		assertNotSame(after, game.getSnapshot());
+		assertTrue(game.makeMove(1));
+		assertTrue(game.unmakeMove());
+		assertEquals(after.getZobristKey(),
+				game.getSnapshot().getZobristKey());
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> after.getSeedCount(Player.Two, Side.ROW_SIZE));
+
+		Mancala wide = new Mancala(Variant.of(8, 5));
+		BoardSnapshot board = wide.publishSnapshots();
+		wide.performTurn(8);
+		assertEquals(5, board.getSeedCount(Player.One, 7));
+		assertEquals(1, wide.getSnapshot().getStoreCount(Player.One));
+		assertEquals(6, wide.getSnapshot().getSeedCount(Player.Two, 3));
+		assertThrows(IllegalStateException.class,
+				() -> board.toPosition(state, 0));
+	}
+
+	@Test
+	@DisplayName("Test readers see whole boards while the game is played")
+	void testConcurrentReaders() throws InterruptedException {
+		Mancala game = new Mancala();
+		game.publishSnapshots();
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicLong torn = new AtomicLong();
+		AtomicLong reads = new AtomicLong();
+		Thread[] readers = new Thread[3];
+		for (int r = 0; r < readers.length; r++) {
+			readers[r] = new Thread(() -> {
+				long[] state = new long[Position.WORDS];
+				while (!done.get()) {
+					game.getSnapshot().toPosition(state, 0);
+					if (Position.totalSeeds(state, 0) != 48) {
+						torn.incrementAndGet();
+					}
+					reads.incrementAndGet();
+				}
+			});
+			readers[r].start();
+		}
+		for (int games = 0; games < 2000; games++) {
+			game.reset();
+			while (!game.isGameOverConditionMet()) {
+				game.performTurn(1 + Integer.numberOfTrailingZeros(
+						game.getLegalMoves()));
+			}
+		}
+		done.set(true);
+		for (Thread reader : readers) {
+			reader.join();
+		}
+		assertEquals(0, torn.get());
+		assertTrue(reads.get() > 0);
+	}
+}
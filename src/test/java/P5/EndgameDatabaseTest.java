@@ -0,0 +1,92 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import P5.Side.Player;
+
+class EndgameDatabaseTest {
+
+	@TempDir
+	Path directory;
+
+	/*
+	 * Helper method: plays random legal moves from a new game until at most
+	 * seeds seeds are left in the pits.
+	 */
+	private static Mancala randomEndgame(Random random, int seeds) {
+		Mancala game = new Mancala();
+		while (game.getNumSeedsInPits(Player.One)
+				+ game.getNumSeedsInPits(Player.Two) > seeds) {
+			game.performTurn(1 + random.nextInt(6));
+			if (game.getLegalMoves() == 0) {
+				game = new Mancala();
+			}
+		}
+		return game;
+	}
+
+	@Test
+	@DisplayName("Test index and unrank are inverses")
+	void testIndexRoundTrip() {
+		int[] pits = new int[EndgameDatabase.PITS];
+		for (int seeds = 0; seeds <= 4; seeds++) {
+			long first = EndgameDatabase.size(seeds - 1);
+			for (long rank = 0; rank < EndgameDatabase.size(seeds)
+					- first; rank++) {
+				EndgameDatabase.unrank(seeds, rank, pits);
+				int sum = 0;
+				for (int pit : pits) {
+					sum += pit;
+				}
+				assertEquals(seeds, sum);
+				assertEquals(first + rank, EndgameDatabase.index(pits));
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test database outcomes match a full search")
+	void testProbeMatchesSearch() throws IOException {
+		Path file = directory.resolve("endgames.db");
+		EndgameGenerator.generate(6, file);
+		EndgameDatabase endgames = EndgameDatabase.open(file);
+		assertEquals(6, endgames.getMaxSeeds());
+
+		Random random = new Random(11);
+		SearchEngine plain = new SearchEngine(null);
+		SearchEngine probing = new SearchEngine(new TranspositionTable(1));
+		probing.setEndgameDatabase(endgames);
+		for (int i = 0; i < 40; i++) {
+			Mancala game = randomEndgame(random, 6);
+			if (!endgames.covers(game)) {
+				continue;
+			}
+			SearchResult expected = plain.search(game, SearchEngine.MAX_PLY,
+					Long.MAX_VALUE);
+			assertEquals(expected.getScore(), endgames.probe(game));
+			assertEquals(expected.getScore(), probing
+					.search(game, SearchEngine.MAX_PLY, Long.MAX_VALUE)
+					.getScore());
+		}
+	}
+
+	@Test
+	@DisplayName("Test files that are not databases are rejected")
+	void testRejectsCorruptFile() throws IOException {
+		Path file = directory.resolve("endgames.db");
+		EndgameGenerator.generate(2, file);
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+		assertThrows(IOException.class, () -> EndgameDatabase.open(file));
+	}
+}
@@ -0,0 +1,88 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import P5.Side.Player;
+
+class GameBatchTest {
+
+	@Test
+	@DisplayName("Test scalar batches play every game as Mancala does")
+	void testScalarMatchesMancala() {
+		assertMatchesMancala(false);
+		GameBatch batch = new GameBatch(Variant.KALAH_6_4, 3, false);
+		assertThrows(IllegalArgumentException.class,
+				() -> batch.step(new int[2], new int[3]));
+		assertThrows(IllegalArgumentException.class,
+				() -> new GameBatch(Variant.KALAH_6_4, 0));
+	}
+
+	@Test
+	@DisplayName("Test vectorized batches play every game as Mancala does")
+	void testVectorMatchesMancala() {
+		// surefire adds the module; other runners may not
+		assumeTrue(GameBatch.isVectorAvailable(),
+				"needs --add-modules jdk.incubator.vector");
+		assertMatchesMancala(true);
+	}
+
+	private static void assertMatchesMancala(boolean vectorized) {
+		Random random = new Random(21);
+		for (Variant variant : new Variant[] { Variant.KALAH_6_4,
+				Variant.of(4, 3), Variant.of(3, 20), Variant.of(9, 6) }) {
+			int count = 101; // not a multiple of any vector length
+			GameBatch batch = new GameBatch(variant, count, vectorized);
+			assertEquals(vectorized, batch.isVectorized());
+			Mancala[] games = new Mancala[count];
+			for (int g = 0; g < count; g++) {
+				games[g] = new Mancala(variant);
+			}
+			int[] pits = new int[count];
+			int[] results = new int[count];
+			for (int step = 0; step < 400; step++) {
+				int played = 0;
+				for (int g = 0; g < count; g++) {
+					// mostly legal moves, now and then a refused one
+					int moves = games[g].getLegalMoves();
+					pits[g] = moves == 0 || random.nextInt(8) == 0
+							? random.nextInt(variant.getPits() + 2)
+							: MoveSelector.randomPit(moves, random);
+				}
+				int batchPlayed = batch.step(pits, results);
+				for (int g = 0; g < count; g++) {
+					int result = games[g].takeTurn(pits[g]);
+					played += result & TurnResult.PLAYED;
+					assertEquals(result, results[g]);
+				}
+				assertEquals(played, batchPlayed);
+				for (int g = 0; g < count; g += 7) {
+					assertSameGame(games[g], batch, g);
+				}
+				if (played == 0) {
+					break;
+				}
+			}
+			for (int g = 0; g < count; g++) {
+				assertSameGame(games[g], batch, g);
+			}
+		}
+	}
+
+	private static void assertSameGame(Mancala game, GameBatch batch, int g) {
+		assertEquals(game.getCurrentPlayer(), batch.getCurrentPlayer(g));
+		assertEquals(game.isGameOverConditionMet(), batch.isGameOver(g));
+		assertEquals(game.getLegalMoves(), batch.getLegalMoves(g));
+		for (Player player : Player.values()) {
+			int[] row = game.getSide(player).getRow();
+			for (int i = 0; i < row.length; i++) {
+				assertEquals(row[i], batch.getSeedCount(g, player, i));
+			}
+		}
+	}
+}
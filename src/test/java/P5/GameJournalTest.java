@@ -0,0 +1,125 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GameJournalTest {
+
+	/*
+	 * Helper method: plays turns random legal turns over the games, all
+	 * submitted at once, and returns the ids of the games.
+	 */
+	private static long[] playGames(SessionManager sessions, int games,
+			int turns, Random random) {
+		long[] ids = new long[games];
+		for (int g = 0; g < games; g++) {
+			ids[g] = sessions.createGame();
+		}
+		for (int t = 0; t < turns; t++) {
+			List<CompletableFuture<long[]>> pending = new ArrayList<>();
+			for (long id : ids) {
+				long[] state = sessions.getState(id);
+				int moves = Position.legalMoves(state, 0);
+				if (moves != 0) {
+					pending.add(sessions.submitTurn(id,
+							MoveSelector.randomPit(moves, random)));
+				}
+			}
+			pending.forEach(CompletableFuture::join);
+		}
+		return ids;
+	}
+
+	@Test
+	@DisplayName("Test games are recovered from snapshots and the log")
+	void testRecovery(@TempDir Path directory) throws IOException {
+		long[] ids;
+		long[][] states;
+		try (SessionManager sessions = new SessionManager(2)) {
+			GameJournal journal = GameJournal.open(directory, sessions, 50);
+			try {
+				ids = playGames(sessions, 8, 30, new Random(1));
+				assertTrue(sessions.removeGame(ids[3]));
+				states = new long[ids.length][];
+				for (int g = 0; g < ids.length; g++) {
+					states[g] = g == 3 ? null : sessions.getState(ids[g]);
+				}
+			} finally {
+				journal.close();
+			}
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			assertTrue(files.count() <= 3); // older files are deleted
+		}
+
+		try (SessionManager sessions = new SessionManager(2)) {
+			GameJournal journal = GameJournal.open(directory, sessions, 50);
+			try {
+				assertEquals(ids.length - 1, sessions.getGameCount());
+				for (int g = 0; g < ids.length; g++) {
+					if (g != 3) {
+						assertArrayEquals(states[g],
+								sessions.getState(ids[g]));
+					}
+				}
+				assertTrue(sessions.createGame() > ids[ids.length - 1]);
+			} finally {
+				journal.close();
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test a record cut short by a crash is ignored")
+	void testTornRecord(@TempDir Path directory) throws IOException {
+		long id;
+		long[] state;
+		try (SessionManager sessions = new SessionManager(1)) {
+			GameJournal journal = GameJournal.open(directory, sessions,
+					GameJournal.DEFAULT_SNAPSHOT_INTERVAL);
+			try {
+				id = sessions.createGame();
+				sessions.takeTurn(id, 3);
+				state = sessions.takeTurn(id, 1);
+			} finally {
+				journal.close();
+			}
+		}
+		Path segment;
+		try (Stream<Path> files = Files.list(directory)) {
+			segment = files.filter(file -> file.toString().endsWith(".log"))
+					.findFirst().orElseThrow();
+		}
+		assertEquals(3 * GameJournal.RECORD_BYTES, Files.size(segment));
+		try (FileChannel channel = FileChannel.open(segment,
+				StandardOpenOption.APPEND)) {
+			channel.write(ByteBuffer.allocate(GameJournal.RECORD_BYTES - 4));
+		}
+
+		try (SessionManager sessions = new SessionManager(1)) {
+			GameJournal journal = GameJournal.open(directory, sessions,
+					GameJournal.DEFAULT_SNAPSHOT_INTERVAL);
+			try {
+				assertEquals(1, sessions.getGameCount());
+				assertArrayEquals(state, sessions.getState(id));
+			} finally {
+				journal.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GameRecordTest {
+
+	/*
+	 * Helper method: plays a random game with seedsPerPit seeds per pit and
+	 * returns its moves.
+	 */
+	private static int[] randomGame(Random random, int seedsPerPit) {
+		long[] state = new long[Position.WORDS];
+		Position.initial(state, 0, seedsPerPit);
+		int[] moves = new int[1000];
+		int plies = 0;
+		while (Position.legalMoves(state, 0) != 0) {
+			int pitNumber = 1 + random.nextInt(6);
+			if (Position.applyMove(state, 0, state, 0, pitNumber)) {
+				moves[plies++] = pitNumber;
+			}
+		}
+		return Arrays.copyOf(moves, plies);
+	}
+
+	@Test
+	@DisplayName("Test games read back with their positions at every ply")
+	void testRoundTrip() throws IOException {
+		for (int interval : new int[] { 0, 8 }) {
+			Random random = new Random(interval);
+			int[][] games = new int[200][];
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (GameRecordWriter writer = new GameRecordWriter(
+					Channels.newChannel(bytes), 6, interval)) {
+				for (int g = 0; g < games.length; g++) {
+					games[g] = randomGame(random, 6);
+					writer.writeGame(games[g], games[g].length);
+				}
+			}
+
+			long[] expected = new long[Position.WORDS];
+			long[] actual = new long[Position.WORDS];
+			Mancala game = new Mancala();
+			try (GameRecordReader reader = new GameRecordReader(Channels
+					.newChannel(new ByteArrayInputStream(bytes.toByteArray())))) {
+				assertEquals(6, reader.getSeedsPerPit());
+				assertEquals(interval, reader.getCheckpointInterval());
+				for (int[] moves : games) {
+					assertEquals(moves.length, reader.nextGame());
+					Position.initial(expected, 0, 6);
+					for (int ply = 0; ply <= moves.length; ply++) {
+						reader.positionAt(ply, actual, 0);
+						assertArrayEquals(expected, actual);
+						reader.replay(game, ply);
+						game.toPosition(actual, 0);
+						assertArrayEquals(expected, actual);
+						if (ply < moves.length) {
+							assertEquals(moves[ply], reader.getMove(ply));
+							Position.applyMove(expected, 0, expected, 0,
+									moves[ply]);
+						}
+					}
+				}
+				assertEquals(-1, reader.nextGame());
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test illegal moves and truncated archives are rejected")
+	void testInvalidGames() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GameRecordWriter writer = new GameRecordWriter(
+				Channels.newChannel(bytes), 4, 0)) {
+			writer.writeGame(new int[] { 3, 1 }, 2);
+			assertThrows(IllegalArgumentException.class,
+					() -> writer.writeGame(new int[] { 3, 3 }, 2));
+		}
+		// header, one ply count byte and one byte of two moves
+		assertEquals(GameRecord.HEADER_BYTES + 2, bytes.size());
+
+		byte[] truncated = Arrays.copyOf(bytes.toByteArray(),
+				bytes.size() - 1);
+		try (GameRecordReader reader = new GameRecordReader(Channels
+				.newChannel(new ByteArrayInputStream(truncated)))) {
+			assertThrows(EOFException.class, reader::nextGame);
+		}
+		assertThrows(IOException.class, () -> new GameRecordReader(Channels
+				.newChannel(new ByteArrayInputStream(new byte[3]))));
+	}
+}
@@ -2,6 +2,8 @@ package P5;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -403,4 +405,254 @@ class MancalaTest {
 		assertArrayEquals(P2, board[1].getRow());
 	}
 
+	@DisplayName("Test sowing more than one lap around the board")
+	@Test
+	void testSowFullLaps() {
+		long[] state = new long[Position.WORDS];
+		Position.pack(state, 0, new int[] {0, 0, 27, 0, 0, 0, 0},
+				new int[] {1, 1, 1, 1, 1, 1, 0}, Player.One, false);
+		game = new Mancala(state, 0);
+		
+		game.performTurn(3);
+		
+		// final board representations
+		int[] P1 = {2, 2, 2, 3, 2, 2, 2};
+		int[] P2 = {3, 3, 3, 3, 3, 3, 0};
+		
+		Side[] board = game.getBoard();
+		
+		assertEquals(Player.Two, game.getCurrentPlayer());
+		assertArrayEquals(P1, board[0].getRow());
+		assertArrayEquals(P2, board[1].getRow());
+	}
+	
+	@DisplayName("Test sowing exactly one lap captures from the emptied pit")
+	@Test
+	void testSowExactLapCaptures() {
+		long[] state = new long[Position.WORDS];
+		Position.pack(state, 0, new int[] {13, 0, 0, 0, 0, 0, 0},
+				new int[] {1, 1, 1, 1, 1, 2, 0}, Player.One, false);
+		game = new Mancala(state, 0);
+		
+		game.performTurn(1);
+		
+		// final board representations
+		int[] P1 = {0, 1, 1, 1, 1, 1, 5};
+		int[] P2 = {2, 2, 2, 2, 2, 0, 0};
+		
+		Side[] board = game.getBoard();
+		
+		assertEquals(Player.Two, game.getCurrentPlayer());
+		assertArrayEquals(P1, board[0].getRow());
+		assertArrayEquals(P2, board[1].getRow());
+	}
+
+	@DisplayName("Test running seed totals match the pits during play")
+	@Test
+	void testRunningSeedTotals() {
+		Random random = new Random(3);
+		for (int games = 0; games < 200; games++) {
+			game = new Mancala();
+			for (int turn = 0; turn < 200; turn++) {
+				game.performTurn(1 + random.nextInt(6));
+				for (Side side : game.getBoard()) {
+					int[] row = side.getRow();
+					int sum = 0;
+					for (int i = 0; i < Side.STORE_INDEX; i++) {
+						sum += row[i];
+					}
+					assertEquals(sum, side.getNumSeedsInPits());
+				}
+			}
+		}
+	}
+
+	@DisplayName("Test unmaking moves restores the exact previous state")
+	@Test
+	void testMakeAndUnmakeMove() {
+		Random random = new Random(4);
+		long[] before = new long[Position.WORDS];
+		long[] after = new long[Position.WORDS];
+		for (int games = 0; games < 200; games++) {
+			game = new Mancala();
+			int moves = 0;
+			for (int turn = 0; turn < 300; turn++) {
+				game.toPosition(before, 0);
+				int pitNumber = random.nextInt(8);
+				if (game.makeMove(pitNumber)) {
+					moves++;
+					game.unmakeMove();
+					game.toPosition(after, 0);
+					assertArrayEquals(before, after);
+					assertTrue(game.makeMove(pitNumber));
+				}
+			}
+			for (; moves > 0; moves--) {
+				assertTrue(game.unmakeMove());
+			}
+			assertFalse(game.unmakeMove());
+			Position.initial(before, 0);
+			game.toPosition(after, 0);
+			assertArrayEquals(before, after);
+			assertEquals(24, game.getBoard()[1].getNumSeedsInPits());
+		}
+	}
+
+	@DisplayName("Test reset returns a played game to the start")
+	@Test
+	void testReset() {
+		Random random = new Random(5);
+		long[] start = new long[Position.WORDS];
+		long[] after = new long[Position.WORDS];
+		Position.initial(start, 0);
+		for (int turn = 0; turn < 20; turn++) {
+			game.makeMove(1 + random.nextInt(6));
+		}
+		game.reset();
+		game.toPosition(after, 0);
+		assertArrayEquals(start, after);
+		assertEquals(new Mancala().getZobristKey(), game.getZobristKey());
+		assertFalse(game.unmakeMove());
+	}
+
+	@DisplayName("Test Kalah(6,3) plays like a Position with three seeds")
+	@Test
+	void testSixThreeVariant() {
+		Random random = new Random(6);
+		long[] expected = new long[Position.WORDS];
+		long[] actual = new long[Position.WORDS];
+		for (int games = 0; games < 100; games++) {
+			game = new Mancala(Variant.of(6, 3));
+			assertSame(Variant.KALAH_6_3, game.getVariant());
+			Position.initial(expected, 0, 3);
+			while (!game.isGameOverConditionMet()) {
+				int pitNumber = 1 + random.nextInt(6);
+				assertEquals(Position.applyMove(expected, 0, expected, 0,
+						pitNumber), game.makeMove(pitNumber));
+				game.toPosition(actual, 0);
+				assertArrayEquals(expected, actual);
+			}
+			game.reset();
+			assertEquals(18, game.getNumSeedsInPits(Player.Two));
+		}
+	}
+
+	@DisplayName("Test a wider board sows, captures and ends")
+	@Test
+	void testWideVariant() {
+		game = new Mancala(Variant.of(8, 5));
+		assertEquals(0xFF, game.getLegalMoves());
+		game.performTurn(4); // pits 5 to 8 and the store, another turn
+		assertArrayEquals(new int[] {5, 5, 5, 0, 6, 6, 6, 6, 1},
+				game.getSide(Player.One).getRow());
+		assertEquals(Player.One, game.getCurrentPlayer());
+		game.performTurn(8); // around into Two's pits 1 to 5
+		assertArrayEquals(new int[] {6, 6, 6, 6, 6, 5, 5, 5, 0},
+				game.getSide(Player.Two).getRow());
+		assertEquals(Player.Two, game.getCurrentPlayer());
+
+		Random random = new Random(7);
+		while (!game.isGameOverConditionMet()) {
+			game.performTurn(1 + random.nextInt(8));
+			assertEquals(80, game.getStoreCount(Player.One)
+					+ game.getStoreCount(Player.Two)
+					+ game.getNumSeedsInPits(Player.One)
+					+ game.getNumSeedsInPits(Player.Two));
+		}
+		assertThrows(IllegalStateException.class,
+				() -> game.toPosition(new long[Position.WORDS], 0));
+		assertThrows(IllegalArgumentException.class, () -> Variant.of(0, 4));
+	}
+
+	@DisplayName("Test turn results tell what each turn did")
+	@Test
+	void testTurnResults() {
+		int result = game.takeTurn(3);
+		assertTrue(TurnResult.isPlayed(result));
+		assertTrue(TurnResult.isExtraTurn(result));
+		assertEquals(Side.STORE_INDEX, TurnResult.landingSlot(result));
+		assertEquals(TurnResult.REJECTED, game.takeTurn(3)); // emptied pit
+		assertEquals(TurnResult.REJECTED, game.takeTurn(7));
+
+		// the rest of the capture game above
+		int[] pits = {4, 4, 2, 3, 5, 3, 1, 4, 1, 2, 3, 5};
+		int[] results = new int[pits.length];
+		assertEquals(pits.length, game.performTurns(pits, results));
+		assertEquals(8, TurnResult.landingSlot(results[0])); // Two's pit 2
+		assertFalse(TurnResult.isExtraTurn(results[0]));
+		int last = results[pits.length - 1];
+		assertTrue(TurnResult.isCapture(last));
+		assertEquals(1, TurnResult.landingSlot(last));
+		assertEquals(2, TurnResult.capturedSeeds(last));
+		assertFalse(TurnResult.isGameOver(last));
+		assertArrayEquals(new int[] {1, 0, 2, 2, 0, 10, 8},
+				game.getSide(Player.One).getRow());
+		assertEquals("played landing 1 capture 2", TurnResult.toString(last));
+	}
+
+	@DisplayName("Test a batch of turns plays like one turn at a time")
+	@Test
+	void testPerformTurns() {
+		Random random = new Random(18);
+		int[] pits = new int[200];
+		int[] results = new int[pits.length];
+		for (int games = 0; games < 100; games++) {
+			for (int i = 0; i < pits.length; i++) {
+				pits[i] = random.nextInt(8); // 0 and 7 are never legal
+			}
+			Mancala batch = new Mancala();
+			Mancala single = new Mancala();
+			int played = batch.performTurns(pits, 5, pits.length, results);
+			for (int i = 5; i < 5 + played; i++) {
+				assertEquals(single.takeTurn(pits[i]), results[i]);
+			}
+			int stop = 5 + played;
+			if (stop < pits.length) {
+				assertFalse(TurnResult.isPlayed(results[stop]));
+				assertEquals(single.isGameOverConditionMet(),
+						TurnResult.isGameOver(results[stop]));
+			}
+			assertEquals(single.getZobristKey(), batch.getZobristKey());
+			assertEquals(single.toString(), batch.toString());
+		}
+		while (!game.isGameOverConditionMet()) {
+			game.performTurn(1 + Integer.numberOfTrailingZeros(
+					game.getLegalMoves()));
+		}
+		assertEquals(TurnResult.GAME_OVER, game.takeTurn(1));
+		assertEquals(0, game.performTurns(new int[] {1}, null));
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> game.performTurns(pits, 0, 3, new int[2]));
+	}
+
+	@Test
+	@DisplayName("Test both engines play the same game")
+	void testEngines() {
+		Random random = new Random(22);
+		for (Variant variant : new Variant[] { Variant.KALAH_6_4,
+				Variant.of(1, 1), Variant.of(4, 3), Variant.of(3, 20),
+				Variant.of(9, 6), Variant.of(2, 600) }) {
+			for (int games = 0; games < 20; games++) {
+				Mancala arithmetic = new Mancala(variant);
+				Mancala tables = new Mancala(variant, Mancala.Engine.TABLES);
+				assertEquals(Mancala.Engine.ARITHMETIC, arithmetic.getEngine());
+				assertEquals(Mancala.Engine.TABLES, tables.getEngine());
+				while (!arithmetic.isGameOverConditionMet()) {
+					int pitNumber = random.nextInt(variant.getPits() + 2);
+					assertEquals(arithmetic.takeTurn(pitNumber),
+							tables.takeTurn(pitNumber));
+					assertEquals(arithmetic.toString(), tables.toString());
+				}
+				assertTrue(tables.isGameOverConditionMet());
+			}
+		}
+		Mancala tables = new Mancala(Variant.KALAH_6_4,
+				Mancala.Engine.TABLES);
+		String start = tables.toString();
+		assertTrue(tables.makeMove(3));
+		assertEquals(Mancala.Engine.TABLES, new Mancala(tables).getEngine());
+		assertTrue(tables.unmakeMove());
+		assertEquals(start, tables.toString());
+	}
+
 }
@@ -0,0 +1,57 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MonteCarloSearchTest {
+
+	@Test
+	@DisplayName("Test playout budget and node capacity are respected")
+	void testBudget() {
+		try (MonteCarloSearch search = new MonteCarloSearch(2, 1000)) {
+			Mancala game = new Mancala();
+			game.performTurn(3);
+			long[] before = new long[Position.WORDS];
+			long[] after = new long[Position.WORDS];
+			game.toPosition(before, 0);
+			MonteCarloResult result = search.search(game, 5001,
+					Long.MAX_VALUE);
+			assertEquals(5001, result.getPlayouts());
+			assertTrue(result.getNodes() <= 2000);
+			assertNotEquals(0,
+					game.getLegalMoves() & 1 << result.getBestPit() - 1);
+			game.toPosition(after, 0);
+			assertArrayEquals(before, after);
+
+			assertThrows(IllegalStateException.class, () -> search
+					.search(new Mancala(Variant.of(8, 4)), 10, Long.MAX_VALUE));
+			assertThrows(IllegalArgumentException.class, () -> search
+					.search(new Mancala(Variant.of(6, 22)), 10, Long.MAX_VALUE));
+		}
+	}
+
+	@Test
+	@DisplayName("Test Monte Carlo search beats random play")
+	void testBeatsRandom() {
+		// one SelfPlay thread, so the search is only used by that thread
+		try (SelfPlay selfPlay = new SelfPlay(1);
+				MonteCarloSearch search = new MonteCarloSearch(1, 20_000)) {
+			SelfPlayStats stats = selfPlay.play(20,
+					() -> (game, random) -> search.search(game, 2000, 1000)
+							.getBestPit(),
+					MoveSelector::random, 3);
+			assertTrue(stats.getWinsOne() >= 16, stats.toString());
+		}
+	}
+
+	@Test
+	@DisplayName("Test the speed of long searches does not overflow")
+	void testPlayoutsPerSecond() {
+		assertEquals(10_000_000_000L, new MonteCarloResult(1, 0.5,
+				20_000_000_000L, 1, 2_000_000_000L).getPlayoutsPerSecond());
+		assertEquals(0, new MonteCarloResult(1, 0.5, 3, 1, 0)
+				.getPlayoutsPerSecond());
+	}
+}
@@ -0,0 +1,47 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PerftTest {
+
+	@Test
+	@DisplayName("Test perft of the opening matches the known counts")
+	void testKnownCounts() {
+		Mancala game = new Mancala();
+		for (int depth = 0; depth <= 7; depth++) {
+			assertEquals(Perft.KNOWN_COUNTS[depth], Perft.perft(game, depth));
+		}
+		long[] state = new long[Position.WORDS * 10];
+		Position.initial(state, 0);
+		assertEquals(Perft.KNOWN_COUNTS[9], Perft.perft(state, 0, 9));
+	}
+
+	@Test
+	@DisplayName("Test Mancala and Position perft agree on random positions")
+	void testEnginesAgree() {
+		Random random = new Random(6);
+		long[] state = new long[Position.WORDS * 6];
+		for (int i = 0; i < 50; i++) {
+			Mancala game = new Mancala();
+			int turns = random.nextInt(30);
+			for (int turn = 0; turn < turns; turn++) {
+				game.performTurn(1 + random.nextInt(6));
+			}
+			game.toPosition(state, 0);
+			long[] counts = Perft.divide(game, 5);
+			long total = 0;
+			for (long count : counts) {
+				total += count;
+			}
+			assertEquals(Perft.perft(state, 0, 5), total);
+			assertEquals(Perft.perft(game, 5), total);
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> Perft.divide(new Mancala(), 0));
+	}
+}
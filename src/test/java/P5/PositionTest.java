@@ -0,0 +1,111 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import P5.Side.Player;
+
+class PositionTest {
+
+	/*
+	 * Helper method: packs a game so it can be compared with a Position.
+	 */
+	private static long[] pack(Mancala game) {
+		long[] state = new long[Position.WORDS];
+		game.toPosition(state, 0);
+		return state;
+	}
+
+	@Test
+	@DisplayName("Test initial position matches a new game")
+	void testInitial() {
+		long[] state = new long[Position.WORDS];
+		Position.initial(state, 0);
+		assertArrayEquals(pack(new Mancala()), state);
+		assertEquals(Player.One, Position.sideToMove(state, 0));
+		assertFalse(Position.isGameOver(state, 0));
+		assertEquals(0b111111, Position.legalMoves(state, 0));
+		assertEquals(48, Position.totalSeeds(state, 0));
+	}
+
+	@Test
+	@DisplayName("Test illegal moves leave the destination untouched")
+	void testIllegalMoves() {
+		long[] state = new long[Position.WORDS];
+		Position.initial(state, 0);
+		long[] dst = { 7, 7 };
+		assertFalse(Position.applyMove(state, 0, dst, 0, 0));
+		assertFalse(Position.applyMove(state, 0, dst, 0, 7));
+		assertArrayEquals(new long[] { 7, 7 }, dst);
+
+		assertTrue(Position.applyMove(state, 0, state, 0, 1));
+		assertTrue(Position.applyMove(state, 0, state, 0, 1));
+		assertFalse(Position.applyMove(state, 0, dst, 0, 1));
+	}
+
+	@Test
+	@DisplayName("Test round trip between Mancala and Position")
+	void testRoundTrip() {
+		Mancala game = new Mancala();
+		game.performTurn(3);
+		game.performTurn(6);
+		long[] state = pack(game);
+		Mancala copy = new Mancala(state, 0);
+		assertEquals(game.getCurrentPlayer(), copy.getCurrentPlayer());
+		assertArrayEquals(game.getBoard()[0].getRow(),
+				copy.getBoard()[0].getRow());
+		assertArrayEquals(game.getBoard()[1].getRow(),
+				copy.getBoard()[1].getRow());
+		assertArrayEquals(state, pack(copy));
+	}
+
+	@Test
+	@DisplayName("Test applyMove and legalMoves agree with performTurn")
+	void testMatchesPerformTurn() {
+		Random random = new Random(372);
+		long[] state = new long[Position.WORDS];
+		for (int games = 0; games < 2000; games++) {
+			Mancala game = new Mancala();
+			Position.initial(state, 0);
+			while (!Position.isGameOver(state, 0)) {
+				int pitNumber = random.nextInt(8);
+				boolean legal = (Position.legalMoves(state, 0)
+						& 1 << pitNumber - 1) != 0;
+				assertEquals(legal,
+						Position.applyMove(state, 0, state, 0, pitNumber));
+				game.performTurn(pitNumber);
+				assertArrayEquals(pack(game), state);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test applyMove agrees with performTurn with many seeds")
+	void testMatchesPerformTurnWithManySeeds() {
+		Random random = new Random(13);
+		long[] state = new long[Position.WORDS];
+		for (int games = 0; games < 500; games++) {
+			Position.initial(state, 0, 8 + random.nextInt(14));
+			Mancala game = new Mancala(state, 0);
+			while (!Position.isGameOver(state, 0)) {
+				int pitNumber = 1 + random.nextInt(6);
+				Position.applyMove(state, 0, state, 0, pitNumber);
+				game.performTurn(pitNumber);
+				assertArrayEquals(pack(game), state);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test packing rejects boards with too many seeds")
+	void testTooManySeeds() {
+		long[] state = new long[Position.WORDS];
+		assertThrows(IllegalArgumentException.class,
+				() -> Position.initial(state, 0, 22));
+		assertDoesNotThrow(() -> Position.initial(state, 0, 21));
+	}
+}
@@ -0,0 +1,276 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import P5.Side.Player;
+
+class SearchEngineTest {
+
+	/*
+	 * Helper method: plain minimax over Position copies, the reference the
+	 * engine must agree with.
+	 */
+	private static int minimax(long[] state, int depth) {
+		Player mover = Position.sideToMove(state, 0);
+		if (depth == 0) {
+			return storeDifference(state, mover);
+		}
+		int best = Integer.MIN_VALUE;
+		int moves = Position.legalMoves(state, 0);
+		for (int pitNumber = 1; pitNumber <= 6; pitNumber++) {
+			if ((moves & 1 << pitNumber - 1) == 0) {
+				continue;
+			}
+			long[] child = new long[Position.WORDS];
+			Position.applyMove(state, 0, child, 0, pitNumber);
+			int score;
+			if (Position.isGameOver(child, 0)) {
+				score = storeDifference(child, mover);
+			} else if (Position.sideToMove(child, 0) == mover) {
+				score = minimax(child, depth - 1);
+			} else {
+				score = -minimax(child, depth - 1);
+			}
+			best = Math.max(best, score);
+		}
+		return best;
+	}
+
+	private static int storeDifference(long[] state, Player player) {
+		Player opponent = player == Player.One ? Player.Two : Player.One;
+		return Position.seedCount(state, 0, player, Side.STORE_INDEX)
+				- Position.seedCount(state, 0, opponent, Side.STORE_INDEX);
+	}
+
+	/*
+	 * Helper method: plays random legal moves from a new game.
+	 */
+	private static Mancala randomGame(Random random, int turns) {
+		Mancala game = new Mancala();
+		for (int i = 0; i < turns && game.getLegalMoves() != 0; i++) {
+			game.performTurn(1 + random.nextInt(6));
+		}
+		return game;
+	}
+
+	@Test
+	@DisplayName("Test alpha-beta scores agree with plain minimax")
+	void testAgreesWithMinimax() {
+		Random random = new Random(5);
+		SearchEngine engine = new SearchEngine(null);
+		long[] state = new long[Position.WORDS];
+		for (int i = 0; i < 40; i++) {
+			Mancala game = randomGame(random, random.nextInt(30));
+			if (game.getLegalMoves() == 0) {
+				continue;
+			}
+			game.toPosition(state, 0);
+			SearchResult result = engine.search(game, 5, Long.MAX_VALUE);
+			assertEquals(5, result.getDepth());
+			assertEquals(minimax(state, 5), result.getScore());
+		}
+	}
+
+	@Test
+	@DisplayName("Test search leaves the game unchanged and plays its pv")
+	void testPrincipalVariation() {
+		Random random = new Random(6);
+		SearchEngine engine = new SearchEngine();
+		long[] before = new long[Position.WORDS];
+		long[] after = new long[Position.WORDS];
+		for (int i = 0; i < 40; i++) {
+			Mancala game = randomGame(random, random.nextInt(30));
+			game.toPosition(before, 0);
+			SearchResult result = engine.search(game, 8, Long.MAX_VALUE);
+			game.toPosition(after, 0);
+			assertArrayEquals(before, after);
+
+			int[] pv = result.getPrincipalVariation();
+			if (game.getLegalMoves() == 0) {
+				assertEquals(0, result.getBestPit());
+				continue;
+			}
+			assertEquals(pv[0], result.getBestPit());
+			for (int pitNumber : pv) {
+				assertTrue(game.makeMove(pitNumber));
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test extra turns are searched for the same player")
+	void testExtraTurn() {
+		// Player One can chain several extra turns starting from pit 6.
+		long[] state = new long[Position.WORDS];
+		Position.pack(state, 0, new int[] {0, 0, 0, 3, 0, 1, 0},
+				new int[] {0, 0, 9, 0, 0, 1, 0}, Player.One, false);
+		Mancala game = new Mancala(state, 0);
+		SearchResult result = new SearchEngine().search(game, 6,
+				Long.MAX_VALUE);
+		assertEquals(6, result.getBestPit());
+		assertEquals(minimax(state, 6), result.getScore());
+	}
+
+	@Test
+	@DisplayName("Test node budget stops deepening")
+	void testNodeBudget() {
+		SearchResult result = new SearchEngine().search(new Mancala(), 40,
+				5_000);
+		assertTrue(result.getDepth() >= 1 && result.getDepth() < 40);
+		assertTrue(result.getBestPit() >= 1 && result.getBestPit() <= 6);
+	}
+
+	@Test
+	@DisplayName("Test incremental Zobrist keys match keys built from scratch")
+	void testZobristKeys() {
+		Random random = new Random(7);
+		long[] state = new long[Position.WORDS];
+		for (int i = 0; i < 100; i++) {
+			Mancala game = new Mancala();
+			while (game.getLegalMoves() != 0) {
+				long before = game.getZobristKey();
+				if (!game.makeMove(1 + random.nextInt(6))) {
+					continue;
+				}
+				game.toPosition(state, 0);
+				assertEquals(new Mancala(state, 0).getZobristKey(),
+						game.getZobristKey());
+				if (random.nextInt(4) == 0) {
+					game.unmakeMove();
+					assertEquals(before, game.getZobristKey());
+				}
+			}
+		}
+		Mancala game = new Mancala();
+		long start = game.getZobristKey();
+		game.performTurn(1);
+		assertNotEquals(start, game.getZobristKey());
+
+		// the same board with the other player to move
+		Position.pack(state, 0, new int[] {4, 4, 4, 4, 4, 4, 0},
+				new int[] {4, 4, 4, 4, 4, 4, 0}, Player.Two, false);
+		assertNotEquals(start, new Mancala(state, 0).getZobristKey());
+	}
+
+	@Test
+	@DisplayName("Test transposition table search solves endgames exactly")
+	void testTranspositionTableScores() {
+		Random random = new Random(8);
+		SearchEngine plain = new SearchEngine(null);
+		SearchEngine hashed = new SearchEngine(new TranspositionTable(1));
+		for (int i = 0; i < 30; i++) {
+			// play randomly until at most eight seeds are left in play
+			Mancala game = new Mancala();
+			while (game.getNumSeedsInPits(Player.One)
+					+ game.getNumSeedsInPits(Player.Two) > 8) {
+				game.performTurn(1 + random.nextInt(6));
+				if (game.getLegalMoves() == 0) {
+					game = new Mancala();
+				}
+			}
+			SearchResult expected = plain.search(game, SearchEngine.MAX_PLY,
+					Long.MAX_VALUE);
+			SearchResult actual = hashed.search(game, SearchEngine.MAX_PLY,
+					Long.MAX_VALUE);
+			assertEquals(expected.getScore(), actual.getScore());
+		}
+	}
+
+	@Test
+	@DisplayName("Test table entries keep every field up to sixteen pits")
+	void testTableEntries() {
+		TranspositionTable table = new TranspositionTable(1);
+		for (int pit = 0; pit <= Variant.MAX_PITS; pit++) {
+			long key = 0x5EED_0000_0000_0000L + pit;
+			table.store(key, 200 - pit, -pit - 1,
+					TranspositionTable.LOWER_BOUND, pit);
+			long data = table.probe(key);
+			assertEquals(-pit - 1, TranspositionTable.scoreOf(data));
+			assertEquals(200 - pit, TranspositionTable.depthOf(data));
+			assertEquals(TranspositionTable.LOWER_BOUND,
+					TranspositionTable.boundOf(data));
+			assertEquals(pit, TranspositionTable.bestPitOf(data));
+
+			// a shallower result of the same search does not replace it
+			long other = key + table.capacity();
+			table.store(other, 1, 0, TranspositionTable.EXACT, 1);
+			assertEquals(data, table.probe(key));
+			assertEquals(0, table.probe(other));
+		}
+	}
+
+	@Test
+	@DisplayName("Test parallel search solves endgames like one thread")
+	void testParallelSearch() {
+		Random random = new Random(9);
+		SearchEngine single = new SearchEngine(null);
+		long[] before = new long[Position.WORDS];
+		long[] after = new long[Position.WORDS];
+		try (ParallelSearch parallel = new ParallelSearch(4,
+				new TranspositionTable(4))) {
+			for (int i = 0; i < 20; i++) {
+				Mancala game = new Mancala();
+				while (game.getNumSeedsInPits(Player.One)
+						+ game.getNumSeedsInPits(Player.Two) > 10) {
+					game.performTurn(1 + random.nextInt(6));
+					if (game.getLegalMoves() == 0) {
+						game = new Mancala();
+					}
+				}
+				game.toPosition(before, 0);
+				SearchResult expected = single.search(game,
+						SearchEngine.MAX_PLY, Long.MAX_VALUE);
+				SearchResult actual = parallel.search(game,
+						SearchEngine.MAX_PLY, Long.MAX_VALUE);
+				game.toPosition(after, 0);
+				assertArrayEquals(before, after);
+				assertEquals(expected.getScore(), actual.getScore());
+				assertEquals(4, parallel.getNodesPerSecondPerThread().length);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test a stop made between searches can be withdrawn")
+	void testStaleStop() {
+		SearchEngine engine = new SearchEngine(new TranspositionTable(1));
+		Mancala game = new Mancala();
+		engine.stop();
+		assertEquals(1, engine.search(game, 8, Long.MAX_VALUE).getDepth());
+		assertEquals(8, engine.search(game, 8, Long.MAX_VALUE).getDepth());
+		engine.stop();
+		engine.clearStop();
+		assertEquals(8, engine.search(game, 8, Long.MAX_VALUE).getDepth());
+	}
+
+	@Test
+	@DisplayName("Test the speed of long searches does not overflow")
+	void testNodesPerSecond() {
+		int[] pv = { 1 };
+		assertEquals(10_000_000_000L, new SearchResult(1, 0, 1,
+				20_000_000_000L, 2_000_000_000L, pv).getNodesPerSecond());
+		assertEquals(1_500, new SearchResult(1, 0, 1, 3, 2_000_000, pv)
+				.getNodesPerSecond());
+		assertEquals(0, new SearchResult(1, 0, 1, 3, 0, pv)
+				.getNodesPerSecond());
+	}
+
+	@Test
+	@DisplayName("Test copies of a game are independent")
+	void testCopy() {
+		Mancala game = new Mancala();
+		game.performTurn(3);
+		Mancala copy = new Mancala(game);
+		copy.performTurn(6);
+		assertEquals(Player.One, game.getCurrentPlayer());
+		assertEquals(Player.Two, copy.getCurrentPlayer());
+		assertEquals(1, game.getStoreCount(Player.One));
+		assertEquals(2, copy.getStoreCount(Player.One));
+		assertFalse(copy.unmakeMove());
+	}
+}
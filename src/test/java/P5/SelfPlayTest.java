@@ -0,0 +1,42 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SelfPlayTest {
+
+	@Test
+	@DisplayName("Test self-play totals add up and repeat with the same seed")
+	void testRandomPlay() {
+		try (SelfPlay selfPlay = new SelfPlay(3)) {
+			SelfPlayStats stats = selfPlay.play(3000, MoveSelector::random,
+					MoveSelector::random, 42);
+			assertEquals(3000, stats.getGames());
+			assertEquals(stats.getGames(), stats.getWinsOne()
+					+ stats.getWinsTwo() + stats.getDraws());
+			assertTrue(stats.getShortestGame() > 0);
+			assertTrue(stats.getShortestGame() <= stats.getLongestGame());
+			assertTrue(stats.getTurns() >= 3000L * stats.getShortestGame());
+
+			SelfPlayStats again = selfPlay.play(3000, MoveSelector::random,
+					MoveSelector::random, 42);
+			assertEquals(stats.getWinsOne(), again.getWinsOne());
+			assertEquals(stats.getTurns(), again.getTurns());
+		}
+	}
+
+	@Test
+	@DisplayName("Test engine play and invalid pits")
+	void testSelectors() {
+		try (SelfPlay selfPlay = new SelfPlay(2)) {
+			SelfPlayStats stats = selfPlay.play(4,
+					() -> MoveSelector.engine(4, 1), MoveSelector::random, 1);
+			assertEquals(4, stats.getGames());
+			assertThrows(IllegalStateException.class,
+					() -> selfPlay.play(2, () -> (game, random) -> 7,
+							MoveSelector::random, 1));
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import P5.Side.Player;
+
+class SessionManagerTest {
+
+	@Test
+	@DisplayName("Test turns are applied to their own game")
+	void testTurns() {
+		try (SessionManager sessions = new SessionManager(2)) {
+			long first = sessions.createGame();
+			long second = sessions.createGame();
+			long[] state = sessions.submitTurn(first, 1).join();
+			assertEquals(Player.Two, Position.sideToMove(state, 0));
+			assertEquals(0, Position.seedCount(state, 0, Player.One, 0));
+
+			long[] untouched = new long[Position.WORDS];
+			Position.initial(untouched, 0);
+			assertArrayEquals(untouched, sessions.getState(second));
+
+			assertThrows(IllegalArgumentException.class,
+					() -> sessions.takeTurn(second, 7));
+			CompletionException e = assertThrows(CompletionException.class,
+					() -> sessions.submitTurn(first, 0).join());
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+
+			assertTrue(sessions.removeGame(first));
+			assertThrows(NoSuchElementException.class,
+					() -> sessions.getState(first));
+			assertEquals(1, sessions.getGameCount());
+		}
+	}
+
+	@Test
+	@DisplayName("Test load over the manager and over HTTP")
+	void testLoad() throws IOException {
+		try (SessionManager sessions = new SessionManager(4)) {
+			long[] latencies = LoadGenerator.run(sessions, 200, 4, 2000);
+			assertEquals(8000, latencies.length);
+			assertTrue(LoadGenerator.percentile(latencies, 0.5) <= LoadGenerator
+					.percentile(latencies, 0.99));
+			assertEquals(0, sessions.getGameCount());
+
+			try (GameServer server = new GameServer(sessions, 0, 2)) {
+				long[] remote = LoadGenerator.run(
+						URI.create("http://127.0.0.1:" + server.getPort()), 10,
+						2, 200);
+				assertEquals(400, remote.length);
+				assertTrue(remote[0] > 0);
+				assertTrue(LoadGenerator.percentile(remote, 0.5)
+						<= LoadGenerator.percentile(remote, 0.99));
+				assertEquals(0, sessions.getGameCount());
+			}
+
+			assertThrows(IllegalArgumentException.class,
+					() -> LoadGenerator.run(sessions, 2, 3, 10));
+			assertThrows(IllegalArgumentException.class,
+					() -> LoadGenerator.run(sessions, 0, 0, 10));
+			assertThrows(IllegalArgumentException.class,
+					() -> LoadGenerator.run(sessions, 4, 0, 10));
+			assertThrows(IllegalArgumentException.class,
+					() -> LoadGenerator.main(new String[] { "1", "2", "3" }));
+		}
+	}
+
+	@Test
+	@DisplayName("Test only paths under /games reach the games")
+	void testRoutes() throws IOException {
+		try (SessionManager sessions = new SessionManager(1);
+				GameServer server = new GameServer(sessions, 0, 1)) {
+			String base = "http://127.0.0.1:" + server.getPort();
+			assertEquals(404, status(base + "/gamesfoo", "POST"));
+			assertEquals(404, status(base + "/games1", "GET"));
+			assertEquals(404, status(base + "/gamesfoo/1/turn?pit=3", "POST"));
+			assertEquals(0, sessions.getGameCount());
+			assertEquals(201, status(base + "/games", "POST"));
+			assertEquals(201, status(base + "/games/", "POST"));
+			assertEquals(2, sessions.getGameCount());
+		}
+	}
+
+	private static int status(String url, String method) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url)
+				.openConnection();
+		try {
+			connection.setRequestMethod(method);
+			return connection.getResponseCode();
+		} finally {
+			connection.disconnect();
+		}
+	}
+}
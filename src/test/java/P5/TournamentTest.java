@@ -0,0 +1,125 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import P5.Tournament.Entrant;
+
+class TournamentTest {
+
+	@Test
+	@DisplayName("Test round robins are paired, logged and repeatable")
+	void testRoundRobin() {
+		List<Entrant> entrants = List.of(Entrant.engine(3, 1),
+				Entrant.greedy(), Entrant.random());
+		StringBuilder log = new StringBuilder();
+		TournamentResult result;
+		TournamentResult again;
+		try (Tournament tournament = new Tournament(3)) {
+			result = tournament.play(entrants, 20, 2, null, log, 24);
+		}
+		try (Tournament tournament = new Tournament(1)) {
+			again = tournament.play(entrants, 20, 2, null, null, 24);
+		}
+
+		assertEquals(120, result.getGames());
+		assertEquals(3, result.getMatches().size());
+		String[] lines = log.toString().split("\n");
+		assertEquals(120, lines.length);
+		Arrays.sort(lines);
+		for (String line : lines) {
+			assertTrue(line.matches("\\d+ \\w+ \\w+ \\d\\.\\d [-+]?\\d+ \\d+"),
+					line);
+		}
+		for (int m = 0; m < 3; m++) {
+			MatchStats match = result.getMatches().get(m);
+			assertEquals(40, match.getGames());
+			assertEquals(20, Arrays.stream(match.getPentanomial()).sum());
+			assertNull(match.getVerdict());
+			assertTrue(match.getEloLower() <= match.getElo());
+			assertTrue(match.getElo() <= match.getEloUpper());
+			MatchStats same = again.getMatches().get(m);
+			assertEquals(match.getWins(), same.getWins());
+			assertEquals(match.getDraws(), same.getDraws());
+			assertArrayEquals(match.getPentanomial(), same.getPentanomial());
+		}
+		assertTrue(result.getMatch("engine3", "random").getScore() > 0.5);
+		assertTrue(result.getMatch("greedy", "random").getScore() > 0.5);
+		assertThrows(IllegalArgumentException.class,
+				() -> result.getMatch("random", "engine3"));
+	}
+
+	@Test
+	@DisplayName("Test deep engines repeat whatever the threads")
+	void testRepeatable() {
+		List<Entrant> entrants = List.of(Entrant.engine(6, 1),
+				Entrant.engine(5, 1), Entrant.greedy());
+		TournamentResult result;
+		TournamentResult again;
+		try (Tournament tournament = new Tournament(1)) {
+			result = tournament.play(entrants, 60, 2, null, null, 24);
+		}
+		try (Tournament tournament = new Tournament(8)) {
+			again = tournament.play(entrants, 60, 2, null, null, 24);
+		}
+
+		for (int m = 0; m < 3; m++) {
+			MatchStats match = result.getMatches().get(m);
+			MatchStats same = again.getMatches().get(m);
+			assertEquals(match.getWins(), same.getWins());
+			assertEquals(match.getDraws(), same.getDraws());
+			assertArrayEquals(match.getPentanomial(), same.getPentanomial());
+		}
+	}
+
+	@Test
+	@DisplayName("Test the SPRT stops a pairing once it is decided")
+	void testSprt() {
+		Sprt sprt = new Sprt(0, 100, 0.05, 0.05);
+		assertEquals(Math.log(0.05 / 0.95), sprt.getLowerBound(), 1e-12);
+		assertEquals(Math.log(0.95 / 0.05), sprt.getUpperBound(), 1e-12);
+		assertEquals(0.5, Sprt.expectedScore(0), 1e-12);
+		assertEquals(123, Sprt.elo(Sprt.expectedScore(123)), 1e-9);
+		assertEquals(Sprt.Verdict.CONTINUE, sprt.verdict(new long[5]));
+		assertEquals(Sprt.Verdict.ACCEPT_H1,
+				sprt.verdict(new long[] { 0, 0, 10, 20, 70 }));
+		assertEquals(Sprt.Verdict.ACCEPT_H0,
+				sprt.verdict(new long[] { 20, 50, 100, 50, 20 }));
+
+		try (Tournament tournament = new Tournament(2)) {
+			MatchStats stronger = tournament.play(
+					List.of(Entrant.engine(4, 1), Entrant.random()), 1000, 2,
+					sprt, null, 7).getMatches().get(0);
+			assertEquals(Sprt.Verdict.ACCEPT_H1, stronger.getVerdict());
+			assertTrue(stronger.getGames() < 2000);
+
+			MatchStats equal = tournament.play(
+					List.of(Entrant.random(),
+							new Entrant("random2", MoveSelector::random)),
+					1000, 2, new Sprt(100, 200, 0.05, 0.05), null, 7)
+					.getMatches().get(0);
+			assertEquals(Sprt.Verdict.ACCEPT_H0, equal.getVerdict());
+			assertTrue(equal.getGames() < 2000);
+
+			assertThrows(IllegalStateException.class,
+					() -> tournament.play(List.of(Entrant.random(),
+							new Entrant("broken", () -> (game, random) -> 7)),
+							4, 2, null, null, 1));
+			assertThrows(IllegalArgumentException.class,
+					() -> tournament.play(List.of(Entrant.random(),
+							Entrant.random()), 4, 2, null, null, 1));
+			assertThrows(IllegalArgumentException.class,
+					() -> tournament.play(List.of(Entrant.random()), 4, 2,
+							null, null, 1));
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> new Entrant("two words", MoveSelector::random));
+		assertThrows(IllegalArgumentException.class,
+				() -> new Sprt(10, 0, 0.05, 0.05));
+	}
+}
@@ -0,0 +1,116 @@
+package P5;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class TurnMetricsTest {
+
+	// the capture game of MancalaTest, ending with a capture of 2 seeds
+	private static final int[] CAPTURE_GAME = {3, 4, 4, 2, 3, 5, 3, 1, 4, 1,
+			2, 3, 5};
+
+	@Test
+	@DisplayName("Test turns are counted and timed")
+	void testMetrics() throws IOException {
+		try (SessionManager sessions = new SessionManager(1)) {
+			long id = sessions.createGame();
+			for (int pitNumber : CAPTURE_GAME) {
+				sessions.takeTurn(id, pitNumber);
+			}
+			assertThrows(IllegalArgumentException.class,
+					() -> sessions.takeTurn(id, 7));
+
+			TurnMetrics metrics = sessions.getMetrics();
+			assertEquals(CAPTURE_GAME.length, metrics.getTurns());
+			assertEquals(1, metrics.getRejected());
+			assertEquals(1, metrics.getCaptures());
+			assertEquals(4, metrics.getExtraTurns());
+			assertEquals(0, metrics.getGamesOver());
+			long[] captured = metrics.getCapturedSeedBuckets();
+			assertEquals(TurnMetrics.BUCKETS, captured.length);
+			assertEquals(1, captured[2]); // 2 and 3 seeds
+			assertEquals(CAPTURE_GAME.length,
+					sum(metrics.getLatencyBuckets()));
+
+			String text = metrics.writeTo(new StringBuilder()).toString();
+			assertTrue(text.contains("mancala_turns_total 13\n"));
+			assertTrue(text
+					.contains("mancala_captured_seeds_bucket{le=\"1\"} 0\n"));
+			assertTrue(text
+					.contains("mancala_captured_seeds_bucket{le=\"3\"} 1\n"));
+			assertTrue(text.contains("mancala_captured_seeds_sum 2\n"));
+			assertTrue(text.contains(
+					"mancala_turn_latency_nanoseconds_bucket{le=\"+Inf\"} 13\n"));
+
+			try (GameServer server = new GameServer(sessions, 0, 1);
+					InputStream in = new URL("http://127.0.0.1:"
+							+ server.getPort() + "/metrics").openStream()) {
+				assertEquals(text, new String(in.readAllBytes(),
+						StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Test turns are recorded by Java Flight Recorder")
+	void testEvents() throws IOException {
+		Path file = Files.createTempFile("turns", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("P5.Turn");
+			recording.enable("P5.Capture");
+			recording.enable("P5.GameOver");
+			recording.enable("P5.InvalidMove");
+			recording.start();
+			Mancala game = new Mancala();
+			game.performTurns(CAPTURE_GAME, null);
+			game.takeTurn(7);
+			while (!game.isGameOverConditionMet()) {
+				game.performTurn(1 + Integer.numberOfTrailingZeros(
+						game.getLegalMoves()));
+			}
+			recording.stop();
+			recording.dump(file);
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+			assertTrue(count(events, "P5.Turn") > CAPTURE_GAME.length);
+			assertTrue(count(events, "P5.Capture") >= 1);
+			assertEquals(1, count(events, "P5.GameOver"));
+			assertEquals(1, count(events, "P5.InvalidMove"));
+			RecordedEvent invalid = events.stream().filter(
+					e -> e.getEventType().getName().equals("P5.InvalidMove"))
+					.findFirst().get();
+			assertEquals(7, invalid.getInt("pit"));
+			assertEquals("Two", invalid.getString("player"));
+			assertFalse(invalid.getBoolean("gameOver"));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private static long sum(long[] counts) {
+		long sum = 0;
+		for (long count : counts) {
+			sum += count;
+		}
+		return sum;
+	}
+
+	private static long count(List<RecordedEvent> events, String name) {
+		return events.stream()
+				.filter(e -> e.getEventType().getName().equals(name)).count();
+	}
+}